@@ -0,0 +1,101 @@
+package com.example.scoreboard;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Delta encoding cost and multicast delivery over the loopback interface. The loopback
+// benchmark fails if a receiver decodes anything other than what was offered.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadcastBenchmark {
+    private static final InetSocketAddress GROUP = new InetSocketAddress("239.1.2.3", 4450);
+
+    private final ByteBuffer packet = ByteBuffer.allocateDirect(StateCodec.MAX_PACKET_SIZE);
+    private final StateCodec.Decoder decoder = new StateCodec.Decoder();
+    private GameSnapshot previous;
+    private GameSnapshot next;
+    private int sequence;
+
+    private StateBroadcaster broadcaster;
+    private StateReceiver[] receivers;
+    private long tenths;
+
+    @Setup
+    public void setUp() throws IOException {
+        previous = snapshot(1, 1_200);
+        next = snapshot(2, 1_201);
+        packet.clear();
+        StateCodec.encodeKeyframe(packet, ++sequence, previous);
+        packet.flip();
+        decoder.decode(packet);
+
+        NetworkInterface loopback = NetworkInterface.getByName("lo");
+        broadcaster = new StateBroadcaster(GROUP, loopback);
+        receivers = new StateReceiver[8];
+        for (int i = 0; i < receivers.length; i++) {
+            receivers[i] = new StateReceiver(GROUP, loopback);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        broadcaster.close();
+        for (StateReceiver receiver : receivers) {
+            receiver.close();
+        }
+    }
+
+    private static GameSnapshot snapshot(long version, long tenths) {
+        return new GameSnapshot(version, 2, 1, 2, true, false, GameSnapshot.Phase.PLAY, true,
+                tenths * GameClock.NANOS_PER_TENTH, 0, 1, 0, 0, List.of(), -1, -1);
+    }
+
+    @Benchmark
+    public int encodeClockDelta() {
+        packet.clear();
+        StateCodec.encodeDelta(packet, ++sequence, previous, next);
+        return packet.position();
+    }
+
+    @Benchmark
+    public GameSnapshot encodeAndDecodeDelta() {
+        packet.clear();
+        StateCodec.encodeDelta(packet, ++sequence, previous, next);
+        packet.flip();
+        GameSnapshot decoded = decoder.decode(packet);
+        GameSnapshot swap = previous;
+        previous = next;
+        next = swap;
+        return decoded;
+    }
+
+    // One clock tick from offer until all receivers decoded it
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public GameSnapshot loopbackDelivery() {
+        long expected = ++tenths * GameClock.NANOS_PER_TENTH;
+        broadcaster.offer(snapshot(tenths, tenths));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        GameSnapshot received = null;
+        for (StateReceiver receiver : receivers) {
+            while ((received = receiver.snapshot()) == null || received.gameClockNanos() < expected) {
+                if (System.nanoTime() > deadline) {
+                    break; // lost datagram, the next keyframe recovers it
+                }
+                Thread.onSpinWait();
+            }
+        }
+        return received;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.scoreboard;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Compares the String.format based formatTime the scoreboard used to call on every tick
+// with ClockFormatter. Run with -prof gc to see the per-call allocation.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClockFormatBenchmark {
+    private final ClockFormatter formatter = new ClockFormatter();
+    private final char[] buffer = new char[24];
+    private long tenths;
+
+    // One tick per call, wrapping at a 20 minute period
+    private long nextTenth() {
+        tenths = tenths == 11_999 ? 0 : tenths + 1;
+        return tenths;
+    }
+
+    @Benchmark
+    public String legacyFormatTime() {
+        return formatTime(nextTenth() / 10.0);
+    }
+
+    @Benchmark
+    public String formatterNewTenth() {
+        return formatter.formatTenths(nextTenth());
+    }
+
+    @Benchmark
+    public String formatterSameTenth() {
+        return formatter.formatTenths(42);
+    }
+
+    @Benchmark
+    public int formatToBuffer() {
+        return ClockFormatter.formatTo(nextTenth(), buffer, 0);
+    }
+
+    // Copy of the original HelloApplication.formatTime, kept as the baseline
+    private static String formatTime(double timeSeconds) {
+        int minutes = (int) timeSeconds / 60;
+        int seconds = (int) timeSeconds % 60;
+        int tenths = (int) ((timeSeconds * 10) % 10);
+        return String.format("%02d:%02d.%d", minutes, seconds, tenths);
+    }
+}
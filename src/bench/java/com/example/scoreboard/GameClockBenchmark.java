@@ -0,0 +1,49 @@
+package com.example.scoreboard;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of sampling and driving the game clock, which happens on every display tick
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameClockBenchmark {
+    private long fakeNanos;
+    private final GameClock simulatedClock = new GameClock(() -> fakeNanos);
+    private final GameClock systemClock = new GameClock();
+
+    @Setup
+    public void setUp() {
+        simulatedClock.countUp(0, GameClock.toNanos(20, 0));
+        simulatedClock.start();
+        systemClock.countUp(0, 0);
+        systemClock.start();
+    }
+
+    @Benchmark
+    public long advanceOneTick() {
+        fakeNanos += GameClock.NANOS_PER_TENTH;
+        if (simulatedClock.pauseIfFinished()) {
+            simulatedClock.countUp(0, GameClock.toNanos(20, 0));
+            simulatedClock.start();
+        }
+        return simulatedClock.valueNanos();
+    }
+
+    @Benchmark
+    public long sampleSystemClock() {
+        return systemClock.valueNanos();
+    }
+
+    @Benchmark
+    public long pauseResume() {
+        fakeNanos += 1_000;
+        simulatedClock.pause();
+        simulatedClock.start();
+        return simulatedClock.valueNanos();
+    }
+}
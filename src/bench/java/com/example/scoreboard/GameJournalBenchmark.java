@@ -0,0 +1,46 @@
+package com.example.scoreboard;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Journal appends happen on the FX thread inside the button handlers and must stay well below a microsecond
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameJournalBenchmark {
+    private Path file;
+    private GameJournal journal;
+    private long clockNanos;
+
+    @Setup(Level.Iteration)
+    public void open() throws IOException {
+        file = Files.createTempFile("scoreboard", ".journal");
+        journal = GameJournal.open(file);
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() throws IOException {
+        journal.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int append() {
+        clockNanos += GameClock.NANOS_PER_TENTH;
+        journal.append(GameJournal.GOAL, 1, clockNanos);
+        return journal.size();
+    }
+
+    @Benchmark
+    public void checkpoint() {
+        clockNanos += GameClock.NANOS_PER_TENTH;
+        journal.checkpoint(clockNanos);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.scoreboard;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Simulated regulation games on one thread, the time per game for both ways of stepping the
+// engine; the GC profiler's gc.alloc.rate.norm is the allocation per game
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameSimulatorBenchmark {
+    private static final int GAMES = 100;
+
+    @Param({"false", "true"})
+    private boolean stepEveryTenth;
+
+    private GameSimulator simulator;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        simulator = new GameSimulator(GameSimulator.REGULATION, stepEveryTenth);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public GameSimulator.Report games() {
+        GameSimulator.Report report = simulator.runRandom(GAMES, seed, 1);
+        seed += GAMES;
+        if (report.failed() > 0) {
+            throw new IllegalStateException(report.failures().get(0));
+        }
+        return report;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.scoreboard;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Operator actions: score buttons and period changes through GameState.PERIODS
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+    private final GameState game = new GameState();
+    private boolean forward = true;
+
+    @Benchmark
+    public int scoreIncrementDecrement() {
+        game.addGoal(true);
+        game.removeGoal(true);
+        return game.getHomeScore();
+    }
+
+    @Benchmark
+    public String scoreIncrementWithLabelText() {
+        game.addGoal(false);
+        game.removeGoal(false);
+        return String.valueOf(game.getAwayScore());
+    }
+
+    @Benchmark
+    public String periodChange() {
+        // Walk 1. -> N and back, like an operator correcting the period
+        boolean moved = forward ? game.nextPeriod() : game.previousPeriod();
+        if (!moved) {
+            forward = !forward;
+        }
+        return game.getPeriodLabel();
+    }
+}
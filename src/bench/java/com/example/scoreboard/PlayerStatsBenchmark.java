@@ -0,0 +1,51 @@
+package com.example.scoreboard;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Box score updates per event, and adding a finished game to the season totals
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerStatsBenchmark {
+    private final PlayerStats stats = new PlayerStats();
+    private final SeasonStats season = SeasonStats.inMemory();
+    private int number;
+
+    @Setup
+    public void setUp() {
+        stats.setTeam(true, 0);
+        stats.setTeam(false, 1);
+    }
+
+    @Benchmark
+    public int goalWithAssists() {
+        number = number % 97 + 1;
+        stats.goal(true, 2, PlayerStats.packGoal(number, number + 1, number + 2));
+        stats.removeGoal(true);
+        return stats.get(true, number, 2, PlayerStats.GOALS);
+    }
+
+    @Benchmark
+    public int shot() {
+        number = number % 99 + 1;
+        stats.add(false, number, 3, PlayerStats.SHOTS, 1);
+        return number;
+    }
+
+    @Benchmark
+    public int gameTotal() {
+        number = number % 99 + 1;
+        return stats.get(true, number, PlayerStats.GOALS);
+    }
+
+    @Benchmark
+    public int addGameToSeason() {
+        stats.addTo(season);
+        return season.gamesPlayed(0);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.scoreboard;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Round trip of a remote console command over loopback, from sending it until its
+// acknowledgement arrived, with one console and with three sending at the same time
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RemoteControlBenchmark {
+    @State(Scope.Benchmark)
+    public static class Server {
+        private final AtomicInteger consoleIds = new AtomicInteger();
+        private ScoreboardEngine engine;
+        private RemoteControlServer server;
+        private InetSocketAddress address;
+
+        @Setup
+        public void setUp() throws IOException {
+            engine = new ScoreboardEngine(GameJournal.inMemory());
+            engine.start();
+            server = new RemoteControlServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            server.attach(engine);
+            address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.port());
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            server.close();
+            engine.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Console {
+        private RemoteConsole console;
+
+        @Setup
+        public void setUp(Server server) throws IOException {
+            console = new RemoteConsole(server.address, server.consoleIds.incrementAndGet());
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            console.close();
+        }
+    }
+
+    @Benchmark
+    public RemoteConsole.Ack oneConsole(Console console) throws IOException {
+        return console.console.shot(true, 9);
+    }
+
+    @Benchmark
+    @Threads(3)
+    public RemoteConsole.Ack threeConsoles(Console console) throws IOException {
+        return console.console.shot(true, 9);
+    }
+}
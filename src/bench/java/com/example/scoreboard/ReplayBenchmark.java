@@ -0,0 +1,63 @@
+package com.example.scoreboard;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Replay seeks to random game times, and the next tenth of a replay playing forward, in a
+// game of the given number of journal records
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark {
+    @Param({"1000", "100000"})
+    private int records;
+
+    private final SplittableRandom random = new SplittableRandom(7);
+    private GameReplay replay;
+    private long forward;
+
+    @Setup
+    public void setUp() {
+        GameJournal journal = GameJournal.inMemory();
+        long periodNanos = GameClock.toNanos(20, 0);
+        long step = periodNanos * 3 / records;
+        long clock = 0;
+        for (int i = 0; i < records; i++) {
+            clock += step;
+            if (clock >= periodNanos) {
+                journal.append(GameJournal.CLOCK_RESET, 0, 0, periodNanos);
+                journal.append(GameJournal.PERIOD_NEXT, 0, 0);
+                clock = 0;
+                continue;
+            }
+            // Mostly shots, a goal or penalty now and then as in a real game
+            int event = random.nextInt(100);
+            if (event < 5) {
+                journal.append(GameJournal.GOAL, random.nextInt(2), clock, PlayerStats.packGoal(9, 10, 0));
+            } else if (event < 7) {
+                journal.append(GameJournal.PENALTY, 3 << 1 | random.nextInt(2), clock, Penalty.MINOR);
+            } else {
+                journal.append(GameJournal.SHOT, 7 << 1 | random.nextInt(2), clock);
+            }
+        }
+        replay = new GameReplay(journal, periodNanos * 3, System::nanoTime);
+    }
+
+    @Benchmark
+    public GameSnapshot seekRandom() {
+        replay.seek(random.nextLong(replay.durationNanos()));
+        return replay.snapshot();
+    }
+
+    @Benchmark
+    public GameSnapshot playForwardOneTenth() {
+        forward = (forward + GameClock.NANOS_PER_TENTH) % replay.durationNanos();
+        replay.seek(forward);
+        return replay.snapshot();
+    }
+}
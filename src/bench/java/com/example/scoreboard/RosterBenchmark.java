@@ -0,0 +1,75 @@
+package com.example.scoreboard;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Team and Player construction as done by the add team dialog, and lookups over the teams list
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RosterBenchmark {
+    private static final String[] POSITIONS = {"G", "F", "D"};
+
+    @Param({"10", "200"})
+    private int teamCount;
+
+    private final List<Team> teams = new ArrayList<>();
+    private final RosterStore store = RosterStore.empty();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < teamCount; i++) {
+            Team team = createTeam("Team " + i);
+            teams.add(team);
+            store.add(team);
+        }
+    }
+
+    private static Team createTeam(String name) {
+        Team team = new Team(name);
+        for (int number = 1; number <= 25; number++) {
+            team.getPlayers().add(new Player(String.valueOf(number), "Player " + number, POSITIONS[number % 3]));
+        }
+        return team;
+    }
+
+    @Benchmark
+    public Player createPlayer() {
+        return new Player("17", "Player 17", "F");
+    }
+
+    @Benchmark
+    public Team createTeamWithRoster() {
+        return createTeam("New team");
+    }
+
+    @Benchmark
+    public Player lookupPlayerByTeamAndNumber() {
+        next = (next + 1) % teamCount;
+        String teamName = "Team " + next;
+        String number = String.valueOf(next % 25 + 1);
+        for (Team team : teams) {
+            if (team.getName().equals(teamName)) {
+                for (Player player : team.getPlayers()) {
+                    if (player.getNumber().equals(number)) {
+                        return player;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public Player lookupPlayerIndexed() {
+        next = (next + 1) % teamCount;
+        return store.findPlayer("Team " + next, String.valueOf(next % 25 + 1));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.scoreboard;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Bulk CSV import into an empty roster and export of the imported roster, 25 players per team
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RosterCsvBenchmark {
+    private static final String[] POSITIONS = {"G", "F", "D"};
+
+    @Param({"10000", "300000"})
+    private int rows;
+
+    private Path directory;
+    private Path csv;
+    private RosterStore imported;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("roster-csv");
+        csv = directory.resolve("teams.csv");
+        try (Writer out = Files.newBufferedWriter(csv)) {
+            out.write("team,number,name,position\n");
+            for (int i = 0; i < rows; i++) {
+                int number = i % 25 + 1;
+                out.write("Team " + i / 25 + "," + number + ",Player " + number + "," + POSITIONS[number % 3] + "\n");
+            }
+        }
+        imported = importRoster().roster();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public RosterCsv.ImportResult importRoster() throws IOException {
+        return RosterCsv.importRoster(csv, RosterStore.empty(), directory.resolve("roster.bin"));
+    }
+
+    @Benchmark
+    public long exportRoster() throws IOException {
+        return RosterCsv.exportRoster(imported, directory.resolve("export.csv"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.scoreboard;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Season archive queries over the given number of finished games of 20 teams: counting a
+// player's power-play goals, listing them, and counting every shot of the season
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeasonArchiveBenchmark {
+    @Param({"1000", "10000"})
+    private int games;
+
+    private SeasonArchive archive;
+    private SeasonArchive.Query powerPlayGoals;
+
+    @Setup
+    public void setUp() throws IOException {
+        SplittableRandom random = new SplittableRandom(3);
+        archive = SeasonArchive.inMemory();
+        long periodNanos = GameClock.toNanos(20, 0);
+        for (int game = 0; game < games; game++) {
+            GameJournal journal = GameJournal.inMemory();
+            int home = random.nextInt(20);
+            journal.append(GameJournal.TEAM, 1, 0, home);
+            journal.append(GameJournal.TEAM, 0, 0, (home + 1 + random.nextInt(19)) % 20);
+            for (int period = 1; period <= 3; period++) {
+                for (long clock = random.nextLong(GameClock.toNanos(0, 40)); clock < periodNanos;
+                     clock += random.nextLong(GameClock.toNanos(0, 40))) {
+                    // Mostly shots, a goal or penalty now and then as in a real game
+                    int event = random.nextInt(100);
+                    int side = random.nextInt(2);
+                    int player = 1 + random.nextInt(25);
+                    if (event < 6) {
+                        journal.append(GameJournal.GOAL, side, clock, PlayerStats.packGoal(player, random.nextInt(26), random.nextInt(26)));
+                    } else if (event < 10) {
+                        journal.append(GameJournal.PENALTY, player << 1 | side, clock, Penalty.MINOR);
+                    } else {
+                        journal.append(GameJournal.SHOT, player << 1 | side, clock);
+                    }
+                }
+                journal.append(GameJournal.CLOCK_RESET, 0, 0, periodNanos);
+                if (period < 3) {
+                    journal.append(GameJournal.PERIOD_NEXT, 0, 0);
+                }
+            }
+            archive.add(journal);
+        }
+        powerPlayGoals = SeasonArchive.Query.events(SeasonArchive.GOAL).team(7).number(9).powerPlay();
+    }
+
+    @Benchmark
+    public long countPowerPlayGoals() {
+        return archive.count(powerPlayGoals);
+    }
+
+    @Benchmark
+    public List<SeasonArchive.Event> findPowerPlayGoals() {
+        return archive.find(powerPlayGoals);
+    }
+
+    @Benchmark
+    public long countShots() {
+        return archive.count(SeasonArchive.Query.events(SeasonArchive.SHOT));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.scoreboard;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Writing a snapshot into the shared state page with the clock running, and one whole read
+// of the page the way a graphics process polling it does
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SharedStatePageBenchmark {
+    private Path file;
+    private SharedStatePage page;
+    private SharedStatePage.Reader reader;
+    private GameSnapshot[] snapshots;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("scoreboard", ".page");
+        page = SharedStatePage.open(file);
+        page.setTeamNames(List.of("Home Team", "Away Team"));
+        reader = new SharedStatePage.Reader(file);
+        // A clock running through one period, a snapshot per tenth
+        snapshots = new GameSnapshot[12000];
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = new GameSnapshot(i + 1, 2, 1, 2, false, false, GameSnapshot.Phase.PLAY, true,
+                    i * GameClock.NANOS_PER_TENTH, 0, 1, 0, i * GameClock.NANOS_PER_TENTH, List.of(), 0, 1);
+        }
+        page.write(snapshots[0]);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        reader.close();
+        page.close();
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public void write() {
+        page.write(snapshots[next]);
+        next = (next + 1) % snapshots.length;
+    }
+
+    @Benchmark
+    public SharedStatePage.State read() {
+        return reader.read();
+    }
+}
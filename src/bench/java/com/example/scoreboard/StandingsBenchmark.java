@@ -0,0 +1,67 @@
+package com.example.scoreboard;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// League table: one finished game added to a league that already has thousands, and the
+// parallel full recompute after a correction
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StandingsBenchmark {
+    private static final int ADDS_PER_BATCH = 10_000;
+
+    @Param({"32", "1000"})
+    public int teams;
+
+    @Param({"5000", "50000"})
+    public int games;
+
+    private List<Standings.Result> results;
+    private Standings standings;
+    private SplittableRandom random;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        random = new SplittableRandom(42);
+        results = new ArrayList<>(games);
+        for (int i = 0; i < games; i++) {
+            results.add(randomResult());
+        }
+        standings = Standings.inMemory();
+        standings.importResults(results);
+    }
+
+    // Each batch adds ADDS_PER_BATCH games; divide the reported time by it for one update
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5, batchSize = ADDS_PER_BATCH)
+    @Measurement(iterations = 10, batchSize = ADDS_PER_BATCH)
+    public int addResult() throws Exception {
+        standings.add(randomResult());
+        return standings.resultCount();
+    }
+
+    @Benchmark
+    public int correctResult() throws Exception {
+        int index = random.nextInt(games);
+        standings.correct(index, randomResult());
+        return standings.resultCount();
+    }
+
+    private Standings.Result randomResult() {
+        int home = random.nextInt(teams);
+        int away = (home + 1 + random.nextInt(teams - 1)) % teams;
+        Standings.Decision decision = Standings.Decision.values()[random.nextInt(10) < 8 ? 0 : 1 + random.nextInt(2)];
+        int homeGoals = random.nextInt(7);
+        int awayGoals = decision == Standings.Decision.REGULATION ? random.nextInt(7) : homeGoals + (random.nextBoolean() ? 1 : -1);
+        return new Standings.Result(home, away, homeGoals, Math.max(awayGoals, 0), decision);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.scoreboard;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cold start of the application in a new JVM, from launch until the first frame of the board
+// was drawn and the process exited, without and with an application class-data sharing archive
+// dumped by a training run. Needs a display; files go to a temporary user home.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+    @Param({"false", "true"})
+    private boolean cds;
+
+    private Path home;
+    private List<String> command;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        home = Files.createTempDirectory("scoreboard-startup");
+        Path archive = home.resolve("scoreboard.jsa");
+        if (cds) {
+            run(command("-XX:ArchiveClassesAtExit=" + archive));
+        }
+        command = command(cds ? "-XX:SharedArchiveFile=" + archive : "-Xshare:auto");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (var files = Files.walk(home)) {
+            for (Path file : files.sorted((a, b) -> b.compareTo(a)).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public int startToFirstFrame() throws IOException, InterruptedException {
+        return run(command);
+    }
+
+    // The application module and the JavaFX platform jars from the benchmark's class path
+    private List<String> command(String cdsOption) {
+        List<String> modulePath = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            String name = Path.of(entry).getFileName().toString();
+            if (name.equals("classes") || name.matches("javafx-[a-z]+-[0-9.]+-[a-z0-9-]+\\.jar")) {
+                modulePath.add(entry);
+            }
+        }
+        return List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                cdsOption,
+                "-Duser.home=" + home,
+                "--module-path", String.join(File.pathSeparator, modulePath),
+                "-m", "com.example.scoreboard/com.example.scoreboard.HelloApplication",
+                "--exit-after-first-frame");
+    }
+
+    private static int run(List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException("The application exited with " + exitCode + ", is there a display?");
+        }
+        return exitCode;
+    }
+}
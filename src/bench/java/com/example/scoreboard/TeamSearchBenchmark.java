@@ -0,0 +1,43 @@
+package com.example.scoreboard;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-keystroke search in the team browser for a full league; must stay far below a 16 ms frame
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TeamSearchBenchmark {
+    private static final String[] SURNAMES = {"Novak", "Horvath", "Kovac", "Varga", "Toth", "Nagy", "Balaz", "Molnar"};
+    private static final String[] KEYSTROKES = {"k", "ko", "kov", "kova", "kovac", "kovac 1", "kovac 12"};
+
+    @Param({"500", "2000"})
+    private int teamCount;
+
+    private TeamSearchIndex index;
+    private int keystroke;
+
+    @Setup
+    public void setUp() {
+        RosterStore roster = RosterStore.empty();
+        for (int t = 0; t < teamCount; t++) {
+            Team team = new Team("HC Team " + t);
+            for (int p = 1; p <= 25; p++) {
+                team.getPlayers().add(new Player(String.valueOf(p), SURNAMES[(t + p) % SURNAMES.length] + " " + t, "F"));
+            }
+            roster.add(team);
+        }
+        index = new TeamSearchIndex(roster);
+        index.update();
+    }
+
+    @Benchmark
+    public int[] typeQuery() {
+        keystroke = (keystroke + 1) % KEYSTROKES.length;
+        return index.search(KEYSTROKES[keystroke]);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.scoreboard;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Many games with running clocks on one TournamentHost. The benchmark measures how long a
+// command takes to be applied and published while every other game keeps ticking; the
+// retained heap per game and the CPU and allocation rate per game are printed at the end.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class TournamentBenchmark {
+    @Param({"100", "500"})
+    private int games;
+
+    private TournamentHost host;
+    private long heapPerGame;
+    private long startedAt;
+    private int next;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        long before = usedHeap();
+        host = new TournamentHost(2);
+        GameSettings settings = new GameSettings(GameClock.toNanos(60, 0), GameClock.toNanos(0, 30), false, 0);
+        for (int i = 0; i < games; i++) {
+            ScoreboardEngine engine = host.addGame("Game " + i, GameJournal.inMemory()).engine();
+            engine.submit(Command.configure(settings));
+            engine.submit(Command.of(Command.Type.CLOCK_START));
+        }
+        Thread.sleep(500);
+        heapPerGame = (usedHeap() - before) / games;
+        startedAt = System.nanoTime();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        long cpu = 0;
+        long allocated = 0;
+        for (TournamentHost.Game game : host.games()) {
+            cpu += game.cpuNanos();
+            allocated += game.allocatedBytes();
+        }
+        System.out.printf("%n%d games: %d bytes retained heap per game, %.1f us CPU per game per second, %.2f KB allocated per game per second%n",
+                games, heapPerGame, cpu / 1e3 / games / seconds, allocated / 1024.0 / games / seconds);
+        host.close();
+    }
+
+    @Benchmark
+    public GameSnapshot goalToPublish() {
+        ScoreboardEngine engine = host.game(next++ % games).engine();
+        int score = engine.snapshot().homeScore();
+        engine.submit(Command.of(Command.Type.GOAL, true));
+        GameSnapshot snapshot;
+        while ((snapshot = engine.snapshot()).homeScore() == score) {
+            Thread.onSpinWait();
+        }
+        return snapshot;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        Thread.sleep(100);
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.scoreboard;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Applies the latest GameSnapshot to the board once per JavaFX pulse. Commands and clock
+// ticks may produce several snapshots between two frames; only the newest is rendered and
+// only the controls whose value differs from the last rendered frame are touched, so each
+// pulse costs at most one CSS/layout pass. Records how long every pulse takes and how far
+// apart pulses are in Metrics, to spot dropped frames on slow machines.
+public class BoardRenderer extends AnimationTimer {
+    private final Supplier<GameSnapshot> source;
+    private final Label homeScoreLabel;
+    private final Label awayScoreLabel;
+    private final Label periodLabel;
+    private final Label timerLabel;
+    private final ClockFormatter clockFormatter = new ClockFormatter();
+
+    // Operator controls, absent on display-only boards
+    private Button startStopButton;
+    private Button homeTimeoutButton;
+    private Button awayTimeoutButton;
+    private Runnable onPeriodEnd = () -> { };
+    private Runnable onClockStart = () -> { };
+    private VBox homePenalties;
+    private VBox awayPenalties;
+    private Label metricsLabel;
+    private Supplier<String> metricsText = Metrics::summary;
+    private LongSupplier clock;
+    private long metricsShownAt;
+
+    private GameSnapshot shown;
+    private long lastPulse;
+
+    public BoardRenderer(Supplier<GameSnapshot> source, Label homeScoreLabel, Label awayScoreLabel, Label periodLabel, Label timerLabel) {
+        this.source = source;
+        this.homeScoreLabel = homeScoreLabel;
+        this.awayScoreLabel = awayScoreLabel;
+        this.periodLabel = periodLabel;
+        this.timerLabel = timerLabel;
+    }
+
+    public void setControls(Button startStopButton, Button homeTimeoutButton, Button awayTimeoutButton) {
+        this.startStopButton = startStopButton;
+        this.homeTimeoutButton = homeTimeoutButton;
+        this.awayTimeoutButton = awayTimeoutButton;
+    }
+
+    // Panels that list each team's penalties, one label per penalty
+    public void setPenaltyPanels(VBox homePenalties, VBox awayPenalties) {
+        this.homePenalties = homePenalties;
+        this.awayPenalties = awayPenalties;
+    }
+
+    // Label that shows the metrics text twice a second while it is visible
+    public void setMetricsLabel(Label metricsLabel, Supplier<String> metricsText) {
+        this.metricsLabel = metricsLabel;
+        this.metricsText = metricsText;
+    }
+
+    // Redraws everything in the next pulse, e.g. after the source switched to another game
+    public void invalidate() {
+        shown = null;
+    }
+
+    // Clock shown every pulse instead of the snapshot's, e.g. one a display interpolates from the
+    // master's; a negative value falls back to the snapshot's
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    // Runs in the pulse in which the board first shows that a period ended; must not block
+    public void setOnPeriodEnd(Runnable onPeriodEnd) {
+        this.onPeriodEnd = onPeriodEnd;
+    }
+
+    // Runs in the pulse in which the board first shows the game clock running again; must not block
+    public void setOnClockStart(Runnable onClockStart) {
+        this.onClockStart = onClockStart;
+    }
+
+    @Override
+    public void handle(long now) {
+        long start = System.nanoTime();
+        long interval = lastPulse == 0 ? 0 : now - lastPulse;
+        lastPulse = now;
+
+        GameSnapshot snapshot = source.get();
+        if (snapshot != null && (shown == null || snapshot.version() != shown.version())) {
+            boolean periodEnded = shown != null && snapshot.periodsEnded() > shown.periodsEnded();
+            boolean clockStarted = shown != null && snapshot.clockRunning() && !shown.clockRunning();
+            boolean newInput = snapshot.inputNanos() != 0 && (shown == null || snapshot.inputNanos() != shown.inputNanos());
+            apply(snapshot);
+            shown = snapshot;
+            if (newInput) {
+                Metrics.inputLatency(snapshot.inputNanos());
+            }
+            if (periodEnded) {
+                onPeriodEnd.run();
+            }
+            if (clockStarted) {
+                onClockStart.run();
+            }
+        }
+        if (clock != null && shown != null) {
+            showClock(shown);
+        }
+        if (metricsLabel != null && metricsLabel.isVisible() && now - metricsShownAt > 500_000_000L) {
+            metricsLabel.setText(metricsText.get());
+            metricsShownAt = now;
+        }
+        Metrics.renderPulse(start, interval);
+    }
+
+    private void apply(GameSnapshot snapshot) {
+        boolean all = shown == null;
+        if (all || snapshot.homeScore() != shown.homeScore()) {
+            homeScoreLabel.setText(String.valueOf(snapshot.homeScore()));
+        }
+        if (all || snapshot.awayScore() != shown.awayScore()) {
+            awayScoreLabel.setText(String.valueOf(snapshot.awayScore()));
+        }
+        if (all || snapshot.period() != shown.period()) {
+            periodLabel.setText(snapshot.periodLabel());
+        }
+        showClock(snapshot);
+        if (homePenalties != null && (all || snapshot.penalties() != shown.penalties()
+                || snapshot.gameTimeNanos() / GameClock.NANOS_PER_TENTH != shown.gameTimeNanos() / GameClock.NANOS_PER_TENTH)) {
+            applyPenalties(homePenalties, snapshot, true);
+            applyPenalties(awayPenalties, snapshot, false);
+        }
+        if (startStopButton == null) {
+            return;
+        }
+        if (all || snapshot.clockRunning() != shown.clockRunning()) {
+            startStopButton.setText(snapshot.clockRunning() ? "STOP" : "START");
+        }
+        if (all || snapshot.phase() != shown.phase()) {
+            startStopButton.setDisable(snapshot.phase() != GameSnapshot.Phase.PLAY);
+        }
+        setDisable(homeTimeoutButton, !snapshot.timeoutAvailable(true));
+        setDisable(awayTimeoutButton, !snapshot.timeoutAvailable(false));
+    }
+
+    private void showClock(GameSnapshot snapshot) {
+        long nanos = clock == null ? -1 : clock.getAsLong();
+        String time = clockFormatter.format(nanos >= 0 ? nanos : snapshot.displayNanos());
+        if (time != timerLabel.getText()) {
+            timerLabel.setText(time);
+        }
+    }
+
+    // Reuses the panel's labels, only the texts of penalties whose remaining second changed are set
+    private static void applyPenalties(VBox panel, GameSnapshot snapshot, boolean home) {
+        int count = 0;
+        for (Penalty penalty : snapshot.penalties()) {
+            if (penalty.home() != home) {
+                continue;
+            }
+            if (count == panel.getChildren().size()) {
+                panel.getChildren().add(new Label());
+            }
+            Label label = (Label) panel.getChildren().get(count++);
+            String text = penaltyText(penalty, snapshot.gameTimeNanos());
+            if (!text.equals(label.getText())) {
+                label.setText(text);
+            }
+        }
+        if (count < panel.getChildren().size()) {
+            panel.getChildren().remove(count, panel.getChildren().size());
+        }
+    }
+
+    private static String penaltyText(Penalty penalty, long gameTimeNanos) {
+        long seconds = (penalty.remainingNanos(gameTimeNanos) + GameClock.NANOS_PER_SECOND - 1) / GameClock.NANOS_PER_SECOND;
+        String player = penalty.player() == 0 ? "Bench" : "#" + penalty.player();
+        String time = seconds / 60 + ":" + (seconds % 60 < 10 ? "0" : "") + seconds % 60;
+        return player + "  " + time + (penalty.waiting() ? " (waiting)" : "");
+    }
+
+    private static void setDisable(Button button, boolean disable) {
+        if (button.isDisable() != disable) {
+            button.setDisable(disable);
+        }
+    }
+}
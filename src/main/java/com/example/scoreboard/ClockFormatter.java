@@ -0,0 +1,56 @@
+package com.example.scoreboard;
+
+// Formats clock values as MM:SS.t into a reusable char buffer. The resulting String
+// is cached per tenth of a second, so sampling a clock faster than it visibly changes
+// allocates nothing and returns the same instance.
+public class ClockFormatter {
+    private final char[] buffer = new char[24];
+    private long lastTenths = Long.MIN_VALUE;
+    private String text;
+
+    public String format(long nanos) {
+        return formatTenths(nanos / GameClock.NANOS_PER_TENTH);
+    }
+
+    public String formatTenths(long tenths) {
+        if (tenths != lastTenths) {
+            int length = formatTo(tenths, buffer, 0);
+            text = new String(buffer, 0, length);
+            lastTenths = tenths;
+        }
+        return text;
+    }
+
+    // Writes MM:SS.t for the given number of tenths into dst and returns the number of chars written
+    public static int formatTo(long tenths, char[] dst, int offset) {
+        if (tenths < 0) {
+            tenths = 0;
+        }
+        long minutes = tenths / 600;
+        int seconds = (int) (tenths / 10 % 60);
+        int tenth = (int) (tenths % 10);
+
+        int pos = offset;
+        if (minutes < 10) {
+            dst[pos++] = '0';
+            dst[pos++] = (char) ('0' + minutes);
+        } else {
+            // More than two minute digits only happens without a period limit
+            int digits = 0;
+            for (long m = minutes; m > 0; m /= 10) {
+                digits++;
+            }
+            for (int i = digits - 1; i >= 0; i--) {
+                dst[pos + i] = (char) ('0' + minutes % 10);
+                minutes /= 10;
+            }
+            pos += digits;
+        }
+        dst[pos++] = ':';
+        dst[pos++] = (char) ('0' + seconds / 10);
+        dst[pos++] = (char) ('0' + seconds % 10);
+        dst[pos++] = '.';
+        dst[pos++] = (char) ('0' + tenth);
+        return pos - offset;
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.scoreboard;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.MembershipKey;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Display side of ClockSyncServer. Follows the master's clock line and estimates the offset
+// between this machine's monotonic time and the master's the way NTP does: a request stamped
+// when sent, the master's receive and send stamps, and the reply's arrival give the offset
+// ((t1 - t0) + (t2 - t3)) / 2, exact when both directions take equally long. Of the last
+// SAMPLES exchanges the one with the shortest round trip wins, since queueing delay is what
+// makes the two directions differ. The board reads displayNanos() every frame and computes the
+// clock from the line at the estimated master time, so it moves smoothly between packets.
+//
+// For tests on one machine, packets in both directions can be held back by a simulated network
+// latency plus random jitter up to a bound.
+public class ClockSyncClient implements AutoCloseable {
+    static final int SAMPLES = 16;
+    static final long FIRST_REQUEST_INTERVAL_NANOS = 50_000_000L;
+    static final long REQUEST_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final DatagramChannel lines;
+    private final DatagramChannel times; // own port, so several displays on one host get their replies
+    private final MembershipKey membership;
+    private final Selector selector;
+    private final long latencyNanos;
+    private final long jitterNanos;
+    private final PriorityQueue<Delayed> delayed = new PriorityQueue<>(); // simulated network only
+    private final ByteBuffer in = ByteBuffer.allocateDirect(64);
+    private final long[] sampleOffsets = new long[SAMPLES];
+    private final long[] sampleRoundTrips = new long[SAMPLES];
+    private final Thread thread;
+    private int samples;
+    private SocketAddress master;
+    private volatile Line line;
+    private volatile boolean running = true;
+
+    // A line with the offset it was received under, read as one
+    private record Line(ClockSyncServer.Line line, long offsetNanos, long roundTripNanos) {
+    }
+
+    // A packet on its simulated way, in or out
+    private record Delayed(long dueNanos, boolean outgoing, ByteBuffer packet, SocketAddress address)
+            implements Comparable<Delayed> {
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueNanos, other.dueNanos);
+        }
+    }
+
+    public ClockSyncClient(InetSocketAddress group, NetworkInterface networkInterface) throws IOException {
+        this(group, networkInterface, 0, 0);
+    }
+
+    public ClockSyncClient(InetSocketAddress group, NetworkInterface networkInterface, long latencyNanos, long jitterNanos) throws IOException {
+        this.latencyNanos = latencyNanos;
+        this.jitterNanos = jitterNanos;
+        this.lines = DatagramChannel.open(StandardProtocolFamily.INET)
+                .setOption(StandardSocketOptions.SO_REUSEADDR, true)
+                .bind(new InetSocketAddress(group.getPort()));
+        this.membership = lines.join(group.getAddress(), networkInterface);
+        this.times = DatagramChannel.open(StandardProtocolFamily.INET).bind(null);
+        this.selector = Selector.open();
+        lines.configureBlocking(false).register(selector, SelectionKey.OP_READ);
+        times.configureBlocking(false).register(selector, SelectionKey.OP_READ);
+        this.thread = new Thread(this::run, "scoreboard-clock-sync");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // The clock the board shows now, or -1 until the first line and time reply arrived
+    public long displayNanos() {
+        Line current = line;
+        if (current == null || current.roundTripNanos() < 0) {
+            return -1;
+        }
+        return current.line().valueAt(System.nanoTime() + current.offsetNanos());
+    }
+
+    // Master time minus local time, as estimated now
+    public long offsetNanos() {
+        Line current = line;
+        return current == null ? 0 : current.offsetNanos();
+    }
+
+    // Round trip of the exchange the offset comes from, -1 before the first one
+    public long roundTripNanos() {
+        Line current = line;
+        return current == null ? -1 : current.roundTripNanos();
+    }
+
+    private void run() {
+        long nextRequest = 0;
+        int requests = 0;
+        try {
+            while (running) {
+                long now = System.nanoTime();
+                if (master != null && now >= nextRequest) {
+                    ByteBuffer request = ByteBuffer.allocate(ClockSyncServer.TIME_REQUEST_SIZE)
+                            .putShort(ClockSyncServer.MAGIC).put(ClockSyncServer.TIME_REQUEST).put((byte) 0).putInt(0)
+                            .putLong(now).flip();
+                    transmit(request, master, now);
+                    // A quick burst for a good first estimate, then one a second to follow drift
+                    nextRequest = now + (++requests < SAMPLES ? FIRST_REQUEST_INTERVAL_NANOS : REQUEST_INTERVAL_NANOS);
+                }
+                while (!delayed.isEmpty() && delayed.peek().dueNanos() <= now) {
+                    Delayed packet = delayed.poll();
+                    if (packet.outgoing()) {
+                        times.send(packet.packet(), packet.address());
+                    } else {
+                        handle(packet.packet(), packet.address(), System.nanoTime());
+                    }
+                }
+                long wake = master == null ? now + REQUEST_INTERVAL_NANOS : nextRequest;
+                if (!delayed.isEmpty()) {
+                    wake = Math.min(wake, delayed.peek().dueNanos());
+                }
+                // select() takes millis; a sub-millisecond wait polls instead of sleeping past it
+                long waitMillis = (wake - now) / 1_000_000;
+                if (waitMillis > 0) {
+                    selector.select(waitMillis);
+                } else {
+                    selector.selectNow();
+                }
+                selector.selectedKeys().clear();
+                receive(lines);
+                receive(times);
+            }
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("Clock sync stopped: " + e.getMessage());
+            }
+        }
+    }
+
+    private void transmit(ByteBuffer packet, SocketAddress to, long now) throws IOException {
+        if (latencyNanos == 0 && jitterNanos == 0) {
+            times.send(packet, to);
+        } else {
+            delayed.add(new Delayed(now + simulatedDelay(), true, packet, to));
+        }
+    }
+
+    private void receive(DatagramChannel channel) throws IOException {
+        while (true) {
+            in.clear();
+            SocketAddress from = channel.receive(in);
+            long received = System.nanoTime();
+            if (from == null) {
+                return;
+            }
+            in.flip();
+            if (latencyNanos == 0 && jitterNanos == 0) {
+                handle(in, from, received);
+            } else {
+                ByteBuffer copy = ByteBuffer.allocate(in.remaining()).put(in).flip();
+                delayed.add(new Delayed(received + simulatedDelay(), false, copy, from));
+            }
+        }
+    }
+
+    private long simulatedDelay() {
+        return latencyNanos + (jitterNanos > 0 ? ThreadLocalRandom.current().nextLong(jitterNanos) : 0);
+    }
+
+    // received is when the packet arrived, with a simulated delay when that delay ended
+    private void handle(ByteBuffer packet, SocketAddress from, long received) {
+        if (packet.remaining() < 4 || packet.getShort(0) != ClockSyncServer.MAGIC) {
+            return;
+        }
+        byte kind = packet.get(2);
+        if (kind == ClockSyncServer.LINE && packet.remaining() == ClockSyncServer.LINE_SIZE) {
+            onLine(packet, from);
+        } else if (kind == ClockSyncServer.TIME_REPLY && packet.remaining() == ClockSyncServer.TIME_REPLY_SIZE) {
+            onTimeReply(packet.getLong(8), packet.getLong(16), packet.getLong(24), received);
+        }
+    }
+
+    private void onLine(ByteBuffer packet, SocketAddress from) {
+        int phase = packet.get(3);
+        if (phase < 0 || phase >= GameSnapshot.Phase.values().length) {
+            return;
+        }
+        if (!from.equals(master)) {
+            // Another master, or the same one restarted: its time is not the one measured so far
+            master = from;
+            samples = 0;
+            line = null;
+        }
+        ClockSyncServer.Line next = new ClockSyncServer.Line(packet.getInt(4), GameSnapshot.Phase.values()[phase],
+                packet.getLong(8), packet.getLong(16), packet.getInt(24), packet.getLong(28));
+        Line current = line;
+        // Repeats and packets that arrive out of order keep the line as it is
+        if (current != null && next.sequence() - current.line().sequence() <= 0) {
+            return;
+        }
+        line = current == null ? new Line(next, 0, -1) : new Line(next, current.offsetNanos(), current.roundTripNanos());
+    }
+
+    private void onTimeReply(long sent, long masterReceived, long masterSent, long received) {
+        sampleOffsets[samples % SAMPLES] = ((masterReceived - sent) + (masterSent - received)) / 2;
+        sampleRoundTrips[samples % SAMPLES] = (received - sent) - (masterSent - masterReceived);
+        samples++;
+        int best = 0;
+        for (int i = 1; i < Math.min(samples, SAMPLES); i++) {
+            if (sampleRoundTrips[i] < sampleRoundTrips[best]) {
+                best = i;
+            }
+        }
+        Line current = line;
+        if (current != null) {
+            line = new Line(current.line(), sampleOffsets[best], sampleRoundTrips[best]);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        membership.drop();
+        selector.close();
+        lines.close();
+        times.close();
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.scoreboard;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+// Master side of clock sync for display clients. Instead of the clock's value ten times a
+// second, it multicasts the line the shown clock follows: its value at a moment of the
+// master's monotonic time, the rate it runs at (negative while timeouts and intermissions
+// count down, 0 while stopped) and the value it stops at. A new line only goes out when the
+// clock starts, stops, is set or switches between game clock and countdown; the current one
+// is repeated once a second for displays that joined late or lost a packet.
+//
+// Each display works out the master's time from timestamped requests it sends here
+// (ClockSyncClient) and computes the clock from the line itself, so all displays show the
+// same tenth at the same moment, give or take the error of that estimate.
+//
+// Packets, big endian:
+//   LINE, 36 bytes: u16 magic, u8 kind, u8 phase, i32 sequence, i64 master nanos,
+//     i64 clock nanos at that moment, i32 rate in millionths, i64 limit nanos (0 none)
+//   TIME_REQUEST, 16 bytes: u16 magic, u8 kind, u8 0, i32 0, i64 display nanos when sent
+//   TIME_REPLY, 32 bytes: the request's first 16 bytes, i64 master nanos when received and when sent
+public class ClockSyncServer implements AutoCloseable {
+    static final short MAGIC = 0x5343;
+    static final byte LINE = 1;
+    static final byte TIME_REQUEST = 2;
+    static final byte TIME_REPLY = 3;
+    static final int LINE_SIZE = 36;
+    static final int TIME_REQUEST_SIZE = 16;
+    static final int TIME_REPLY_SIZE = 32;
+
+    static final int REAL_TIME = 1_000_000;
+    static final long REPEAT_NANOS = 1_000_000_000L;
+    // A snapshot this far off the current line means the clock was set, e.g. at the end of a period
+    static final long MAX_DRIFT_NANOS = 1_000_000L;
+
+    // The shown clock as a function of the master's time
+    public record Line(int sequence, GameSnapshot.Phase phase, long baseAtNanos, long baseNanos, int rate, long limitNanos) {
+        public long valueAt(long masterNanos) {
+            long elapsed = masterNanos - baseAtNanos;
+            long value = baseNanos + elapsed / REAL_TIME * rate + elapsed % REAL_TIME * rate / REAL_TIME;
+            value = Math.max(0, value);
+            return limitNanos > 0 ? Math.min(value, limitNanos) : value;
+        }
+    }
+
+    private final DatagramChannel channel; // lines out, time requests in and replies out
+    private final InetSocketAddress group;
+    private final Selector selector;
+    private final ByteBuffer packet = ByteBuffer.allocateDirect(LINE_SIZE);
+    private final ByteBuffer request = ByteBuffer.allocateDirect(TIME_REPLY_SIZE);
+    private final Thread sender;
+    private volatile Line line;
+    private volatile boolean running = true;
+    private ScoreboardEngine engine;
+    private int sequence;
+
+    public ClockSyncServer(InetSocketAddress group, NetworkInterface networkInterface) throws IOException {
+        this.group = group;
+        this.channel = DatagramChannel.open(StandardProtocolFamily.INET).bind(null);
+        channel.setOption(StandardSocketOptions.IP_MULTICAST_TTL, 1);
+        channel.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+        if (networkInterface != null) {
+            channel.setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface);
+        }
+        channel.configureBlocking(false);
+        this.selector = Selector.open();
+        channel.register(selector, SelectionKey.OP_READ);
+        this.sender = new Thread(this::run, "scoreboard-clock-sync");
+        sender.setDaemon(true);
+    }
+
+    public void attach(ScoreboardEngine engine) {
+        this.engine = engine;
+        offer(engine.snapshot());
+        engine.addListener(this::offer);
+        sender.start();
+    }
+
+    // On the writer, right after the snapshot was taken; most snapshots are on the current line
+    private void offer(GameSnapshot snapshot) {
+        long now = System.nanoTime();
+        boolean countDown = snapshot.phase() != GameSnapshot.Phase.PLAY;
+        boolean runs = countDown ? snapshot.countdownNanos() > 0 : snapshot.clockRunning();
+        int rate = !runs ? 0 : countDown ? -REAL_TIME : REAL_TIME;
+        long limit = countDown ? 0 : engine.settings().periodNanos();
+        Line current = line;
+        if (current != null && current.phase() == snapshot.phase() && current.rate() == rate && current.limitNanos() == limit
+                && Math.abs(current.valueAt(now) - snapshot.displayNanos()) <= MAX_DRIFT_NANOS) {
+            return;
+        }
+        line = new Line(++sequence, snapshot.phase(), now, snapshot.displayNanos(), rate, limit);
+        selector.wakeup();
+    }
+
+    private void run() {
+        Line sent = null;
+        long sentAt = 0;
+        try {
+            while (running) {
+                long wait = REPEAT_NANOS - (System.nanoTime() - sentAt);
+                if (wait > 0 && line == sent) {
+                    selector.select(Math.max(1, wait / 1_000_000));
+                    selector.selectedKeys().clear();
+                }
+                answerTimeRequests();
+                Line next = line;
+                if (next != null && (next != sent || System.nanoTime() - sentAt >= REPEAT_NANOS)) {
+                    send(next);
+                    sent = next;
+                    sentAt = System.nanoTime();
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("Clock sync stopped: " + e.getMessage());
+            }
+        }
+    }
+
+    // Replies at once, the time between the two stamps is not counted as network delay
+    private void answerTimeRequests() throws IOException {
+        while (true) {
+            request.clear();
+            SocketAddress display = channel.receive(request);
+            long received = System.nanoTime();
+            if (display == null) {
+                return;
+            }
+            if (request.position() != TIME_REQUEST_SIZE || request.getShort(0) != MAGIC || request.get(2) != TIME_REQUEST) {
+                continue;
+            }
+            request.put(2, TIME_REPLY).putLong(received);
+            request.putLong(System.nanoTime()).flip();
+            channel.send(request, display);
+        }
+    }
+
+    private void send(Line line) throws IOException {
+        packet.clear()
+                .putShort(MAGIC)
+                .put(LINE)
+                .put((byte) line.phase().ordinal())
+                .putInt(line.sequence())
+                .putLong(line.baseAtNanos())
+                .putLong(line.baseNanos())
+                .putInt(line.rate())
+                .putLong(line.limitNanos())
+                .flip();
+        channel.send(packet, group);
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            sender.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        selector.close();
+        channel.close();
+    }
+}
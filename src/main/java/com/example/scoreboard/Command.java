@@ -0,0 +1,57 @@
+package com.example.scoreboard;
+
+// Operator input for the ScoreboardEngine. Commands are immutable so any thread can create
+// and submit them; only the engine's writer applies them. submittedNanos is the
+// System.nanoTime() at creation, used to measure input-to-display latency.
+//
+// player is a jersey number, 0 if the event is not attributed to a player. value depends on
+// the type: the assists packed by PlayerStats.packGoal for a goal, the minutes of a penalty
+// and the roster index of the team (-1 for none) for TEAM.
+public record Command(Type type, boolean home, GameSettings settings, int player, int value, long submittedNanos) {
+    public enum Type {
+        GOAL,
+        GOAL_REMOVED,
+        PERIOD_NEXT,
+        PERIOD_PREVIOUS,
+        CLOCK_TOGGLE,
+        CLOCK_START,
+        CLOCK_STOP,
+        TIMEOUT,
+        NEW_GAME,
+        CONFIGURE,
+        PENALTY,
+        SHOT,
+        TEAM
+    }
+
+    public static Command of(Type type) {
+        return new Command(type, false, null, 0, 0, System.nanoTime());
+    }
+
+    public static Command of(Type type, boolean home) {
+        return new Command(type, home, null, 0, 0, System.nanoTime());
+    }
+
+    public static Command configure(GameSettings settings) {
+        return new Command(Type.CONFIGURE, false, settings, 0, 0, System.nanoTime());
+    }
+
+    // Penalty of the given length in minutes for a player's jersey number, 0 for a bench penalty
+    public static Command penalty(boolean home, int player, int minutes) {
+        return new Command(Type.PENALTY, home, null, player, minutes, System.nanoTime());
+    }
+
+    // Goal by scorer with up to two assists, 0 where nobody is credited
+    public static Command goal(boolean home, int scorer, int assist, int secondAssist) {
+        return new Command(Type.GOAL, home, null, scorer, PlayerStats.packGoal(0, assist, secondAssist), System.nanoTime());
+    }
+
+    public static Command shot(boolean home, int player) {
+        return new Command(Type.SHOT, home, null, player, 0, System.nanoTime());
+    }
+
+    // Chooses the roster team playing on one side, -1 for none
+    public static Command team(boolean home, int teamIndex) {
+        return new Command(Type.TEAM, home, null, 0, teamIndex, System.nanoTime());
+    }
+}
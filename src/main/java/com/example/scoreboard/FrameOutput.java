@@ -0,0 +1,113 @@
+package com.example.scoreboard;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// Writes the board as raw RGBA frames at a fixed frame rate for a video pipeline, e.g. a named
+// pipe an encoder reads with "-f rawvideo -pix_fmt rgba -s 1920x1080 -r 60 -i board.rgba", or
+// one numbered file per frame when the target has a format like board-%05d.rgba. A thread of
+// its own takes a snapshot and renders it at every frame time, so a slow reader never holds up
+// the board or the engine. When a write takes longer than a frame, the frames whose time has
+// passed are counted as dropped and the output continues at the next frame time, so the video
+// stays in step with the game.
+public class FrameOutput implements AutoCloseable {
+    private final Supplier<GameSnapshot> source;
+    private final FrameRenderer renderer;
+    private final String target;
+    private final long frameNanos;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile long framesWritten;
+    private volatile long framesDropped;
+
+    public FrameOutput(Supplier<GameSnapshot> source, FrameRenderer renderer, String target, int framesPerSecond) {
+        if (framesPerSecond <= 0) {
+            throw new IllegalArgumentException("Frame rate must be positive: " + framesPerSecond);
+        }
+        this.source = source;
+        this.renderer = renderer;
+        this.target = target;
+        this.frameNanos = GameClock.NANOS_PER_SECOND / framesPerSecond;
+        this.thread = new Thread(this::run, "scoreboard-frames");
+        thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    public long framesWritten() {
+        return framesWritten;
+    }
+
+    public long framesDropped() {
+        return framesDropped;
+    }
+
+    private void run() {
+        boolean sequence = target.contains("%");
+        // Opening a named pipe waits for its reader, so it happens here and not on the FX thread
+        try (WritableByteChannel stream = sequence ? null : open(target)) {
+            long next = System.nanoTime();
+            long frame = 0;
+            while (running) {
+                long now = System.nanoTime();
+                if (now < next) {
+                    LockSupport.parkNanos(next - now);
+                    continue;
+                }
+                long behind = (now - next) / frameNanos;
+                if (behind > 0) {
+                    framesDropped += behind;
+                    next += behind * frameNanos;
+                }
+                ByteBuffer pixels = renderer.render(source.get());
+                if (sequence) {
+                    // The file name is the only per-frame garbage, and only in this mode
+                    try (WritableByteChannel file = open(String.format(target, frame))) {
+                        writeFully(file, pixels);
+                    }
+                } else {
+                    writeFully(stream, pixels);
+                }
+                frame++;
+                framesWritten++;
+                next += frameNanos;
+            }
+        } catch (IOException e) {
+            // A reader closing the pipe ends the output, the board goes on
+            if (running) {
+                System.err.println("Frame output stopped: " + e.getMessage());
+            }
+        }
+    }
+
+    static FileChannel open(String path) throws IOException {
+        return FileChannel.open(Path.of(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    static void writeFully(WritableByteChannel channel, ByteBuffer pixels) throws IOException {
+        while (pixels.hasRemaining()) {
+            channel.write(pixels);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        // A write blocked on a full pipe ends with the interrupt
+        thread.interrupt();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.scoreboard;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+// Draws the board off-screen into one fixed-size RGBA frame for video overlays, laid out like
+// the display board: the home box, the period and clock box and the away box in a bar across
+// the top of the frame, transparent elsewhere. The frame buffer is allocated once. Every text
+// has its own region that is only cleared and drawn again when its characters changed, so a
+// frame in which only the clock's tenth moved touches the clock region and nothing else, and
+// rendering creates no garbage. Text uses a built-in 5x7 pixel font scaled to the region,
+// which needs neither a display nor the JavaFX toolkit; lower case is drawn as upper case and
+// characters the font does not have as spaces.
+public class FrameRenderer {
+    private static final int TRANSPARENT = 0x00000000;
+    private static final int BOX = 0x101820E0;
+    private static final int BORDER = 0xFFFFFFFF;
+    private static final int TEXT = 0xFFFFFFFF;
+    private static final int CLOCK = 0xFFC000FF;
+
+    private static final int GLYPH_WIDTH = 5;
+    private static final int GLYPH_HEIGHT = 7;
+    private static final String GLYPHS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ:.-#/&'";
+    // Seven rows of five pixels per glyph, the leftmost pixel in bit 4
+    private static final int[] ROWS = {
+            0x0E, 0x11, 0x13, 0x15, 0x19, 0x11, 0x0E, // 0
+            0x04, 0x0C, 0x04, 0x04, 0x04, 0x04, 0x0E, // 1
+            0x0E, 0x11, 0x01, 0x02, 0x04, 0x08, 0x1F, // 2
+            0x1F, 0x02, 0x04, 0x02, 0x01, 0x11, 0x0E, // 3
+            0x02, 0x06, 0x0A, 0x12, 0x1F, 0x02, 0x02, // 4
+            0x1F, 0x10, 0x1E, 0x01, 0x01, 0x11, 0x0E, // 5
+            0x06, 0x08, 0x10, 0x1E, 0x11, 0x11, 0x0E, // 6
+            0x1F, 0x01, 0x02, 0x04, 0x08, 0x08, 0x08, // 7
+            0x0E, 0x11, 0x11, 0x0E, 0x11, 0x11, 0x0E, // 8
+            0x0E, 0x11, 0x11, 0x0F, 0x01, 0x02, 0x0C, // 9
+            0x0E, 0x11, 0x11, 0x11, 0x1F, 0x11, 0x11, // A
+            0x1E, 0x11, 0x11, 0x1E, 0x11, 0x11, 0x1E, // B
+            0x0E, 0x11, 0x10, 0x10, 0x10, 0x11, 0x0E, // C
+            0x1C, 0x12, 0x11, 0x11, 0x11, 0x12, 0x1C, // D
+            0x1F, 0x10, 0x10, 0x1E, 0x10, 0x10, 0x1F, // E
+            0x1F, 0x10, 0x10, 0x1E, 0x10, 0x10, 0x10, // F
+            0x0E, 0x11, 0x10, 0x17, 0x11, 0x11, 0x0F, // G
+            0x11, 0x11, 0x11, 0x1F, 0x11, 0x11, 0x11, // H
+            0x0E, 0x04, 0x04, 0x04, 0x04, 0x04, 0x0E, // I
+            0x07, 0x02, 0x02, 0x02, 0x02, 0x12, 0x0C, // J
+            0x11, 0x12, 0x14, 0x18, 0x14, 0x12, 0x11, // K
+            0x10, 0x10, 0x10, 0x10, 0x10, 0x10, 0x1F, // L
+            0x11, 0x1B, 0x15, 0x15, 0x11, 0x11, 0x11, // M
+            0x11, 0x11, 0x19, 0x15, 0x13, 0x11, 0x11, // N
+            0x0E, 0x11, 0x11, 0x11, 0x11, 0x11, 0x0E, // O
+            0x1E, 0x11, 0x11, 0x1E, 0x10, 0x10, 0x10, // P
+            0x0E, 0x11, 0x11, 0x11, 0x15, 0x12, 0x0D, // Q
+            0x1E, 0x11, 0x11, 0x1E, 0x14, 0x12, 0x11, // R
+            0x0F, 0x10, 0x10, 0x0E, 0x01, 0x01, 0x1E, // S
+            0x1F, 0x04, 0x04, 0x04, 0x04, 0x04, 0x04, // T
+            0x11, 0x11, 0x11, 0x11, 0x11, 0x11, 0x0E, // U
+            0x11, 0x11, 0x11, 0x11, 0x11, 0x0A, 0x04, // V
+            0x11, 0x11, 0x11, 0x15, 0x15, 0x15, 0x0A, // W
+            0x11, 0x11, 0x0A, 0x04, 0x0A, 0x11, 0x11, // X
+            0x11, 0x11, 0x11, 0x0A, 0x04, 0x04, 0x04, // Y
+            0x1F, 0x01, 0x02, 0x04, 0x08, 0x10, 0x1F, // Z
+            0x00, 0x0C, 0x0C, 0x00, 0x0C, 0x0C, 0x00, // :
+            0x00, 0x00, 0x00, 0x00, 0x00, 0x0C, 0x0C, // .
+            0x00, 0x00, 0x00, 0x1F, 0x00, 0x00, 0x00, // -
+            0x0A, 0x0A, 0x1F, 0x0A, 0x1F, 0x0A, 0x0A, // #
+            0x00, 0x01, 0x02, 0x04, 0x08, 0x10, 0x00, // /
+            0x0C, 0x12, 0x14, 0x08, 0x15, 0x12, 0x0D, // &
+            0x0C, 0x04, 0x08, 0x00, 0x00, 0x00, 0x00  // '
+    };
+    private static final byte[] GLYPH_INDEX = new byte[128];
+
+    static {
+        java.util.Arrays.fill(GLYPH_INDEX, (byte) -1);
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            GLYPH_INDEX[GLYPHS.charAt(i)] = (byte) i;
+            GLYPH_INDEX[Character.toLowerCase(GLYPHS.charAt(i))] = (byte) i;
+        }
+    }
+
+    private static final int HOME_NAME = 0;
+    private static final int HOME_SCORE = 1;
+    private static final int PERIOD = 2;
+    private static final int CLOCK_TEXT = 3;
+    private static final int AWAY_NAME = 4;
+    private static final int AWAY_SCORE = 5;
+
+    private final int width;
+    private final int height;
+    private final ByteBuffer frame; // RGBA, one int per pixel
+    private final Region[] regions = new Region[6];
+    private final char[] text = new char[32];
+    private volatile List<String> teamNames = List.of();
+    private int dirtyPixels;
+
+    // A text area with the characters it shows now
+    private static final class Region {
+        final int x;
+        final int y;
+        final int width;
+        final int height;
+        final int color;
+        final char[] shown;
+        int shownLength = -1;
+
+        Region(int x, int y, int width, int height, int color, int maxChars) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.color = color;
+            this.shown = new char[maxChars];
+        }
+    }
+
+    public FrameRenderer(int width, int height) {
+        if (width < 64 || height < 36) {
+            throw new IllegalArgumentException("Frame too small: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.frame = ByteBuffer.allocateDirect(width * height * 4).order(ByteOrder.BIG_ENDIAN);
+
+        // A bar half the frame wide and a fifth high, centered at the top
+        int margin = height / 30;
+        int barWidth = width / 2;
+        int barHeight = height / 5;
+        int gap = Math.max(2, barHeight / 20);
+        int boxWidth = (barWidth - 2 * gap) / 3;
+        int x = (width - barWidth) / 2;
+        for (int box = 0; box < 3; box++) {
+            int boxX = x + box * (boxWidth + gap);
+            fill(boxX, margin, boxWidth, barHeight, BORDER);
+            fill(boxX + 2, margin + 2, boxWidth - 4, barHeight - 4, BOX);
+            int inner = boxWidth - 4 * gap;
+            int top = barHeight * 3 / 10;
+            Region label = new Region(boxX + 2 * gap, margin + gap, inner, top - gap, TEXT, 16);
+            Region value = new Region(boxX + 2 * gap, margin + top, inner, barHeight - top - gap, box == 1 ? CLOCK : TEXT, 8);
+            regions[box == 0 ? HOME_NAME : box == 1 ? PERIOD : AWAY_NAME] = label;
+            regions[box == 0 ? HOME_SCORE : box == 1 ? CLOCK_TEXT : AWAY_SCORE] = value;
+        }
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    // Names of the roster teams by index, from any thread; shown from the next frame on
+    public void setTeamNames(List<String> names) {
+        teamNames = List.copyOf(names);
+    }
+
+    // Pixels drawn again for the last frame
+    public int dirtyPixels() {
+        return dirtyPixels;
+    }
+
+    // Brings the frame up to the snapshot and returns it, positioned at 0 with the whole frame
+    // remaining. The buffer is the same on every call and only valid until the next one.
+    public ByteBuffer render(GameSnapshot snapshot) {
+        dirtyPixels = 0;
+        update(HOME_NAME, teamText(snapshot.homeTeam(), "HOME"));
+        update(HOME_SCORE, number(snapshot.homeScore()));
+        int length = copy("PERIOD ", 0);
+        update(PERIOD, copy(snapshot.periodLabel(), length));
+        update(CLOCK_TEXT, ClockFormatter.formatTo(snapshot.displayNanos() / GameClock.NANOS_PER_TENTH, text, 0));
+        update(AWAY_NAME, teamText(snapshot.awayTeam(), "AWAY"));
+        update(AWAY_SCORE, number(snapshot.awayScore()));
+        return frame.clear();
+    }
+
+    private int teamText(int index, String side) {
+        List<String> names = teamNames;
+        return copy(index >= 0 && index < names.size() ? names.get(index) : side, 0);
+    }
+
+    // Copies as much of s as fits into the text buffer at offset; returns the new length
+    private int copy(String s, int offset) {
+        int length = Math.min(s.length(), text.length - offset);
+        s.getChars(0, length, text, offset);
+        return offset + length;
+    }
+
+    private int number(int value) {
+        int length = 0;
+        int rest = Math.abs(value);
+        do {
+            text[length++] = (char) ('0' + rest % 10);
+            rest /= 10;
+        } while (rest > 0 && length < text.length);
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            char swap = text[i];
+            text[i] = text[j];
+            text[j] = swap;
+        }
+        return length;
+    }
+
+    // Draws the region again if the text buffer's first length characters differ from what it shows
+    private void update(int index, int length) {
+        Region region = regions[index];
+        length = Math.min(length, region.shown.length);
+        if (length == region.shownLength && java.util.Arrays.equals(text, 0, length, region.shown, 0, length)) {
+            return;
+        }
+        System.arraycopy(text, 0, region.shown, 0, length);
+        region.shownLength = length;
+        fill(region.x, region.y, region.width, region.height, BOX);
+        dirtyPixels += region.width * region.height;
+        if (length == 0) {
+            return;
+        }
+        // The largest whole pixel scale at which the text fits, one pixel column between glyphs
+        int scale = Math.max(1, Math.min(region.height / GLYPH_HEIGHT, region.width / (length * (GLYPH_WIDTH + 1))));
+        int textWidth = length * (GLYPH_WIDTH + 1) * scale - scale;
+        int x = region.x + Math.max(0, (region.width - textWidth) / 2);
+        int y = region.y + (region.height - GLYPH_HEIGHT * scale) / 2;
+        for (int i = 0; i < length; i++, x += (GLYPH_WIDTH + 1) * scale) {
+            char c = region.shown[i];
+            int glyph = c < GLYPH_INDEX.length ? GLYPH_INDEX[c] : -1;
+            if (glyph >= 0 && x + GLYPH_WIDTH * scale <= region.x + region.width) {
+                drawGlyph(glyph, x, y, scale, region.color);
+            }
+        }
+    }
+
+    private void drawGlyph(int glyph, int x, int y, int scale, int color) {
+        for (int row = 0; row < GLYPH_HEIGHT; row++) {
+            int bits = ROWS[glyph * GLYPH_HEIGHT + row];
+            for (int column = 0; column < GLYPH_WIDTH; column++) {
+                if ((bits & 0x10 >> column) != 0) {
+                    fill(x + column * scale, y + row * scale, scale, scale, color);
+                }
+            }
+        }
+    }
+
+    private void fill(int x, int y, int w, int h, int rgba) {
+        for (int row = y; row < y + h; row++) {
+            int at = (row * width + x) * 4;
+            for (int end = at + w * 4; at < end; at += 4) {
+                frame.putInt(at, rgba);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.scoreboard;
+
+import java.util.function.LongSupplier;
+
+// Game clock driven by a monotonic nanosecond source instead of accumulated ticks.
+// The value is always computed from the time elapsed since the last resume, so late
+// UI pulses never make the clock drift; callers only sample it.
+public class GameClock {
+    public static final long NANOS_PER_SECOND = 1_000_000_000L;
+    public static final long NANOS_PER_TENTH = 100_000_000L;
+
+    private final LongSupplier nanoTime;
+    private boolean countDown;
+    private long limitNanos;
+    private long valueAtResume; // clock value when it was last resumed or set
+    private long resumedAt;     // nanoTime reading at the last resume
+    private boolean running;
+
+    public GameClock() {
+        this(System::nanoTime);
+    }
+
+    public GameClock(LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+    }
+
+    // Count up from the given value, stopping at limitNanos (0 = no limit)
+    public void countUp(long fromNanos, long limitNanos) {
+        pause();
+        this.countDown = false;
+        this.limitNanos = limitNanos;
+        this.valueAtResume = fromNanos;
+    }
+
+    // Count down from the given value, stopping at zero
+    public void countDown(long fromNanos) {
+        pause();
+        this.countDown = true;
+        this.limitNanos = 0;
+        this.valueAtResume = fromNanos;
+    }
+
+    public void setLimitNanos(long limitNanos) {
+        long value = valueNanos();
+        this.limitNanos = limitNanos;
+        set(value);
+    }
+
+    public void set(long valueNanos) {
+        this.valueAtResume = valueNanos;
+        this.resumedAt = nanoTime.getAsLong();
+    }
+
+    public void start() {
+        if (!running) {
+            resumedAt = nanoTime.getAsLong();
+            running = true;
+        }
+    }
+
+    public void pause() {
+        if (running) {
+            valueAtResume = valueNanos();
+            running = false;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isCountDown() {
+        return countDown;
+    }
+
+    public long getLimitNanos() {
+        return limitNanos;
+    }
+
+    public long valueNanos() {
+        return valueAt(nanoTime.getAsLong());
+    }
+
+    public long valueAt(long now) {
+        if (!running) {
+            return valueAtResume;
+        }
+        long elapsed = now - resumedAt;
+        if (countDown) {
+            return Math.max(0, valueAtResume - elapsed);
+        }
+        long value = valueAtResume + elapsed;
+        return limitNanos > 0 ? Math.min(value, limitNanos) : value;
+    }
+
+    public double seconds() {
+        return valueNanos() / (double) NANOS_PER_SECOND;
+    }
+
+    public long tenths() {
+        return valueNanos() / NANOS_PER_TENTH;
+    }
+
+    // True once a count-down reached zero or a count-up reached its limit
+    public boolean isFinished() {
+        long value = valueNanos();
+        return countDown ? value <= 0 : limitNanos > 0 && value >= limitNanos;
+    }
+
+    // Pauses the clock exactly at its end value if it has run out; returns true if it did
+    public boolean pauseIfFinished() {
+        if (running && isFinished()) {
+            valueAtResume = countDown ? 0 : limitNanos;
+            running = false;
+            return true;
+        }
+        return false;
+    }
+
+    public static long toNanos(int minutes, int seconds) {
+        return (minutes * 60L + seconds) * NANOS_PER_SECOND;
+    }
+}
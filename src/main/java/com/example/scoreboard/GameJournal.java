@@ -0,0 +1,306 @@
+package com.example.scoreboard;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Append-only journal of game state changes, written as fixed-size binary records into a
+// memory-mapped file. Appending is a handful of absolute puts into the mapping, the OS
+// writes the pages back, so a crashed JVM loses nothing that was appended.
+//
+// File layout (little endian):
+//   header, 64 bytes: magic, version, game clock checkpoint, game epoch
+//   records, 32 bytes each: epoch and type, arg, game clock nanos, wall clock millis, value
+// The first word of a record holds the game's epoch above the type's 8 bits. A new game only
+// moves the header to the next epoch, so the journal ends at the first record that is empty or
+// left over from an earlier game, and a crash at any point of a reset cannot bring back part
+// of the previous game.
+public class GameJournal implements AutoCloseable {
+    public static final int GOAL = 1;            // arg: 1 home, 0 away, value: players as PlayerStats.packGoal
+    public static final int GOAL_REMOVED = 2;    // arg: 1 home, 0 away
+    public static final int PERIOD_NEXT = 3;
+    public static final int PERIOD_PREVIOUS = 4;
+    public static final int TIMEOUT_START = 5;   // arg: 1 home, 0 away, value: timeout length nanos
+    public static final int CLOCK_START = 6;
+    public static final int CLOCK_STOP = 7;
+    public static final int CLOCK_RESET = 8;     // period ended, game clock back to zero, value: period length nanos
+    public static final int PENALTY = 9;         // arg: bit 0 home, player number above it, value: minutes
+    public static final int SHOT = 10;           // arg: bit 0 home, player number above it
+    public static final int TEAM = 11;           // arg: 1 home, 0 away, value: roster team index or -1
+    public static final int INTERMISSION_START = 12; // value: intermission length nanos
+
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 32;
+    private static final int MAGIC = 0x53434A31; // "SCJ1"
+    private static final int VERSION = 2;
+    private static final int CHECKPOINT_OFFSET = 8;
+    private static final int EPOCH_OFFSET = 16;
+    private static final int TYPE_BITS = 8;
+    private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+    private static final int EPOCH_MASK = (1 << 32 - TYPE_BITS) - 1;
+    private static final int INITIAL_CAPACITY = 1 << 20;
+    private static final int IN_MEMORY_CAPACITY = 64 << 10; // grows on demand, keeps hosted games small
+
+    private final FileChannel channel; // null for an in-memory journal
+    private ByteBuffer buffer;
+    private int position;
+    private int epoch;
+
+    private GameJournal(FileChannel channel, ByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC) {
+            writeHeader();
+        }
+        // Version 1 files have no epoch, their header and records read as epoch 0
+        this.epoch = buffer.getInt(EPOCH_OFFSET);
+        this.position = findEnd();
+    }
+
+    public static GameJournal open(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), INITIAL_CAPACITY);
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        // Fault the pages in up front so the first appends of a game do not pay for it
+        mapped.load();
+        return new GameJournal(channel, mapped);
+    }
+
+    // Journal that is not persisted, used when the journal file cannot be opened
+    public static GameJournal inMemory() {
+        return new GameJournal(null, ByteBuffer.allocateDirect(IN_MEMORY_CAPACITY));
+    }
+
+    public static Path defaultPath() {
+        return Path.of(System.getProperty("user.home"), ".scoreboard", "game.journal");
+    }
+
+    private void writeHeader() {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(CHECKPOINT_OFFSET, 0);
+        buffer.putInt(EPOCH_OFFSET, 0);
+    }
+
+    // Ends at the first record that is empty or from another game
+    private int findEnd() {
+        int pos = HEADER_SIZE;
+        while (pos + RECORD_SIZE <= buffer.capacity() && buffer.getInt(pos) != 0
+                && buffer.getInt(pos) >>> TYPE_BITS == epoch) {
+            pos += RECORD_SIZE;
+        }
+        return pos;
+    }
+
+    public void append(int type, int arg, long clockNanos) {
+        append(type, arg, clockNanos, 0);
+    }
+
+    public void append(int type, int arg, long clockNanos, long value) {
+        if (position + RECORD_SIZE > buffer.capacity()) {
+            grow();
+        }
+        int pos = position;
+        buffer.putInt(pos + 4, arg);
+        buffer.putLong(pos + 8, clockNanos);
+        buffer.putLong(pos + 16, System.currentTimeMillis());
+        buffer.putLong(pos + 24, value);
+        // The type is written last so a half written record still reads as the end of the journal
+        VarHandle.releaseFence();
+        buffer.putInt(pos, epoch << TYPE_BITS | type);
+        position = pos + RECORD_SIZE;
+    }
+
+    // Overwrites the clock checkpoint in the header, so a running clock can be restored
+    // close to where it was when the application died
+    public void checkpoint(long clockNanos) {
+        buffer.putLong(CHECKPOINT_OFFSET, clockNanos);
+    }
+
+    public int size() {
+        return (position - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    public int type(int index) {
+        return buffer.getInt(offset(index)) & TYPE_MASK;
+    }
+
+    public int arg(int index) {
+        return buffer.getInt(offset(index) + 4);
+    }
+
+    public long clockNanos(int index) {
+        return buffer.getLong(offset(index) + 8);
+    }
+
+    public long wallMillis(int index) {
+        return buffer.getLong(offset(index) + 16);
+    }
+
+    public long value(int index) {
+        return buffer.getLong(offset(index) + 24);
+    }
+
+    private static int offset(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    // Where a restored game stands apart from the state restore() fills in
+    public record Restored(GameSnapshot.Phase phase, int periodsEnded) {
+    }
+
+    // Replays every record into the given state and clocks. The game clock is restored paused.
+    // A timeout or intermission that was counting down goes on with the time that is left by
+    // the wall clock, as if the application had kept running.
+    public Restored restore(GameState game, GameClock clock, GameClock countdown, PenaltyBox penalties, PlayerStats stats) {
+        long clockNanos = 0;
+        boolean clockRunning = false;
+        int periodsEnded = 0;
+        int countdownRecord = -1;
+        for (int i = 0; i < size(); i++) {
+            apply(i, clockNanos, game, penalties, stats);
+            switch (type(i)) {
+                case CLOCK_START -> {
+                    clockRunning = true;
+                    // The game clock only runs again once a countdown is over
+                    countdownRecord = -1;
+                }
+                case CLOCK_STOP -> clockRunning = false;
+                case CLOCK_RESET -> {
+                    clockRunning = false;
+                    periodsEnded++;
+                }
+                case TIMEOUT_START, INTERMISSION_START -> countdownRecord = i;
+                default -> {
+                }
+            }
+            clockNanos = clockNanos(i);
+        }
+        if (clockRunning) {
+            clockNanos = Math.max(clockNanos, buffer.getLong(CHECKPOINT_OFFSET));
+        }
+        clock.set(clockNanos);
+        penalties.expire(penalties.gameTime(clockNanos));
+
+        GameSnapshot.Phase phase = GameSnapshot.Phase.PLAY;
+        if (countdownRecord >= 0) {
+            long passed = Math.max(0, System.currentTimeMillis() - wallMillis(countdownRecord)) * 1_000_000L;
+            long left = value(countdownRecord) - passed;
+            if (left > 0) {
+                phase = type(countdownRecord) == TIMEOUT_START ? GameSnapshot.Phase.TIMEOUT : GameSnapshot.Phase.INTERMISSION;
+                countdown.countDown(left);
+                countdown.start();
+            }
+        }
+        return new Restored(phase, periodsEnded);
+    }
+
+    // Applies one record to the state. previousClockNanos is the game clock of the record
+    // before it; stats may be null when only the board is replayed.
+    void apply(int index, long previousClockNanos, GameState game, PenaltyBox penalties, PlayerStats stats) {
+        int arg = arg(index);
+        long value = value(index);
+        // Penalties are replayed against the game time of each record
+        long gameTime = penalties.gameTime(clockNanos(index));
+        penalties.expire(type(index) == CLOCK_RESET ? penalties.gameTime(previousClockNanos) : gameTime);
+        switch (type(index)) {
+            case GOAL -> {
+                game.addGoal(arg == 1);
+                if (stats != null) {
+                    stats.goal(arg == 1, game.getCurrentPeriod(), (int) value);
+                }
+                penalties.releaseOnGoal(arg == 1, gameTime);
+            }
+            case GOAL_REMOVED -> {
+                game.removeGoal(arg == 1);
+                if (stats != null) {
+                    stats.removeGoal(arg == 1);
+                }
+                // The goal's release is replayed above, so undoing it needs nothing in the record
+                penalties.restoreOnGoalRemoved(arg == 1, gameTime);
+            }
+            case PERIOD_NEXT -> game.nextPeriod();
+            case PERIOD_PREVIOUS -> game.previousPeriod();
+            case TIMEOUT_START -> game.useTimeout(arg == 1);
+            case CLOCK_RESET -> penalties.endPeriod(value != 0 ? value : previousClockNanos);
+            case PENALTY -> {
+                penalties.add((arg & 1) == 1, arg >>> 1, (int) value, gameTime);
+                if (stats != null) {
+                    stats.add((arg & 1) == 1, arg >>> 1, game.getCurrentPeriod(), PlayerStats.PENALTY_MINUTES, (int) value);
+                }
+            }
+            case SHOT -> {
+                if (stats != null) {
+                    stats.add((arg & 1) == 1, arg >>> 1, game.getCurrentPeriod(), PlayerStats.SHOTS, 1);
+                }
+            }
+            case TEAM -> {
+                if (stats != null) {
+                    stats.setTeam(arg == 1, (int) value);
+                }
+            }
+            default -> {
+                // Clock start, stop and intermissions only matter to restore; unknown record types from newer versions are skipped
+            }
+        }
+    }
+
+    // In-memory copy of the records, e.g. for a replay while the game goes on. May be called
+    // from another thread than the writer's: the copy ends before the first record whose type
+    // was not written yet, and the type is written last.
+    public GameJournal copy() {
+        ByteBuffer source = buffer.duplicate().clear();
+        ByteBuffer copy = ByteBuffer.allocateDirect(source.capacity());
+        copy.put(source);
+        return new GameJournal(null, copy);
+    }
+
+    // Starts a new game. The records of the last one stay in the file until overwritten but
+    // belong to an older epoch; the checkpoint is cleared before the epoch moves on.
+    public void reset() {
+        buffer.putLong(CHECKPOINT_OFFSET, 0);
+        epoch = epoch + 1 & EPOCH_MASK;
+        VarHandle.releaseFence();
+        buffer.putInt(EPOCH_OFFSET, epoch);
+        position = HEADER_SIZE;
+    }
+
+    private void grow() {
+        int capacity = buffer.capacity() * 2;
+        try {
+            if (channel != null) {
+                if (buffer instanceof MappedByteBuffer mapped) {
+                    mapped.force();
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity).order(ByteOrder.LITTLE_ENDIAN);
+            } else {
+                ByteBuffer larger = ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+                larger.put(buffer.duplicate().clear());
+                buffer = larger;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer instanceof MappedByteBuffer mapped) {
+            mapped.force();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
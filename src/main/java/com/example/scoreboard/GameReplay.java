@@ -0,0 +1,239 @@
+package com.example.scoreboard;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+// Replays a recorded game on the board at 1x to 64x speed and seeks to any moment of it.
+// The journal's records are the deltas; every KEYFRAME_INTERVAL records a keyframe keeps a
+// copy of the board state. A seek restores the last keyframe at or before the target, found
+// by binary search, and applies at most KEYFRAME_INTERVAL records, so it costs O(log n) in the
+// length of the game. Playing forward only applies the records it passes.
+//
+// The replay runs on master game time: stoppages take no time, so timeouts and intermissions
+// are skipped. Used from one thread, the FX thread when shown on the board.
+public class GameReplay {
+    public static final int MAX_SPEED = 64;
+    static final int KEYFRAME_INTERVAL = 64;
+
+    private final GameJournal journal;
+    private final LongSupplier nanoTime;
+    private final long[] gameTimes;     // master game time of every record
+    private final long[] keyframeTimes; // game time of the last record in each keyframe
+    private final State[] keyframes;    // state after the first k * KEYFRAME_INTERVAL records
+    private final long[] periodStarts = new long[GameState.PERIODS.length];
+    private final long endNanos;
+
+    private final State state = new State();
+    private long position;
+    private int speed = 1;
+    private boolean playing;
+    private long playedFrom;
+    private long playedFromPosition;
+    private GameSnapshot snapshot;
+    private long version;
+
+    // Replays the records of journal as they are now; endGameTimeNanos is how far the game has got,
+    // which can be past the last record while the clock runs
+    public GameReplay(GameJournal journal, long endGameTimeNanos, LongSupplier nanoTime) {
+        this.journal = journal.copy();
+        this.nanoTime = nanoTime;
+        int size = this.journal.size();
+        gameTimes = new long[size];
+        keyframes = new State[size / KEYFRAME_INTERVAL + 1];
+        keyframeTimes = new long[keyframes.length];
+        Arrays.fill(periodStarts, -1);
+        periodStarts[0] = 0;
+        State building = new State();
+        for (int i = 0; i < size; i++) {
+            if (i % KEYFRAME_INTERVAL == 0) {
+                keyframe(i / KEYFRAME_INTERVAL, building);
+            }
+            // A period end happens at the end of the period, its record has the clock at zero again
+            long clockNanos = this.journal.clockNanos(i);
+            if (this.journal.type(i) == GameJournal.CLOCK_RESET) {
+                clockNanos = this.journal.value(i) != 0 ? this.journal.value(i) : building.clockNanos;
+            }
+            gameTimes[i] = building.penalties.gameTime(clockNanos);
+            apply(building, i);
+            int period = building.game.getCurrentPeriod();
+            if (periodStarts[period - 1] < 0) {
+                periodStarts[period - 1] = gameTimes[i];
+            }
+        }
+        if (size % KEYFRAME_INTERVAL == 0) {
+            keyframe(size / KEYFRAME_INTERVAL, building);
+        }
+        endNanos = Math.max(endGameTimeNanos, size > 0 ? gameTimes[size - 1] : 0);
+    }
+
+    private void keyframe(int k, State building) {
+        State keyframe = new State();
+        keyframe.copyFrom(building);
+        keyframes[k] = keyframe;
+        keyframeTimes[k] = k == 0 ? Long.MIN_VALUE : gameTimes[k * KEYFRAME_INTERVAL - 1];
+    }
+
+    public long durationNanos() {
+        return endNanos;
+    }
+
+    // Game time shown now
+    public long position() {
+        if (!playing) {
+            return position;
+        }
+        long played = playedFromPosition + (nanoTime.getAsLong() - playedFrom) * speed;
+        if (played >= endNanos) {
+            playing = false;
+            position = endNanos;
+            snapshot = null;
+            return endNanos;
+        }
+        return played;
+    }
+
+    public void seek(long gameTimeNanos) {
+        position = Math.max(0, Math.min(gameTimeNanos, endNanos));
+        playedFromPosition = position;
+        playedFrom = nanoTime.getAsLong();
+        snapshot = null;
+    }
+
+    // Jumps to the moment the period was first shown; returns false if the game never got there
+    public boolean seekPeriod(int period) {
+        if (period < 1 || period > periodStarts.length || periodStarts[period - 1] < 0) {
+            return false;
+        }
+        seek(periodStarts[period - 1]);
+        return true;
+    }
+
+    public void play() {
+        if (!playing) {
+            if (position >= endNanos) {
+                position = 0;
+            }
+            seek(position);
+            playing = true;
+        }
+    }
+
+    public void pause() {
+        if (playing) {
+            position = position();
+            playing = false;
+            snapshot = null;
+        }
+    }
+
+    public boolean isPlaying() {
+        if (playing) {
+            position(); // stops at the end
+        }
+        return playing;
+    }
+
+    public int speed() {
+        return speed;
+    }
+
+    public void setSpeed(int speed) {
+        if (speed < 1 || speed > MAX_SPEED) {
+            throw new IllegalArgumentException("Replay speed must be 1 to " + MAX_SPEED + ": " + speed);
+        }
+        seek(position());
+        this.speed = speed;
+    }
+
+    // The board at the current position; the same instance until the shown tenth changes
+    public GameSnapshot snapshot() {
+        long target = position();
+        if (snapshot != null && target / GameClock.NANOS_PER_TENTH == snapshot.gameTimeNanos() / GameClock.NANOS_PER_TENTH) {
+            return snapshot;
+        }
+        moveTo(target);
+        GameState game = state.game;
+        long clockNanos = Math.max(0, target - state.penalties.gameTime(0));
+        snapshot = new GameSnapshot(
+                ++version,
+                game.getHomeScore(),
+                game.getAwayScore(),
+                game.getCurrentPeriod(),
+                game.isHomeTimeoutUsed(),
+                game.isAwayTimeoutUsed(),
+                GameSnapshot.Phase.PLAY,
+                playing,
+                clockNanos,
+                0,
+                state.periodsEnded,
+                0,
+                target,
+                state.penalties.penalties(),
+                state.homeTeam,
+                state.awayTeam);
+        return snapshot;
+    }
+
+    // Brings the working state to the records up to target, from a keyframe unless going forward is shorter
+    private void moveTo(long target) {
+        int k = Arrays.binarySearch(keyframeTimes, target);
+        if (k < 0) {
+            k = -k - 2;
+        } else {
+            // Several keyframes can end at the same game time, take the last one
+            while (k + 1 < keyframeTimes.length && keyframeTimes[k + 1] == target) {
+                k++;
+            }
+        }
+        if (target < state.time || k * KEYFRAME_INTERVAL > state.next) {
+            state.copyFrom(keyframes[k]);
+        }
+        while (state.next < gameTimes.length && gameTimes[state.next] <= target) {
+            apply(state, state.next);
+        }
+        state.penalties.expire(target);
+        state.time = target;
+    }
+
+    private void apply(State state, int index) {
+        journal.apply(index, state.clockNanos, state.game, state.penalties, null);
+        switch (journal.type(index)) {
+            case GameJournal.CLOCK_RESET -> state.periodsEnded++;
+            case GameJournal.TEAM -> {
+                if (journal.arg(index) == 1) {
+                    state.homeTeam = (int) journal.value(index);
+                } else {
+                    state.awayTeam = (int) journal.value(index);
+                }
+            }
+            default -> {
+            }
+        }
+        state.clockNanos = journal.clockNanos(index);
+        state.time = gameTimes[index];
+        state.next = index + 1;
+    }
+
+    // Board state after the first next records
+    private static final class State {
+        final GameState game = new GameState();
+        final PenaltyBox penalties = new PenaltyBox();
+        int next;
+        long time; // game time the state is at
+        long clockNanos; // game clock of the last record applied
+        int periodsEnded;
+        int homeTeam = -1;
+        int awayTeam = -1;
+
+        void copyFrom(State other) {
+            game.copyFrom(other.game);
+            penalties.copyFrom(other.penalties);
+            next = other.next;
+            time = other.time;
+            clockNanos = other.clockNanos;
+            periodsEnded = other.periodsEnded;
+            homeTeam = other.homeTeam;
+            awayTeam = other.awayTeam;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.scoreboard;
+
+// Durations configured in the settings dialog, all in nanoseconds
+public record GameSettings(long periodNanos, long timeoutNanos, boolean intermissionEnabled, long intermissionNanos) {
+
+    // Same defaults the settings dialog starts with
+    public static GameSettings defaults() {
+        return new GameSettings(GameClock.toNanos(0, 10), GameClock.toNanos(0, 5), false, GameClock.toNanos(0, 5));
+    }
+}
@@ -0,0 +1,546 @@
+package com.example.scoreboard;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+// Plays whole games headless and much faster than real time, as a load generator and as a
+// regression check of the clock and period rules. Each worker thread drives one
+// ScoreboardEngine through step() on a VirtualTime it moves itself, and starts every game with
+// NEW_GAME the way an operator does. Time jumps straight to the next operator action, period
+// end or end of a countdown, so a game of three 20 minute periods takes a few hundred steps;
+// with stepEveryTenth the engine is stepped at every displayed tenth instead, like its own
+// writer thread does, and every one of those steps must publish the next tenth.
+//
+// After every step the snapshot is compared with a model of the rules kept here, apart from
+// the engine: scores, period, timeouts, phase, both clocks to the nanosecond and the periods
+// ended. A difference fails the game. A random game only depends on its seed, so a run's
+// digest is the same every time, on any number of threads and with either way of stepping.
+//
+//   java ... com.example.scoreboard.GameSimulator [--games=n] [--seed=n] [--threads=n]
+//       [--every-tenth] [--script=file]
+// A script has one operator action per line, "#" starts a comment: the seconds to wait, then
+// wait, start, stop, goal home|away [scorer], ungoal home|away, timeout home|away,
+// penalty home|away player minutes, shot home|away [player] or period +|-.
+// The exit status is 1 if any game failed.
+public class GameSimulator {
+    // 20 minute periods, 30 second timeouts and 15 minute intermissions
+    public static final GameSettings REGULATION = new GameSettings(
+            GameClock.toNanos(20, 0), GameClock.toNanos(0, 30), true, GameClock.toNanos(15, 0));
+
+    private static final int MAX_FAILURES_KEPT = 20;
+
+    private final GameSettings settings;
+    private final boolean stepEveryTenth;
+
+    // Time source the simulator moves; the engine's clocks read it instead of System.nanoTime()
+    public static final class VirtualTime implements LongSupplier {
+        private long nanos;
+
+        @Override
+        public long getAsLong() {
+            return nanos;
+        }
+
+        public void advance(long deltaNanos) {
+            nanos += deltaNanos;
+        }
+    }
+
+    // Waits, then gives the command; a null command only lets the time pass
+    public record Action(long waitNanos, Command command) {
+    }
+
+    public record Report(int games, int threads, long elapsedNanos, long simulatedNanos, long steps,
+                         LatencyHistogram commandLatency, long allocatedBytes, long digest,
+                         int failed, List<String> failures) {
+        public String summary() {
+            double seconds = elapsedNanos / 1e9;
+            StringBuilder text = new StringBuilder(String.format(
+                    "%d games on %d threads in %.2f s: %.0f games/s, %.0f game hours/s, %d steps%n",
+                    games, threads, seconds, games / seconds, simulatedNanos / 3.6e12 / seconds, steps));
+            text.append(String.format("Command applied and published: mean %d ns, p50 %d ns, p99 %d ns, max %d ns over %d commands%n",
+                    commandLatency.meanNanos(), commandLatency.percentileNanos(50), commandLatency.percentileNanos(99),
+                    commandLatency.maxNanos(), commandLatency.count()));
+            text.append(String.format("Allocated %.1f KB per game, %.0f MB/s%n",
+                    allocatedBytes / 1024.0 / games, allocatedBytes / 1048576.0 / seconds));
+            text.append(String.format("Digest %016x, %d failed%n", digest, failed));
+            failures.forEach(failure -> text.append("  ").append(failure).append('\n'));
+            return text.toString();
+        }
+    }
+
+    public GameSimulator(GameSettings settings, boolean stepEveryTenth) {
+        this.settings = settings;
+        this.stepEveryTenth = stepEveryTenth;
+    }
+
+    // Random games, the i-th played from seed + i
+    public Report runRandom(int games, long seed, int threads) {
+        if (settings.periodNanos() <= 0) {
+            throw new IllegalArgumentException("Random games need a period length");
+        }
+        return run(games, threads, game -> new RandomOperator(seed + game));
+    }
+
+    // The same script as often as games
+    public Report runScript(List<Action> script, int games, int threads) {
+        return run(games, threads, game -> new ScriptOperator(script.iterator()));
+    }
+
+    private Report run(int games, int threads, IntFunction<Operator> operators) {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        AtomicInteger nextGame = new AtomicInteger();
+        List<Worker> workers = new ArrayList<>();
+        List<Thread> started = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker();
+            workers.add(worker);
+            Runnable play = () -> {
+                long allocatedBefore = threadBean.getCurrentThreadAllocatedBytes();
+                for (int game; (game = nextGame.getAndIncrement()) < games; ) {
+                    worker.play("game " + game, operators.apply(game));
+                }
+                worker.allocatedBytes = threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            };
+            // A single worker plays on the calling thread, where profilers look
+            if (threads == 1) {
+                play.run();
+            } else {
+                Thread thread = new Thread(play, "simulator-" + (i + 1));
+                started.add(thread);
+                thread.start();
+            }
+        }
+        for (Thread thread : started) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        LatencyHistogram latency = new LatencyHistogram();
+        long simulated = 0;
+        long steps = 0;
+        long allocated = 0;
+        long digest = 0;
+        int failed = 0;
+        List<String> failures = new ArrayList<>();
+        for (Worker worker : workers) {
+            latency.add(worker.latency);
+            simulated += worker.simulatedNanos;
+            steps += worker.steps;
+            allocated += worker.allocatedBytes;
+            // A sum, so the order in which the workers played the games does not matter
+            digest += worker.digest;
+            failed += worker.failed;
+            for (String failure : worker.failures) {
+                if (failures.size() < MAX_FAILURES_KEPT) {
+                    failures.add(failure);
+                }
+            }
+        }
+        return new Report(games, threads, elapsed, simulated, steps, latency, allocated, digest, failed, failures);
+    }
+
+    // Decides the next operator action from the game as it should be now; null ends the game
+    private interface Operator {
+        Action next(Model game);
+    }
+
+    private static final class ScriptOperator implements Operator {
+        private final Iterator<Action> actions;
+
+        ScriptOperator(Iterator<Action> actions) {
+            this.actions = actions;
+        }
+
+        @Override
+        public Action next(Model game) {
+            return actions.hasNext() ? actions.next() : null;
+        }
+    }
+
+    // Plays a regulation game: faceoffs, stoppages, shots, goals, penalties and timeouts at
+    // random moments, overtime "P" when tied after the third period, sudden death, and a
+    // shootout "N" when still tied
+    private static final class RandomOperator implements Operator {
+        private final SplittableRandom random;
+        private final ArrayDeque<Action> queued = new ArrayDeque<>();
+        private int periodsHandled;
+        private boolean decided;
+
+        RandomOperator(long seed) {
+            random = new SplittableRandom(seed);
+        }
+
+        @Override
+        public Action next(Model game) {
+            if (!queued.isEmpty()) {
+                return queued.poll();
+            }
+            if (game.phase != GameSnapshot.Phase.PLAY) {
+                return new Action(game.countdown, null);
+            }
+            if (game.periodsEnded > periodsHandled) {
+                periodsHandled = game.periodsEnded;
+                if (game.period >= 3 && game.homeScore != game.awayScore) {
+                    return null;
+                }
+                return new Action(seconds(5, 60), Command.of(Command.Type.PERIOD_NEXT));
+            }
+            if (decided) {
+                return null;
+            }
+            if (game.period == GameState.PERIODS.length) {
+                decided = true;
+                return new Action(seconds(30, 180), Command.goal(random.nextBoolean(), player(), 0, 0));
+            }
+            if (!game.running) {
+                return new Action(seconds(3, 40), Command.of(Command.Type.CLOCK_START));
+            }
+            long play = seconds(5, 120);
+            long left = game.settings.periodNanos() - game.clock;
+            if (play >= left) {
+                return new Action(left, null);
+            }
+            boolean home = random.nextBoolean();
+            int roll = random.nextInt(100);
+            if (roll < 8) {
+                queued.add(new Action(0, Command.of(Command.Type.CLOCK_STOP)));
+                decided = game.period == 4;
+                return new Action(play, Command.goal(home, player(), player(), player()));
+            }
+            if (roll < 12) {
+                return new Action(play, Command.of(Command.Type.TIMEOUT, home));
+            }
+            if (roll < 22) {
+                queued.add(new Action(0, Command.penalty(home, player(), random.nextInt(10) < 8 ? Penalty.MINOR : Penalty.MAJOR)));
+                return new Action(play, Command.of(Command.Type.CLOCK_STOP));
+            }
+            if (roll < 50) {
+                return new Action(play, Command.shot(home, player()));
+            }
+            return new Action(play, Command.of(Command.Type.CLOCK_STOP));
+        }
+
+        private long seconds(int from, int to) {
+            return random.nextLong(from * GameClock.NANOS_PER_SECOND, to * GameClock.NANOS_PER_SECOND);
+        }
+
+        private int player() {
+            return random.nextInt(1, 99);
+        }
+    }
+
+    // The rules as the board should apply them, kept apart from the engine to check it
+    private static final class Model {
+        final GameSettings settings;
+        int homeScore;
+        int awayScore;
+        int period = 1;
+        boolean homeTimeoutUsed;
+        boolean awayTimeoutUsed;
+        GameSnapshot.Phase phase = GameSnapshot.Phase.PLAY;
+        boolean running;
+        long clock;
+        long countdown;
+        int periodsEnded;
+
+        Model(GameSettings settings) {
+            this.settings = settings;
+        }
+
+        // Time until the rules change something on their own
+        long untilBoundary() {
+            if (phase != GameSnapshot.Phase.PLAY) {
+                return countdown;
+            }
+            return running && settings.periodNanos() > 0 ? settings.periodNanos() - clock : Long.MAX_VALUE;
+        }
+
+        // Lets time pass, never beyond untilBoundary()
+        void advance(long nanos) {
+            if (phase != GameSnapshot.Phase.PLAY) {
+                countdown -= nanos;
+            } else if (running) {
+                clock += nanos;
+                if (settings.periodNanos() > 0 && clock == settings.periodNanos()) {
+                    // The period ends, the clock is reset for the next one
+                    running = false;
+                    clock = 0;
+                    periodsEnded++;
+                    if (settings.intermissionEnabled()) {
+                        phase = GameSnapshot.Phase.INTERMISSION;
+                        countdown = settings.intermissionNanos();
+                    }
+                }
+            }
+            if (phase != GameSnapshot.Phase.PLAY && countdown == 0) {
+                phase = GameSnapshot.Phase.PLAY;
+            }
+        }
+
+        void apply(Command command) {
+            boolean home = command.home();
+            switch (command.type()) {
+                case GOAL -> {
+                    if (home) {
+                        homeScore++;
+                    } else {
+                        awayScore++;
+                    }
+                }
+                case GOAL_REMOVED -> {
+                    if (home && homeScore > 0) {
+                        homeScore--;
+                    } else if (!home && awayScore > 0) {
+                        awayScore--;
+                    }
+                }
+                case PERIOD_NEXT -> period = Math.min(period + 1, GameState.PERIODS.length);
+                case PERIOD_PREVIOUS -> period = Math.max(period - 1, 1);
+                // The game clock does not run during timeouts and intermissions
+                case CLOCK_START -> running |= phase == GameSnapshot.Phase.PLAY;
+                case CLOCK_STOP -> running = false;
+                case TIMEOUT -> {
+                    // One per team and game, only while play is on
+                    if (phase == GameSnapshot.Phase.PLAY && !(home ? homeTimeoutUsed : awayTimeoutUsed)) {
+                        running = false;
+                        if (home) {
+                            homeTimeoutUsed = true;
+                        } else {
+                            awayTimeoutUsed = true;
+                        }
+                        phase = GameSnapshot.Phase.TIMEOUT;
+                        countdown = settings.timeoutNanos();
+                    }
+                }
+                default -> {
+                    // Penalties and shots leave clocks, score and period alone
+                }
+            }
+            advance(0);
+        }
+
+        // The first difference from the snapshot, null if there is none. A snapshot that was not
+        // published again in this step is compared to the tenth, the board shows no more.
+        String compare(GameSnapshot snapshot, boolean exact) {
+            long unit = exact ? 1 : GameClock.NANOS_PER_TENTH;
+            if (snapshot.homeScore() != homeScore || snapshot.awayScore() != awayScore) {
+                return "score " + snapshot.homeScore() + ":" + snapshot.awayScore() + ", expected " + homeScore + ":" + awayScore;
+            }
+            if (snapshot.period() != period) {
+                return "period " + snapshot.periodLabel() + ", expected " + GameState.PERIODS[period - 1];
+            }
+            if (snapshot.homeTimeoutUsed() != homeTimeoutUsed || snapshot.awayTimeoutUsed() != awayTimeoutUsed) {
+                return "timeouts used " + snapshot.homeTimeoutUsed() + "/" + snapshot.awayTimeoutUsed()
+                        + ", expected " + homeTimeoutUsed + "/" + awayTimeoutUsed;
+            }
+            if (snapshot.phase() != phase) {
+                return "phase " + snapshot.phase() + ", expected " + phase;
+            }
+            if (snapshot.clockRunning() != running) {
+                return running ? "clock stopped, expected running" : "clock running, expected stopped";
+            }
+            if (snapshot.periodsEnded() != periodsEnded) {
+                return snapshot.periodsEnded() + " periods ended, expected " + periodsEnded;
+            }
+            if (snapshot.gameClockNanos() / unit != clock / unit) {
+                return "game clock " + snapshot.gameClockNanos() + " ns, expected " + clock;
+            }
+            if (phase != GameSnapshot.Phase.PLAY && snapshot.countdownNanos() / unit != countdown / unit) {
+                return "countdown " + snapshot.countdownNanos() + " ns, expected " + countdown;
+            }
+            return null;
+        }
+    }
+
+    // One engine, reused for the games this worker plays
+    private final class Worker {
+        final VirtualTime time = new VirtualTime();
+        final LatencyHistogram latency = new LatencyHistogram();
+        final List<String> failures = new ArrayList<>();
+        ScoreboardEngine engine;
+        Model model;
+        String name;
+        String failure;
+        long gameStart;
+        long lastVersion;
+        long untilTick;
+        int commands;
+        long steps;
+        long simulatedNanos;
+        long allocatedBytes;
+        long digest;
+        int failed;
+
+        void play(String name, Operator operator) {
+            this.name = name;
+            failure = null;
+            commands = 0;
+            if (engine == null) {
+                engine = new ScoreboardEngine(GameJournal.inMemory(), time);
+                engine.submit(Command.configure(settings));
+                lastVersion = -1;
+            }
+            gameStart = time.getAsLong();
+            model = new Model(settings);
+            submit(Command.of(Command.Type.NEW_GAME));
+            Action action;
+            while (failure == null && (action = operator.next(model)) != null) {
+                advance(action.waitNanos());
+                if (action.command() != null && failure == null) {
+                    submit(action.command());
+                }
+            }
+            // New games only start with the clock stopped and play on
+            if (failure == null && model.running) {
+                submit(Command.of(Command.Type.CLOCK_STOP));
+            }
+            if (failure == null && model.phase != GameSnapshot.Phase.PLAY) {
+                advance(model.countdown);
+            }
+            simulatedNanos += time.getAsLong() - gameStart;
+            if (failure != null) {
+                failed++;
+                failures.add(failure);
+                // Whatever state the engine is in, the next game starts on a new one
+                engine = null;
+                return;
+            }
+            GameSnapshot end = engine.snapshot();
+            long hash = end.homeScore();
+            hash = hash * 31 + end.awayScore();
+            hash = hash * 31 + end.period();
+            hash = hash * 31 + end.periodsEnded();
+            hash = hash * 31 + (end.homeTimeoutUsed() ? 1 : 0) + (end.awayTimeoutUsed() ? 2 : 0);
+            hash = hash * 31 + end.gameClockNanos();
+            hash = hash * 31 + commands;
+            hash = hash * 31 + time.getAsLong() - gameStart;
+            digest += hash * 0x9E3779B97F4A7C15L;
+        }
+
+        void submit(Command command) {
+            engine.submit(command);
+            long start = System.nanoTime();
+            untilTick = engine.step();
+            latency.record(System.nanoTime() - start);
+            commands++;
+            if (command.type() == Command.Type.NEW_GAME) {
+                model = new Model(settings);
+            } else {
+                model.apply(command);
+            }
+            check(false);
+        }
+
+        void advance(long nanos) {
+            long end = time.getAsLong() + nanos;
+            while (failure == null && time.getAsLong() < end) {
+                long delta = Math.min(end - time.getAsLong(), model.untilBoundary());
+                boolean tick = stepEveryTenth && untilTick <= delta;
+                if (tick) {
+                    delta = untilTick;
+                }
+                // A shown clock that runs through this step must show its next tenth after it
+                boolean runs = model.phase != GameSnapshot.Phase.PLAY || model.running;
+                boolean nextTenth = tick && runs && delta < model.untilBoundary();
+                time.advance(delta);
+                model.advance(delta);
+                untilTick = engine.step();
+                check(nextTenth);
+            }
+        }
+
+        private void check(boolean nextTenth) {
+            steps++;
+            GameSnapshot snapshot = engine.snapshot();
+            boolean published = snapshot.version() != lastVersion;
+            lastVersion = snapshot.version();
+            String difference = model.compare(snapshot, published);
+            if (difference == null && nextTenth && !published) {
+                difference = "the next tenth was not published";
+            }
+            if (difference != null) {
+                failure = String.format("%s at %.3f s: %s", name, (time.getAsLong() - gameStart) / 1e9, difference);
+            }
+        }
+    }
+
+    public static List<Action> parseScript(List<String> lines) {
+        List<Action> actions = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).replaceFirst("#.*", "").trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] words = line.split("\\s+");
+            try {
+                long wait = Math.round(Double.parseDouble(words[0]) * GameClock.NANOS_PER_SECOND);
+                Command command = switch (words[1].toLowerCase(Locale.ROOT)) {
+                    case "wait" -> null;
+                    case "start" -> Command.of(Command.Type.CLOCK_START);
+                    case "stop" -> Command.of(Command.Type.CLOCK_STOP);
+                    case "goal" -> Command.goal(home(words), number(words, 3), 0, 0);
+                    case "ungoal" -> Command.of(Command.Type.GOAL_REMOVED, home(words));
+                    case "timeout" -> Command.of(Command.Type.TIMEOUT, home(words));
+                    case "penalty" -> Command.penalty(home(words), Integer.parseInt(words[3]), Integer.parseInt(words[4]));
+                    case "shot" -> Command.shot(home(words), number(words, 3));
+                    case "period" -> Command.of(words[2].equals("-") ? Command.Type.PERIOD_PREVIOUS : Command.Type.PERIOD_NEXT);
+                    default -> throw new IllegalArgumentException("unknown action " + words[1]);
+                };
+                actions.add(new Action(wait, command));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Script line " + (i + 1) + ": " + lines.get(i), e);
+            }
+        }
+        return actions;
+    }
+
+    // The side of an action, its third word; anything but home or away is a mistake in the script
+    private static boolean home(String[] words) {
+        String side = words.length > 2 ? words[2].toLowerCase(Locale.ROOT) : "";
+        return switch (side) {
+            case "home" -> true;
+            case "away" -> false;
+            default -> throw new IllegalArgumentException("home or away expected: '" + side + "'");
+        };
+    }
+
+    private static int number(String[] words, int index) {
+        return index < words.length ? Integer.parseInt(words[index]) : 0;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new java.util.HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            options.put(equals < 0 ? arg : arg.substring(0, equals), equals < 0 ? "" : arg.substring(equals + 1));
+        }
+        int games = Integer.parseInt(options.getOrDefault("--games", "10000"));
+        int threads = Integer.parseInt(options.getOrDefault("--threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        GameSimulator simulator = new GameSimulator(REGULATION, options.containsKey("--every-tenth"));
+        Report report = options.containsKey("--script")
+                ? simulator.runScript(parseScript(Files.readAllLines(Path.of(options.get("--script")))), games, threads)
+                : simulator.runRandom(games, Long.parseLong(options.getOrDefault("--seed", "1")), threads);
+        System.out.print(report.summary());
+        System.exit(report.failed() == 0 ? 0 : 1);
+    }
+}
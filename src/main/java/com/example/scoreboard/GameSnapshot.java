@@ -0,0 +1,46 @@
+package com.example.scoreboard;
+
+import java.util.List;
+
+// Immutable view of the game published by the ScoreboardEngine after every change.
+// Readers on any thread get a consistent state without taking a lock. inputNanos is the
+// submission time of the last command applied, 0 if there was none. gameTimeNanos is the
+// master game time the penalties are measured in. homeTeam and awayTeam are roster indexes,
+// -1 if no team was chosen.
+public record GameSnapshot(
+        long version,
+        int homeScore,
+        int awayScore,
+        int period,
+        boolean homeTimeoutUsed,
+        boolean awayTimeoutUsed,
+        Phase phase,
+        boolean clockRunning,
+        long gameClockNanos,
+        long countdownNanos,
+        int periodsEnded,
+        long inputNanos,
+        long gameTimeNanos,
+        List<Penalty> penalties,
+        int homeTeam,
+        int awayTeam) {
+
+    public enum Phase {
+        PLAY,
+        TIMEOUT,
+        INTERMISSION
+    }
+
+    public String periodLabel() {
+        return GameState.PERIODS[period - 1];
+    }
+
+    // The clock the board shows: the countdown during timeouts and intermissions, the game clock otherwise
+    public long displayNanos() {
+        return phase == Phase.PLAY ? gameClockNanos : countdownNanos;
+    }
+
+    public boolean timeoutAvailable(boolean home) {
+        return phase == Phase.PLAY && !clockRunning && !(home ? homeTimeoutUsed : awayTimeoutUsed);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.scoreboard;
+
+// Score, period and timeout state of one game, kept free of JavaFX so it can be
+// driven and benchmarked without a running toolkit.
+public class GameState {
+    public static final String[] PERIODS = {"1.", "2.", "3.", "P", "N"};
+
+    private int homeScore = 0;
+    private int awayScore = 0;
+    private int currentPeriod = 1;
+    private boolean homeTimeoutUsed = false;
+    private boolean awayTimeoutUsed = false;
+
+    public void reset() {
+        homeScore = 0;
+        awayScore = 0;
+        currentPeriod = 1;
+        homeTimeoutUsed = false;
+        awayTimeoutUsed = false;
+    }
+
+    public void copyFrom(GameState other) {
+        homeScore = other.homeScore;
+        awayScore = other.awayScore;
+        currentPeriod = other.currentPeriod;
+        homeTimeoutUsed = other.homeTimeoutUsed;
+        awayTimeoutUsed = other.awayTimeoutUsed;
+    }
+
+    public void addGoal(boolean home) {
+        if (home) {
+            homeScore++;
+        } else {
+            awayScore++;
+        }
+    }
+
+    // Returns false if the score was already zero
+    public boolean removeGoal(boolean home) {
+        if (home && homeScore > 0) {
+            homeScore--;
+            return true;
+        }
+        if (!home && awayScore > 0) {
+            awayScore--;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean nextPeriod() {
+        if (currentPeriod < PERIODS.length) {
+            currentPeriod++;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean previousPeriod() {
+        if (currentPeriod > 1) {
+            currentPeriod--;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isTimeoutUsed(boolean home) {
+        return home ? homeTimeoutUsed : awayTimeoutUsed;
+    }
+
+    public void useTimeout(boolean home) {
+        if (home) {
+            homeTimeoutUsed = true;
+        } else {
+            awayTimeoutUsed = true;
+        }
+    }
+
+    public int getHomeScore() {
+        return homeScore;
+    }
+
+    public int getAwayScore() {
+        return awayScore;
+    }
+
+    public int getScore(boolean home) {
+        return home ? homeScore : awayScore;
+    }
+
+    public int getCurrentPeriod() {
+        return currentPeriod;
+    }
+
+    public String getPeriodLabel() {
+        return PERIODS[currentPeriod - 1];
+    }
+
+    public boolean isHomeTimeoutUsed() {
+        return homeTimeoutUsed;
+    }
+
+    public boolean isAwayTimeoutUsed() {
+        return awayTimeoutUsed;
+    }
+}
@@ -1,46 +1,71 @@
 package com.example.scoreboard;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.application.Platform;
-import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.fxml.FXMLLoader;
+import javafx.event.ActionEvent;
 import javafx.geometry.Insets;
 import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.stage.FileChooser;
+import javafx.stage.Modality;
 import javafx.stage.Stage;
-import javafx.util.Duration;
+import javafx.util.StringConverter;
 
+import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.nio.file.Path;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 public class HelloApplication extends Application {
-    private int homeScore = 0;
-    private int awayScore = 0;
-    private boolean timerRunning = false;
-    private double timeSeconds = 0.0;
-    private Timeline timeline;
-    private Timeline timeoutTimeline;
-
-    private Timeline intermissionTimeline;
-    private int currentPeriod = 1;
-    private final String[] periods = {"1.", "2.", "3.", "P", "N"};
-    private List<Team> teams = new ArrayList<>();
+    private ScoreboardEngine engine; // the game the board shows and controls
+    private TournamentHost tournament;
+    private StateBroadcaster broadcaster;
+    private StateReceiver receiver;
+    private ClockSyncServer clockSyncServer;
+    private ClockSyncClient clockSync;
+    private LiveFeedServer liveFeed;
+    private RemoteControlServer remoteControl;
+    private SharedStatePage statePage;
+    private FrameRenderer frameRenderer;
+    private FrameOutput frameOutput;
+    private final ClockFormatter clockFormatter = new ClockFormatter();
+    private BoardRenderer renderer;
+    private final PromptQueue prompts = new PromptQueue();
+    private RosterStore roster;
+    private SeasonStats season;
+    private Standings standings;
+    private SeasonArchive archive;
+    private GameReplay replay; // shown on the board instead of the game while not null
+    private ComboBox<String> homeTeamSelector;
+    private ComboBox<String> awayTeamSelector;
+    private TeamSearchIndex teamSearchIndex;
+    private Dialog<Void> settingsDialog;
+    private Dialog<Team> addTeamDialog;
+    private Dialog<Void> allTeamsDialog;
+    private TextField teamSearchField;
+    private TableView<Team> teamTable;
 
     private int timeoutMinutes = 0; // Default timeout duration
     private int timeoutSeconds = 5; // Default timeout duration
-    private boolean homeTimeoutUsed = false;
-    private boolean awayTimeoutUsed = false;
     private int periodMinutes = 0; // Default period duration in minutes
     private int periodSeconds = 10;  // Default period duration in seconds
     private boolean intermissionEnabled = false;
@@ -49,13 +74,85 @@ public class HelloApplication extends Application {
 
 
 
+    // Command line options:
+    //   --broadcast            send the board to display clients over UDP multicast
+    //   --receiver             run as a display client that only shows the broadcast board
+    //   --group=address:port   multicast group, 239.1.2.3:4446 by default
+    //   --interface=name       network interface for multicast, e.g. lo for a local test
+    //   --clock-sync           with --broadcast or --receiver: send the clock's transitions only,
+    //                          on the group's next port, and let each display run the clock itself
+    //   --simulated-latency=ms, --simulated-jitter=ms
+    //                          with --clock-sync on a display, delay its clock sync packets as a network would
+    //   --http=port            serve the live state to spectators' devices over HTTP
+    //   --remote=port          accept commands from remote operator consoles over TCP
+    //   --state-page=file      keep the live state in a memory-mapped page for local graphics software
+    //   --frames=path          write the board as raw RGBA video frames to a named pipe or file,
+    //                          or to numbered files when the path has a format like %05d
+    //   --frame-size=WxH       size of those frames, 1920x1080 by default
+    //   --frame-rate=fps       their rate, 60 by default
+    //   --tournament=games     host several games in this process and pick one to control;
+    //                          the broadcast, HTTP feed and remote consoles follow the first game
+    //   --exit-after-first-frame   print how long after JVM start the board was first drawn
+    //                          and exit, for startup measurements and class-data-sharing dumps
     @Override
-    public void start(Stage primaryStage) {
+    public void start(Stage primaryStage) throws IOException {
+        Map<String, String> options = getParameters().getNamed();
+        List<String> flags = getParameters().getUnnamed();
+        InetSocketAddress group = multicastGroup(options.get("group"));
+        NetworkInterface networkInterface = options.containsKey("interface") ? NetworkInterface.getByName(options.get("interface")) : null;
+        if (flags.contains("--receiver")) {
+            receiver = new StateReceiver(group, networkInterface);
+            if (flags.contains("--clock-sync")) {
+                clockSync = new ClockSyncClient(clockSyncGroup(group), networkInterface,
+                        Long.parseLong(options.getOrDefault("simulated-latency", "0")) * 1_000_000L,
+                        Long.parseLong(options.getOrDefault("simulated-jitter", "0")) * 1_000_000L);
+            }
+            showReceiverBoard(primaryStage);
+            return;
+        }
+
+        if (options.containsKey("tournament")) {
+            startTournament(Integer.parseInt(options.get("tournament")));
+        } else {
+            startEngine();
+        }
+        loadRoster();
+        openSeason();
+        if (flags.contains("--broadcast")) {
+            broadcaster = new StateBroadcaster(group, networkInterface);
+            broadcaster.attach(engine);
+            if (flags.contains("--clock-sync")) {
+                broadcaster.setClockTicks(false);
+                clockSyncServer = new ClockSyncServer(clockSyncGroup(group), networkInterface);
+                clockSyncServer.attach(engine);
+            }
+        }
+        if (options.containsKey("http")) {
+            liveFeed = new LiveFeedServer(new InetSocketAddress(Integer.parseInt(options.get("http"))));
+            liveFeed.attach(engine);
+        }
+        if (options.containsKey("remote")) {
+            remoteControl = new RemoteControlServer(new InetSocketAddress(Integer.parseInt(options.get("remote"))));
+            remoteControl.attach(engine);
+        }
+        if (options.containsKey("state-page")) {
+            statePage = SharedStatePage.open(Path.of(options.get("state-page")));
+            statePage.attach(engine);
+        }
+        if (options.containsKey("frames")) {
+            String[] size = options.getOrDefault("frame-size", "1920x1080").split("x");
+            frameRenderer = new FrameRenderer(Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+            frameOutput = new FrameOutput(engine::snapshot, frameRenderer, options.get("frames"),
+                    Integer.parseInt(options.getOrDefault("frame-rate", "60")));
+            frameOutput.start();
+        }
+        GameSnapshot initial = engine.snapshot();
+
         // Labels for scores
         Label homeLabel = new Label("HOME");
-        Label homeScoreLabel = new Label(String.valueOf(homeScore));
+        Label homeScoreLabel = new Label(String.valueOf(initial.homeScore()));
         Label awayLabel = new Label("AWAY");
-        Label awayScoreLabel = new Label(String.valueOf(awayScore));
+        Label awayScoreLabel = new Label(String.valueOf(initial.awayScore()));
 
         // Buttons for score control
         Button homePlusButton = new Button("+");
@@ -63,93 +160,98 @@ public class HelloApplication extends Application {
         Button awayPlusButton = new Button("+");
         Button awayMinusButton = new Button("-");
 
+        // Jersey numbers of the scorer and the assists; the scorer field also credits shots
+        TextField[] homePlayerFields = playerFields();
+        TextField[] awayPlayerFields = playerFields();
+        Button homeShotButton = new Button("Shot");
+        Button awayShotButton = new Button("Shot");
+
+        // Teams playing, chosen from the roster
+        homeTeamSelector = teamSelector(true);
+        awayTeamSelector = teamSelector(false);
+        showSelectedTeams();
+
         // Timeout buttons
         Button homeTimeoutButton = new Button("Timeout");
         Button awayTimeoutButton = new Button("Timeout");
 
         // Timer controls
-        Label timerLabel = new Label(formatTime(timeSeconds));
+        Label timerLabel = new Label(clockFormatter.format(initial.displayNanos()));
         Button startStopButton = new Button("START");
 
         // Period controls
         Label periodTextLabel = new Label("Period");
-        Label periodLabel = new Label(periods[currentPeriod - 1]);
+        Label periodLabel = new Label(initial.periodLabel());
         Button periodPlusButton = new Button("+");
         Button periodMinusButton = new Button("-");
 
         // Menu
         MenuBar menuBar = new MenuBar();
+        Menu gameMenu = new Menu("Game");
+        MenuItem newGameMenuItem = new MenuItem("New game");
+        MenuItem replayMenuItem = new MenuItem("Replay...");
+        gameMenu.getItems().addAll(newGameMenuItem, replayMenuItem);
+
         Menu teamsMenu = new Menu("Teams");
         MenuItem addTeamMenuItem = new MenuItem("Add new team");
         MenuItem showTeamsMenuItem = new MenuItem("Show all teams");
+        MenuItem importTeamsMenuItem = new MenuItem("Import from CSV...");
+        MenuItem exportTeamsMenuItem = new MenuItem("Export to CSV...");
 
         Menu settingsMenu = new Menu("Settings");
         MenuItem settingsMenuItem = new MenuItem("Settings");
 
-        teamsMenu.getItems().addAll(addTeamMenuItem, new SeparatorMenuItem(), showTeamsMenuItem);
+        Menu statsMenu = new Menu("Stats");
+        MenuItem boxScoreMenuItem = new MenuItem("Box score");
+        MenuItem standingsMenuItem = new MenuItem("Standings");
+        MenuItem archiveMenuItem = new MenuItem("Season archive...");
+        statsMenu.getItems().addAll(boxScoreMenuItem, standingsMenuItem, archiveMenuItem);
+
+        teamsMenu.getItems().addAll(addTeamMenuItem, new SeparatorMenuItem(), showTeamsMenuItem,
+                new SeparatorMenuItem(), importTeamsMenuItem, exportTeamsMenuItem);
         settingsMenu.getItems().add(settingsMenuItem);
-        menuBar.getMenus().addAll(teamsMenu, settingsMenu);
+        menuBar.getMenus().addAll(gameMenu, teamsMenu, statsMenu, settingsMenu);
 
         addTeamMenuItem.setOnAction(e -> showAddTeamDialog(primaryStage));
         showTeamsMenuItem.setOnAction(e -> showAllTeamsDialog(primaryStage));
+        importTeamsMenuItem.setOnAction(e -> importTeams(primaryStage, teamsMenu));
+        exportTeamsMenuItem.setOnAction(e -> exportTeams(primaryStage, teamsMenu));
         settingsMenuItem.setOnAction(e -> showSettingsDialog(primaryStage));
-
-        // Home score controls
-        homePlusButton.setOnAction(e -> {
-            homeScore++;
-            homeScoreLabel.setText(String.valueOf(homeScore));
-        });
-
-        homeMinusButton.setOnAction(e -> {
-            if (homeScore > 0) {
-                homeScore--;
-                homeScoreLabel.setText(String.valueOf(homeScore));
-            }
-        });
-
-        // Away score controls
-        awayPlusButton.setOnAction(e -> {
-            awayScore++;
-            awayScoreLabel.setText(String.valueOf(awayScore));
-        });
-
-        awayMinusButton.setOnAction(e -> {
-            if (awayScore > 0) {
-                awayScore--;
-                awayScoreLabel.setText(String.valueOf(awayScore));
-            }
-        });
+        boxScoreMenuItem.setOnAction(e -> showBoxScore());
+        standingsMenuItem.setOnAction(e -> showStandings());
+        archiveMenuItem.setOnAction(e -> showArchive());
+        newGameMenuItem.setOnAction(e -> engine.submit(Command.of(Command.Type.NEW_GAME)));
+        replayMenuItem.setOnAction(e -> showReplay());
+
+        // Score controls, the engine applies them and the board picks up the next snapshot
+        homePlusButton.setOnAction(e -> submitGoal(true, homePlayerFields));
+        homeMinusButton.setOnAction(e -> engine.submit(Command.of(Command.Type.GOAL_REMOVED, true)));
+        awayPlusButton.setOnAction(e -> submitGoal(false, awayPlayerFields));
+        awayMinusButton.setOnAction(e -> engine.submit(Command.of(Command.Type.GOAL_REMOVED, false)));
+        homeShotButton.setOnAction(e -> engine.submit(Command.shot(true, jerseyNumber(homePlayerFields[0]))));
+        awayShotButton.setOnAction(e -> engine.submit(Command.shot(false, jerseyNumber(awayPlayerFields[0]))));
 
         // Timeout controls
-        homeTimeoutButton.setOnAction(e -> startTimeout(timerLabel, startStopButton, homeTimeoutButton, awayTimeoutButton, true));
-        awayTimeoutButton.setOnAction(e -> startTimeout(timerLabel, startStopButton, homeTimeoutButton, awayTimeoutButton, false));
+        homeTimeoutButton.setOnAction(e -> startTimeout(true));
+        awayTimeoutButton.setOnAction(e -> startTimeout(false));
 
         // Timer control
-        startStopButton.setOnAction(e -> toggleTimer(startStopButton, timerLabel, homeTimeoutButton, awayTimeoutButton));
+        startStopButton.setOnAction(e -> engine.submit(Command.of(Command.Type.CLOCK_TOGGLE)));
 
         // Period control
-        periodPlusButton.setOnAction(e -> {
-            if (currentPeriod < periods.length) {
-                currentPeriod++;
-                periodLabel.setText(periods[currentPeriod - 1]);
-            }
-        });
-
-        periodMinusButton.setOnAction(e -> {
-            if (currentPeriod > 1) {
-                currentPeriod--;
-                periodLabel.setText(periods[currentPeriod - 1]);
-            }
-        });
+        periodPlusButton.setOnAction(e -> engine.submit(Command.of(Command.Type.PERIOD_NEXT)));
+        periodMinusButton.setOnAction(e -> engine.submit(Command.of(Command.Type.PERIOD_PREVIOUS)));
 
         // Layout for Home side
-        VBox homeBox = new VBox(10, homeLabel, homeScoreLabel, homePlusButton, homeMinusButton, homeTimeoutButton);
+        VBox homeBox = new VBox(10, homeLabel, homeTeamSelector, homeScoreLabel, new HBox(5, homePlayerFields),
+                new HBox(5, homePlusButton, homeMinusButton, homeShotButton), homeTimeoutButton);
         homeBox.setAlignment(Pos.CENTER);
         homeBox.setPadding(new Insets(10));
         homeBox.setBorder(new Border(new BorderStroke(Color.BLACK, BorderStrokeStyle.SOLID, new CornerRadii(5), BorderWidths.DEFAULT)));
 
         // Layout for Away side
-        VBox awayBox = new VBox(10, awayLabel, awayScoreLabel, awayPlusButton, awayMinusButton, awayTimeoutButton);
+        VBox awayBox = new VBox(10, awayLabel, awayTeamSelector, awayScoreLabel, new HBox(5, awayPlayerFields),
+                new HBox(5, awayPlusButton, awayMinusButton, awayShotButton), awayTimeoutButton);
         awayBox.setAlignment(Pos.CENTER);
         awayBox.setPadding(new Insets(10));
         awayBox.setBorder(new Border(new BorderStroke(Color.BLACK, BorderStrokeStyle.SOLID, new CornerRadii(5), BorderWidths.DEFAULT)));
@@ -167,190 +269,716 @@ public class HelloApplication extends Application {
         Separator awaySeparator = new Separator();
         awaySeparator.setOrientation(Orientation.VERTICAL);
 
+        // Penalties next to each team, counted down by the engine from the game clock
+        VBox homePenalties = new VBox(3);
+        VBox awayPenalties = new VBox(3);
+
         // Main layout
-        HBox mainContent = new HBox(20, homeBox, homeSeparator, timerBox, awaySeparator, awayBox);
+        HBox mainContent = new HBox(20, createPenaltyPanel(true, homePenalties), homeBox, homeSeparator, timerBox,
+                awaySeparator, awayBox, createPenaltyPanel(false, awayPenalties));
         mainContent.setAlignment(Pos.CENTER);
         mainContent.setPadding(new Insets(20));
 
-        VBox mainLayout = new VBox(menuBar, mainContent);
+        // Timing overlay, toggled with F3
+        Label metricsLabel = new Label();
+        metricsLabel.setFont(Font.font("Monospaced", 11));
+        metricsLabel.setVisible(false);
+        metricsLabel.managedProperty().bind(metricsLabel.visibleProperty());
+
+        VBox mainLayout = new VBox(menuBar, mainContent, metricsLabel);
+        if (tournament != null) {
+            mainLayout.getChildren().add(1, createGameSelector());
+        }
         mainLayout.setAlignment(Pos.CENTER);
         mainLayout.setPadding(new Insets(20));
 
-        Scene scene = new Scene(mainLayout, 600, 400);
+        // Notices and confirmations float over the board without blocking it
+        StackPane root = new StackPane(mainLayout, prompts.node());
+        StackPane.setAlignment(prompts.node(), Pos.BOTTOM_CENTER);
+        StackPane.setMargin(prompts.node(), new Insets(20));
+
+        Scene scene = new Scene(root, 1000, 480);
 
-        // Key event for spacebar
+        // Enter and Escape answer an open prompt before a focused button can take them, but
+        // not from a text field, where Enter submits what was typed
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, event -> {
+            if (!(event.getTarget() instanceof TextInputControl) && prompts.handleKey(event)) {
+                event.consume();
+            }
+        });
+
+        // Keyboard shortcuts: space starts/stops the clock, H and A request a timeout
         scene.setOnKeyPressed(event -> {
+            if (event.getTarget() instanceof TextInputControl) {
+                return; // typing a jersey number
+            }
             if (event.getCode() == KeyCode.SPACE) {
-                toggleTimer(startStopButton, timerLabel, homeTimeoutButton, awayTimeoutButton);
+                engine.submit(Command.of(Command.Type.CLOCK_TOGGLE));
+            } else if (event.getCode() == KeyCode.H) {
+                startTimeout(true);
+            } else if (event.getCode() == KeyCode.A) {
+                startTimeout(false);
+            } else if (event.getCode() == KeyCode.F3) {
+                metricsLabel.setVisible(!metricsLabel.isVisible());
             }
         });
 
+        // The board only samples the engine's latest snapshot once per frame and redraws what changed;
+        // while a replay is open it shows the replay instead
+        renderer = new BoardRenderer(() -> replay != null ? replay.snapshot() : engine.snapshot(), homeScoreLabel, awayScoreLabel, periodLabel, timerLabel);
+        renderer.setControls(startStopButton, homeTimeoutButton, awayTimeoutButton);
+        renderer.setPenaltyPanels(homePenalties, awayPenalties);
+        renderer.setOnPeriodEnd(this::showPeriodEndNotice);
+        renderer.setOnClockStart(this::withdrawStalePrompts);
+        renderer.setMetricsLabel(metricsLabel, () -> tournament == null ? Metrics.summary() : Metrics.summary() + tournament.summary());
+        renderer.start();
+
         primaryStage.setTitle("Scoreboard App");
         primaryStage.setScene(scene);
         primaryStage.show();
+        if (flags.contains("--exit-after-first-frame")) {
+            exitAfterFirstFrame();
+        }
     }
 
-    private void toggleTimer(Button startStopButton, Label timerLabel, Button homeTimeoutButton, Button awayTimeoutButton) {
-        if (timeoutTimeline != null && timeoutTimeline.getStatus() == Timeline.Status.RUNNING) {
-            return; // Do nothing if timeout is running
-        }
-        timerRunning = !timerRunning;
-        startStopButton.setText(timerRunning ? "STOP" : "START");
-        if (timerRunning) {
-            homeTimeoutButton.setDisable(true);
-            awayTimeoutButton.setDisable(true);
-            if (timeline == null) {
-                timeline = new Timeline(new KeyFrame(Duration.millis(100), e -> {
-                    timeSeconds += 0.1;
-                    timerLabel.setText(formatTime(timeSeconds));
-
-                    // Check if the period time has been reached
-                    double periodTotalSeconds = periodMinutes * 60 + periodSeconds;
-                    if (timeSeconds >= periodTotalSeconds) {
-                        timeline.pause();
-                        timerRunning = false;
-                        startStopButton.setText("START");
-
-                        // Show the period end dialog after the timeline has paused
-                        Platform.runLater(() -> {
-                            showPeriodEndDialog();
-                            if (intermissionEnabled) {
-                                startIntermission(timerLabel, startStopButton, homeTimeoutButton, awayTimeoutButton);
-                            } else {
-                                timeSeconds = 0.0;
-                                timerLabel.setText(formatTime(timeSeconds));
-                                homeTimeoutButton.setDisable(true);
-                                awayTimeoutButton.setDisable(true);
-                            }
-                        });
-                    }
-                }));
-                timeline.setCycleCount(Timeline.INDEFINITE);
-            }
-            timeline.play();
-        } else {
-            homeTimeoutButton.setDisable(homeTimeoutUsed);
-            awayTimeoutButton.setDisable(awayTimeoutUsed);
-            if (timeline != null) {
-                timeline.pause();
+    // The second pulse after show runs once the first frame with the board was rendered
+    private static void exitAfterFirstFrame() {
+        new AnimationTimer() {
+            private int pulses;
+
+            @Override
+            public void handle(long now) {
+                if (++pulses == 2) {
+                    stop();
+                    System.out.println("First frame " + ManagementFactory.getRuntimeMXBean().getUptime() + " ms after JVM start");
+                    Platform.exit();
+                }
             }
+        }.start();
+    }
+
+    // Read-only board for a display client, fed by the multicast receiver
+    private void showReceiverBoard(Stage primaryStage) {
+        Label homeScoreLabel = new Label("-");
+        Label awayScoreLabel = new Label("-");
+        Label periodLabel = new Label("-");
+        Label timerLabel = new Label("--:--.-");
+
+        VBox homeBox = new VBox(10, new Label("HOME"), homeScoreLabel);
+        homeBox.setAlignment(Pos.CENTER);
+        homeBox.setPadding(new Insets(10));
+        homeBox.setBorder(new Border(new BorderStroke(Color.BLACK, BorderStrokeStyle.SOLID, new CornerRadii(5), BorderWidths.DEFAULT)));
+
+        VBox awayBox = new VBox(10, new Label("AWAY"), awayScoreLabel);
+        awayBox.setAlignment(Pos.CENTER);
+        awayBox.setPadding(new Insets(10));
+        awayBox.setBorder(new Border(new BorderStroke(Color.BLACK, BorderStrokeStyle.SOLID, new CornerRadii(5), BorderWidths.DEFAULT)));
+
+        VBox timerBox = new VBox(10, new Label("Period"), periodLabel, timerLabel);
+        timerBox.setAlignment(Pos.CENTER);
+
+        HBox mainContent = new HBox(20, homeBox, timerBox, awayBox);
+        mainContent.setAlignment(Pos.CENTER);
+        mainContent.setPadding(new Insets(20));
+
+        renderer = new BoardRenderer(receiver::snapshot, homeScoreLabel, awayScoreLabel, periodLabel, timerLabel);
+        if (clockSync != null) {
+            renderer.setClock(clockSync::displayNanos);
+        }
+        renderer.start();
+
+        primaryStage.setTitle("Scoreboard Display");
+        primaryStage.setScene(new Scene(mainContent, 400, 200));
+        primaryStage.show();
+    }
+
+    private static InetSocketAddress multicastGroup(String option) {
+        if (option == null) {
+            return StateBroadcaster.DEFAULT_GROUP;
         }
+        int colon = option.lastIndexOf(':');
+        return new InetSocketAddress(option.substring(0, colon), Integer.parseInt(option.substring(colon + 1)));
     }
 
+    private static InetSocketAddress clockSyncGroup(InetSocketAddress group) {
+        return new InetSocketAddress(group.getAddress(), group.getPort() + 1);
+    }
 
-    private void startTimeout(Label timerLabel, Button startStopButton, Button homeTimeoutButton, Button awayTimeoutButton, boolean isHomeTeam) {
-        if (timeoutTimeline != null && timeoutTimeline.getStatus() == Timeline.Status.RUNNING) {
-            return; // Do nothing if a timeout is already running
+    private static TextField[] playerFields() {
+        TextField[] fields = {new TextField(), new TextField(), new TextField()};
+        fields[0].setPromptText("#");
+        fields[1].setPromptText("A");
+        fields[2].setPromptText("A");
+        for (TextField field : fields) {
+            field.setPrefColumnCount(2);
         }
+        return fields;
+    }
+
+    // 0, meaning not attributed, for an empty or invalid number
+    private static int jerseyNumber(TextField field) {
+        String text = field.getText().trim();
+        return text.matches("\\d{1,2}") ? Integer.parseInt(text) : 0;
+    }
 
-        // Check if the timeout has already been used by the team
-        if ((isHomeTeam && homeTimeoutUsed) || (!isHomeTeam && awayTimeoutUsed)) {
-            return; // Do nothing if the team has already used their timeout
+    private void submitGoal(boolean home, TextField[] playerFields) {
+        engine.submit(Command.goal(home, jerseyNumber(playerFields[0]), jerseyNumber(playerFields[1]), jerseyNumber(playerFields[2])));
+        for (TextField field : playerFields) {
+            field.clear();
         }
+    }
+
+    // The first entry stands for no team, the others are the roster's teams in roster order
+    private ComboBox<String> teamSelector(boolean home) {
+        ComboBox<String> selector = new ComboBox<>();
+        selector.setFocusTraversable(false);
+        // Refilled on every opening so newly added teams show up
+        selector.setOnShowing(e -> fillTeams(selector, selector.getSelectionModel().getSelectedIndex() - 1));
+        selector.setOnAction(e -> {
+            int selected = selector.getSelectionModel().getSelectedIndex();
+            if (selected >= 0 && selected - 1 != engine.stats().teamIndex(home)) {
+                engine.submit(Command.team(home, selected - 1));
+            }
+        });
+        return selector;
+    }
 
-        // Pause the main timer if it's running
-        if (timeline != null) {
-            timeline.pause();
+    private void fillTeams(ComboBox<String> selector, int teamIndex) {
+        List<String> names = new ArrayList<>(roster.size() + 1);
+        names.add("-");
+        for (int i = 0; i < roster.size(); i++) {
+            names.add(roster.teamName(i));
+        }
+        selector.getItems().setAll(names);
+        if (statePage != null) {
+            statePage.setTeamNames(names.subList(1, names.size()));
         }
-        timerRunning = false;
-        startStopButton.setText("START");
+        if (frameRenderer != null) {
+            frameRenderer.setTeamNames(names.subList(1, names.size()));
+        }
+        selector.getSelectionModel().select(teamIndex < roster.size() ? teamIndex + 1 : 0);
+    }
 
-        // Disable the timeout buttons
-        homeTimeoutButton.setDisable(true);
-        awayTimeoutButton.setDisable(true);
-        startStopButton.setDisable(true);
+    // Shows the teams of the game being controlled, e.g. restored from the journal
+    private void showSelectedTeams() {
+        fillTeams(homeTeamSelector, engine.stats().teamIndex(true));
+        fillTeams(awayTeamSelector, engine.stats().teamIndex(false));
+    }
+
+    private VBox createPenaltyPanel(boolean home, VBox penaltyList) {
+        TextField playerField = new TextField();
+        playerField.setPromptText("#");
+        playerField.setPrefColumnCount(3);
+        ChoiceBox<Integer> minutesChoice = new ChoiceBox<>(FXCollections.observableArrayList(
+                Penalty.MINOR, Penalty.MAJOR, Penalty.MISCONDUCT));
+        minutesChoice.setValue(Penalty.MINOR);
+        Button addButton = new Button("Add");
+        addButton.setOnAction(e -> {
+            // An empty number is a bench penalty
+            String number = playerField.getText().trim();
+            if (!number.isEmpty() && !number.matches("\\d{1,3}")) {
+                return;
+            }
+            engine.submit(Command.penalty(home, number.isEmpty() ? 0 : Integer.parseInt(number), minutesChoice.getValue()));
+            playerField.clear();
+        });
 
-        // Confirmation dialog
-        Alert confirmationDialog = new Alert(Alert.AlertType.CONFIRMATION);
-        confirmationDialog.setTitle("Timeout Confirmation");
-        confirmationDialog.setHeaderText(null);
-        confirmationDialog.setContentText("Are you sure you want to start a timeout?");
+        VBox panel = new VBox(10, new Label("Penalties"), penaltyList, new HBox(5, playerField, minutesChoice, addButton));
+        panel.setAlignment(Pos.TOP_CENTER);
+        panel.setPadding(new Insets(10));
+        panel.setMinWidth(170);
+        return panel;
+    }
 
-        ButtonType yesButton = new ButtonType("Yes", ButtonBar.ButtonData.YES);
-        ButtonType noButton = new ButtonType("No", ButtonBar.ButtonData.NO);
-        confirmationDialog.getButtonTypes().setAll(yesButton, noButton);
+    private void startTimeout(boolean isHomeTeam) {
+        // Check if the team can still take its timeout
+        if (!engine.snapshot().timeoutAvailable(isHomeTeam)) {
+            return;
+        }
 
-        Optional<ButtonType> result = confirmationDialog.showAndWait();
-        if (result.isPresent() && result.get() == yesButton) {
-            // User confirmed the timeout
-            final double originalTime = timeSeconds;
-            timeSeconds = timeoutMinutes * 60 + timeoutSeconds;
+        // Pause the main timer while the operator confirms
+        engine.submit(Command.of(Command.Type.CLOCK_STOP));
 
-            // Mark the timeout as used for the team
-            if (isHomeTeam) {
-                homeTimeoutUsed = true;
-            } else {
-                awayTimeoutUsed = true;
+        // The engine ignores the timeout if it is no longer available when confirmed
+        ScoreboardEngine game = engine;
+        prompts.confirm(isHomeTeam ? "timeout-home" : "timeout-away",
+                "Start a timeout for the " + (isHomeTeam ? "home" : "away") + " team?",
+                () -> game.submit(Command.of(Command.Type.TIMEOUT, isHomeTeam)));
+    }
+
+    // Restores the previous game from the journal if the application was closed or crashed mid-game
+    private void startEngine() {
+        GameJournal journal;
+        try {
+            journal = GameJournal.open(GameJournal.defaultPath());
+        } catch (IOException e) {
+            System.err.println("Could not open game journal, state will not survive a restart: " + e.getMessage());
+            journal = GameJournal.inMemory();
+        }
+        engine = new ScoreboardEngine(journal);
+        engine.submit(Command.configure(currentSettings()));
+        engine.start();
+    }
+
+    // Every game keeps its own journal next to the single-game one and is driven by the host's
+    // shared timer instead of a thread of its own
+    private void startTournament(int games) {
+        tournament = new TournamentHost(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+        for (int i = 1; i <= games; i++) {
+            GameJournal journal;
+            try {
+                journal = GameJournal.open(GameJournal.defaultPath().resolveSibling("game-" + i + ".journal"));
+            } catch (IOException e) {
+                System.err.println("Could not open the journal of game " + i + ": " + e.getMessage());
+                journal = GameJournal.inMemory();
             }
-            timeoutTimeline = new Timeline(new KeyFrame(Duration.millis(100), e -> {
-                timeSeconds -= 0.1;
-                timerLabel.setText(formatTime(timeSeconds));
-                if (timeSeconds <= 0) {
-                    timeoutTimeline.stop();
-                    timeSeconds = originalTime;
-                    timerLabel.setText(formatTime(timeSeconds));
-                    homeTimeoutButton.setDisable(homeTimeoutUsed);
-                    awayTimeoutButton.setDisable(awayTimeoutUsed);
-                    startStopButton.setDisable(false);
-                }
-            }));
-            timeoutTimeline.setCycleCount(Timeline.INDEFINITE);
-            timeoutTimeline.play();
+            tournament.addGame("Game " + i, journal).engine().submit(Command.configure(currentSettings()));
+        }
+        engine = tournament.game(0).engine();
+    }
+
+    private HBox createGameSelector() {
+        ComboBox<TournamentHost.Game> selector = new ComboBox<>(FXCollections.observableList(tournament.games()));
+        selector.getSelectionModel().select(0);
+        selector.setFocusTraversable(false);
+        selector.getSelectionModel().selectedItemProperty().addListener((observable, previous, selected) -> {
+            engine = selected.engine();
+            renderer.invalidate();
+            showSelectedTeams();
+        });
+        HBox box = new HBox(10, new Label("Game:"), selector);
+        box.setAlignment(Pos.CENTER);
+        return box;
+    }
+
+    private void openSeason() {
+        try {
+            season = SeasonStats.open(SeasonStats.defaultPath());
+        } catch (IOException e) {
+            System.err.println("Could not open the season statistics: " + e.getMessage());
+            season = SeasonStats.inMemory();
+        }
+        try {
+            standings = Standings.open(Standings.defaultPath());
+        } catch (IOException e) {
+            System.err.println("Could not load the game results: " + e.getMessage());
+            standings = Standings.inMemory();
+        }
+        try {
+            archive = SeasonArchive.open(SeasonArchive.defaultPath());
+        } catch (IOException e) {
+            System.err.println("Could not load the season archive: " + e.getMessage());
+            archive = SeasonArchive.inMemory();
+        }
+        if (tournament != null) {
+            tournament.games().forEach(game -> {
+                game.engine().setSeason(season);
+                game.engine().setStandings(standings);
+                game.engine().setArchive(archive);
+            });
         } else {
-            // User canceled the timeout
-            // Re-enable the timeout buttons
-            homeTimeoutButton.setDisable(homeTimeoutUsed);
-            awayTimeoutButton.setDisable(awayTimeoutUsed);
-            startStopButton.setDisable(false);
+            engine.setSeason(season);
+            engine.setStandings(standings);
+            engine.setArchive(archive);
         }
     }
 
-    private void startIntermission(Label timerLabel, Button startStopButton, Button homeTimeoutButton, Button awayTimeoutButton) {
-        if (intermissionTimeline != null && intermissionTimeline.getStatus() == Timeline.Status.RUNNING) {
-            return; // Do nothing if a intermission is already running
+    private void loadRoster() {
+        try {
+            roster = RosterStore.open(RosterStore.defaultPath());
+        } catch (IOException e) {
+            System.err.println("Could not load the saved teams: " + e.getMessage());
+            roster = RosterStore.empty();
         }
+        indexRoster();
+    }
 
-        // Pause the main timer if it's running
-        if (timeline != null) {
-            timeline.pause();
+    // Builds the team search off the FX thread; searches before it is ready show every team
+    private void indexRoster() {
+        RosterStore indexed = roster;
+        teamSearchIndex = null;
+        Thread thread = new Thread(() -> {
+            TeamSearchIndex index = new TeamSearchIndex(indexed);
+            index.build();
+            Platform.runLater(() -> {
+                if (roster == indexed) {
+                    teamSearchIndex = index;
+                    if (teamSearchField != null) {
+                        filterTeams(teamSearchField.getText());
+                    }
+                }
+            });
+        }, "team-search-index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void filterTeams(String query) {
+        TeamSearchIndex index = teamSearchIndex;
+        teamTable.setItems(teamView(query.isBlank() || index == null ? null : index.search(query)));
+    }
+
+    private void saveRoster() {
+        try {
+            roster.save(RosterStore.defaultPath());
+        } catch (IOException e) {
+            System.err.println("Could not save the teams: " + e.getMessage());
+        }
+    }
+
+    private GameSettings currentSettings() {
+        return new GameSettings(
+                GameClock.toNanos(periodMinutes, periodSeconds),
+                GameClock.toNanos(timeoutMinutes, timeoutSeconds),
+                intermissionEnabled,
+                GameClock.toNanos(intermissionMinutes, intermissionSeconds));
+    }
+
+    @Override
+    public void stop() throws IOException {
+        if (renderer != null) {
+            renderer.stop();
+            System.out.print(Metrics.summary());
+        }
+        if (broadcaster != null) {
+            broadcaster.close();
+        }
+        if (receiver != null) {
+            receiver.close();
+        }
+        if (clockSyncServer != null) {
+            clockSyncServer.close();
+        }
+        if (clockSync != null) {
+            clockSync.close();
+        }
+        if (liveFeed != null) {
+            liveFeed.close();
+        }
+        if (remoteControl != null) {
+            remoteControl.close();
+        }
+        if (statePage != null) {
+            statePage.close();
+        }
+        if (frameOutput != null) {
+            frameOutput.close();
+        }
+        if (tournament != null) {
+            System.out.print(tournament.summary());
+            tournament.close();
+        } else if (engine != null) {
+            engine.close();
+        }
+        if (season != null) {
+            season.close();
+        }
+        if (standings != null) {
+            standings.close();
         }
-        timerRunning = false;
-        startStopButton.setText("START");
+        if (archive != null) {
+            archive.close();
+        }
+    }
+
+    // One line of the box score; season columns include the current game
+    private record BoxScoreRow(String team, int number, String name, int goals, int assists, int penaltyMinutes,
+                               int shots, int seasonGames, int seasonGoals, int seasonAssists, int seasonPenaltyMinutes) {
+    }
+
+    // Non-modal, the game goes on while it is open; Refresh reads the counters again
+    private void showBoxScore() {
+        TableView<BoxScoreRow> table = new TableView<>();
+        table.getColumns().add(tableColumn("Team", BoxScoreRow::team));
+        table.getColumns().add(tableColumn("#", BoxScoreRow::number));
+        table.getColumns().add(tableColumn("Name", BoxScoreRow::name));
+        table.getColumns().add(tableColumn("G", BoxScoreRow::goals));
+        table.getColumns().add(tableColumn("A", BoxScoreRow::assists));
+        table.getColumns().add(tableColumn("PTS", row -> row.goals() + row.assists()));
+        table.getColumns().add(tableColumn("PIM", BoxScoreRow::penaltyMinutes));
+        table.getColumns().add(tableColumn("SOG", BoxScoreRow::shots));
+        table.getColumns().add(tableColumn("Season GP", BoxScoreRow::seasonGames));
+        table.getColumns().add(tableColumn("G", BoxScoreRow::seasonGoals));
+        table.getColumns().add(tableColumn("A", BoxScoreRow::seasonAssists));
+        table.getColumns().add(tableColumn("PTS", row -> row.seasonGoals() + row.seasonAssists()));
+        table.getColumns().add(tableColumn("PIM", BoxScoreRow::seasonPenaltyMinutes));
+        table.setItems(FXCollections.observableArrayList(boxScoreRows()));
+
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle("Box Score");
+        dialog.initModality(Modality.NONE);
+        ButtonType refreshButtonType = new ButtonType("Refresh", ButtonBar.ButtonData.OTHER);
+        dialog.getDialogPane().getButtonTypes().addAll(refreshButtonType, ButtonType.CLOSE);
+        // Refresh must not close the dialog
+        dialog.getDialogPane().lookupButton(refreshButtonType).addEventFilter(ActionEvent.ACTION, e -> {
+            table.getItems().setAll(boxScoreRows());
+            e.consume();
+        });
+        dialog.getDialogPane().setContent(table);
+        dialog.getDialogPane().setPrefSize(760, 420);
+        dialog.show();
+    }
+
+    private static <S, T> TableColumn<S, T> tableColumn(String title, Function<S, T> value) {
+        TableColumn<S, T> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new SimpleObjectProperty<>(value.apply(cell.getValue())));
+        return column;
+    }
 
-        // Disable the timeout buttons and start button
-        homeTimeoutButton.setDisable(true);
-        awayTimeoutButton.setDisable(true);
-        startStopButton.setDisable(true);
+    // Non-modal like the box score; finished games come in while it is open
+    private void showStandings() {
+        TableView<Standings.Row> table = new TableView<>();
+        table.getColumns().add(tableColumn("#", Standings.Row::rank));
+        table.getColumns().add(tableColumn("Team", row -> row.team() < roster.size() ? roster.teamName(row.team()) : "Team " + (row.team() + 1)));
+        table.getColumns().add(tableColumn("GP", Standings.Row::played));
+        table.getColumns().add(tableColumn("W", Standings.Row::wins));
+        table.getColumns().add(tableColumn("OTW", Standings.Row::overtimeWins));
+        table.getColumns().add(tableColumn("OTL", Standings.Row::overtimeLosses));
+        table.getColumns().add(tableColumn("L", Standings.Row::losses));
+        table.getColumns().add(tableColumn("T", Standings.Row::ties));
+        table.getColumns().add(tableColumn("GF", Standings.Row::goalsFor));
+        table.getColumns().add(tableColumn("GA", Standings.Row::goalsAgainst));
+        table.getColumns().add(tableColumn("GD", Standings.Row::goalDifference));
+        table.getColumns().add(tableColumn("PTS", Standings.Row::points));
+        table.setItems(FXCollections.observableArrayList(standings.rows()));
 
-            timeSeconds = intermissionMinutes * 60 + intermissionSeconds;
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle("Standings");
+        dialog.initModality(Modality.NONE);
+        ButtonType refreshButtonType = new ButtonType("Refresh", ButtonBar.ButtonData.OTHER);
+        dialog.getDialogPane().getButtonTypes().addAll(refreshButtonType, ButtonType.CLOSE);
+        dialog.getDialogPane().lookupButton(refreshButtonType).addEventFilter(ActionEvent.ACTION, e -> {
+            table.getItems().setAll(standings.rows());
+            e.consume();
+        });
+        dialog.getDialogPane().setContent(table);
+        dialog.getDialogPane().setPrefSize(640, 420);
+        dialog.show();
+    }
 
+    // One event found in the season archive
+    private record ArchiveRow(int game, String team, int number, String name, String period, String time, String strength) {
+    }
 
-            timeoutTimeline = new Timeline(new KeyFrame(Duration.millis(100), e -> {
-                timeSeconds -= 0.1;
-                timerLabel.setText(formatTime(timeSeconds));
-                if (timeSeconds <= 0) {
-                    timeoutTimeline.stop();
-                    timeSeconds = 0.0;
-                    timerLabel.setText(formatTime(timeSeconds));
-                    homeTimeoutButton.setDisable(true);
-                    awayTimeoutButton.setDisable(true);
-                    startStopButton.setDisable(false);
+    // Non-modal like the standings; searches the events of all archived games
+    private void showArchive() {
+        ComboBox<String> type = new ComboBox<>(FXCollections.observableArrayList("Goals", "Assists", "Penalties", "Shots"));
+        type.getSelectionModel().select(SeasonArchive.GOAL);
+        ComboBox<String> team = new ComboBox<>();
+        team.getItems().add("All teams");
+        for (int i = 0; i < roster.size(); i++) {
+            team.getItems().add(roster.teamName(i));
+        }
+        team.getSelectionModel().select(0);
+        TextField number = new TextField();
+        number.setPromptText("Any #");
+        number.setPrefColumnCount(4);
+        ComboBox<String> period = new ComboBox<>();
+        period.getItems().add("All periods");
+        period.getItems().addAll(GameState.PERIODS);
+        period.getSelectionModel().select(0);
+        ComboBox<String> strength = new ComboBox<>(FXCollections.observableArrayList(
+                "Any strength", "Even strength", "Power play", "Short-handed"));
+        strength.getSelectionModel().select(0);
+        Button searchButton = new Button("Search");
+        Label summary = new Label();
+
+        TableView<ArchiveRow> table = new TableView<>();
+        table.getColumns().add(tableColumn("Game", ArchiveRow::game));
+        table.getColumns().add(tableColumn("Team", ArchiveRow::team));
+        table.getColumns().add(tableColumn("#", ArchiveRow::number));
+        table.getColumns().add(tableColumn("Name", ArchiveRow::name));
+        table.getColumns().add(tableColumn("Period", ArchiveRow::period));
+        table.getColumns().add(tableColumn("Game time", ArchiveRow::time));
+        table.getColumns().add(tableColumn("Strength", ArchiveRow::strength));
+
+        searchButton.setOnAction(e -> {
+            SeasonArchive.Query query = SeasonArchive.Query.events(type.getSelectionModel().getSelectedIndex());
+            if (team.getSelectionModel().getSelectedIndex() > 0) {
+                query = query.team(team.getSelectionModel().getSelectedIndex() - 1);
+            }
+            if (number.getText().trim().matches("\\d{1,2}")) {
+                query = query.number(Integer.parseInt(number.getText().trim()));
+            } else if (!number.getText().isBlank()) {
+                prompts.notify("archive-number", "Jersey numbers are 0 to 99.");
+                return;
+            }
+            if (period.getSelectionModel().getSelectedIndex() > 0) {
+                query = query.period(period.getSelectionModel().getSelectedIndex());
+            }
+            switch (strength.getSelectionModel().getSelectedIndex()) {
+                case 1 -> query = query.evenStrength();
+                case 2 -> query = query.powerPlay();
+                case 3 -> query = query.shortHanded();
+                default -> {
                 }
-            }));
-            timeoutTimeline.setCycleCount(Timeline.INDEFINITE);
-            timeoutTimeline.play();
+            }
+            long started = System.nanoTime();
+            List<SeasonArchive.Event> events = archive.find(query);
+            double millis = (System.nanoTime() - started) / 1e6;
+            List<ArchiveRow> rows = new ArrayList<>(events.size());
+            for (SeasonArchive.Event event : events) {
+                String teamName = event.team() >= 0 && event.team() < roster.size() ? roster.teamName(event.team()) : "";
+                Player player = event.team() >= 0 && event.team() < roster.size()
+                        ? roster.findPlayer(roster.team(event.team()), String.valueOf(event.number())) : null;
+                String advantage = event.strength() > 0 ? "PP" : event.strength() < 0 ? "SH" : "EV";
+                rows.add(new ArchiveRow(event.game() + 1, teamName, event.number(), player != null ? player.getName() : "",
+                        GameState.PERIODS[event.period() - 1], clockFormatter.format(event.gameTimeNanos()), advantage));
+            }
+            table.getItems().setAll(rows);
+            summary.setText(events.size() + " found in " + archive.gameCount() + " games, searched in " + String.format("%.1f", millis) + " ms");
+        });
 
+        HBox filters = new HBox(5, type, team, number, period, strength, searchButton);
+        filters.setAlignment(Pos.CENTER_LEFT);
+        VBox content = new VBox(10, filters, summary, table);
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle("Season Archive");
+        dialog.initModality(Modality.NONE);
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        dialog.getDialogPane().setContent(content);
+        dialog.getDialogPane().setPrefSize(760, 480);
+        dialog.show();
     }
 
+    // Non-modal controls for a replay of the game so far; the game goes on underneath and
+    // the board shows it again when the dialog closes
+    private void showReplay() {
+        if (replay != null) {
+            return;
+        }
+        replay = engine.replay();
+        renderer.invalidate();
+        long duration = replay.durationNanos();
+
+        Slider position = new Slider(0, duration, 0);
+        position.setPrefWidth(420);
+        Label positionLabel = new Label();
+        Button playButton = new Button("Play");
+        ComboBox<Integer> speed = new ComboBox<>(FXCollections.observableArrayList(1, 2, 4, 8, 16, 32, GameReplay.MAX_SPEED));
+        speed.setValue(1);
+        speed.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(Integer value) {
+                return value == null ? "" : value + "x";
+            }
+
+            @Override
+            public Integer fromString(String text) {
+                return Integer.valueOf(text.replace("x", ""));
+            }
+        });
+        HBox periods = new HBox(5, new Label("Jump to period:"));
+        for (int i = 0; i < GameState.PERIODS.length; i++) {
+            int period = i + 1;
+            Button periodButton = new Button(GameState.PERIODS[i]);
+            periodButton.setOnAction(e -> {
+                if (!replay.seekPeriod(period)) {
+                    prompts.notify("replay-period", "Period " + GameState.PERIODS[period - 1] + " was not played.");
+                }
+            });
+            periods.getChildren().add(periodButton);
+        }
+        periods.setAlignment(Pos.CENTER_LEFT);
+
+        boolean[] updating = {false};
+        position.valueProperty().addListener((observable, previous, value) -> {
+            if (!updating[0]) {
+                replay.seek(value.longValue());
+            }
+        });
+        playButton.setOnAction(e -> {
+            if (replay.isPlaying()) {
+                replay.pause();
+            } else {
+                replay.play();
+            }
+        });
+        speed.setOnAction(e -> replay.setSpeed(speed.getValue()));
+        // Follows the replay while it plays
+        AnimationTimer follow = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                long at = replay.position();
+                updating[0] = true;
+                position.setValue(at);
+                updating[0] = false;
+                positionLabel.setText(clockFormatter.format(at) + " / " + clockFormatter.format(duration));
+                playButton.setText(replay.isPlaying() ? "Pause" : "Play");
+            }
+        };
 
-    private String formatTime(double timeSeconds) {
-        int minutes = (int) timeSeconds / 60;
-        int seconds = (int) timeSeconds % 60;
-        int tenths = (int) ((timeSeconds * 10) % 10);
-        return String.format("%02d:%02d.%d", minutes, seconds, tenths);
+        VBox content = new VBox(10, new HBox(10, playButton, speed, positionLabel), position, periods);
+        content.setPadding(new Insets(10));
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle("Replay");
+        dialog.setHeaderText("Game time is replayed, stoppages are skipped");
+        dialog.initModality(Modality.NONE);
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        dialog.getDialogPane().setContent(content);
+        dialog.setOnHidden(e -> {
+            follow.stop();
+            replay = null;
+            renderer.invalidate();
+        });
+        follow.start();
+        dialog.show();
+    }
+
+    // Players of the chosen teams and every other number with a stat, per side in jersey order
+    private List<BoxScoreRow> boxScoreRows() {
+        PlayerStats stats = engine.stats();
+        List<BoxScoreRow> rows = new ArrayList<>();
+        for (boolean home : new boolean[]{true, false}) {
+            int teamIndex = stats.teamIndex(home);
+            Team team = teamIndex >= 0 && teamIndex < roster.size() ? roster.team(teamIndex) : null;
+            String teamName = team != null ? team.getName() : home ? "HOME" : "AWAY";
+            String[] names = new String[PlayerStats.NUMBERS];
+            if (team != null) {
+                for (Player player : team.getPlayers()) {
+                    String number = player.getNumber().trim();
+                    if (number.matches("\\d{1,2}")) {
+                        names[Integer.parseInt(number)] = player.getName();
+                    }
+                }
+            }
+            for (int number = 0; number < PlayerStats.NUMBERS; number++) {
+                int[] game = new int[PlayerStats.STATS];
+                int[] total = new int[PlayerStats.STATS];
+                boolean any = false;
+                for (int stat = 0; stat < PlayerStats.STATS; stat++) {
+                    game[stat] = stats.get(home, number, stat);
+                    total[stat] = game[stat] + (team != null ? season.get(teamIndex, number, stat) : 0);
+                    any |= total[stat] != 0;
+                }
+                if (names[number] == null && !any) {
+                    continue;
+                }
+                String name = names[number] != null ? names[number] : number == 0 ? "(not attributed)" : "";
+                rows.add(new BoxScoreRow(teamName, number, name, game[PlayerStats.GOALS], game[PlayerStats.ASSISTS],
+                        game[PlayerStats.PENALTY_MINUTES], game[PlayerStats.SHOTS],
+                        team != null ? season.gamesPlayed(teamIndex) + 1 : 1,
+                        total[PlayerStats.GOALS], total[PlayerStats.ASSISTS], total[PlayerStats.PENALTY_MINUTES]));
+            }
+        }
+        return rows;
     }
 
     private void showAddTeamDialog(Stage primaryStage) {
+        // Built on first use and kept, it starts empty every time it shows
+        if (addTeamDialog == null) {
+            addTeamDialog = createAddTeamDialog();
+        }
+        long shownAt = System.nanoTime();
+        Optional<Team> added = addTeamDialog.showAndWait();
+        Metrics.fxStall("Add team dialog", shownAt);
+        added.ifPresent(team -> {
+            roster.add(team);
+            saveRoster();
+        });
+    }
+
+    private Dialog<Team> createAddTeamDialog() {
         Dialog<Team> dialog = new Dialog<>();
         dialog.setTitle("Add New Team");
         dialog.setHeaderText("Add a new team and its players");
@@ -421,6 +1049,12 @@ public class HelloApplication extends Application {
 
         dialog.getDialogPane().setContent(grid);
 
+        dialog.setOnShowing(e -> {
+            teamNameField.clear();
+            resetPlayerButton.fire();
+            playerTable.getItems().clear();
+        });
+
         dialog.setResultConverter(dialogButton -> {
             if (dialogButton == addButtonType) {
                 Team team = new Team(teamNameField.getText());
@@ -429,16 +1063,115 @@ public class HelloApplication extends Application {
             }
             return null;
         });
+        return dialog;
+    }
+
+    // Large files take a while, so the import runs off the FX thread with the Teams menu disabled
+    private void importTeams(Stage primaryStage, Menu teamsMenu) {
+        File file = csvChooser("Import teams").showOpenDialog(primaryStage);
+        if (file == null) {
+            return;
+        }
+        RosterStore current = roster;
+        runWithMenuDisabled(teamsMenu, "roster-import", () -> {
+            RosterCsv.ImportResult result = RosterCsv.importRoster(file.toPath(), current, RosterStore.defaultPath());
+            return () -> {
+                roster = result.roster();
+                indexRoster();
+                showImportResult(result);
+            };
+        });
+    }
+
+    private void exportTeams(Stage primaryStage, Menu teamsMenu) {
+        FileChooser chooser = csvChooser("Export teams");
+        chooser.setInitialFileName("teams.csv");
+        File file = chooser.showSaveDialog(primaryStage);
+        if (file == null) {
+            return;
+        }
+        RosterStore current = roster;
+        runWithMenuDisabled(teamsMenu, "roster-export", () -> {
+            long rows = RosterCsv.exportRoster(current, file.toPath());
+            return () -> prompts.notify("roster-export", "Exported " + rows + " players to " + file.getName() + ".");
+        });
+    }
+
+    private static FileChooser csvChooser(String title) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        return chooser;
+    }
+
+    // Work done on a background thread; what it returns runs on the FX thread afterwards
+    private interface RosterTask {
+        Runnable run() throws IOException;
+    }
+
+    private void runWithMenuDisabled(Menu menu, String name, RosterTask task) {
+        menu.setDisable(true);
+        Thread thread = new Thread(() -> {
+            Runnable done;
+            try {
+                done = task.run();
+            } catch (IOException e) {
+                done = () -> prompts.notify(name, "Could not read or write the file: " + e.getMessage());
+            }
+            Runnable result = done;
+            Platform.runLater(() -> {
+                menu.setDisable(false);
+                result.run();
+            });
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
 
-        dialog.showAndWait().ifPresent(team -> teams.add(team));
+    // A short note when everything was imported, otherwise a non-modal list of the errors
+    private void showImportResult(RosterCsv.ImportResult result) {
+        String summary = "Imported " + result.players() + " players in " + result.teams() + " teams from " + result.rows() + " rows.";
+        if (result.errorCount() == 0) {
+            prompts.notify("roster-import", summary);
+            return;
+        }
+        ListView<String> errors = new ListView<>();
+        for (RosterCsv.Error error : result.errors()) {
+            errors.getItems().add("Line " + error.line() + ": " + error.message());
+        }
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle("Import Teams");
+        dialog.setHeaderText(summary + " " + result.errorCount() + " rows were skipped"
+                + (result.errorCount() > result.errors().size() ? ", the first " + result.errors().size() + " are listed." : ":"));
+        dialog.initModality(Modality.NONE);
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        dialog.getDialogPane().setContent(errors);
+        dialog.getDialogPane().setPrefSize(640, 420);
+        dialog.show();
     }
 
     private void showAllTeamsDialog(Stage primaryStage) {
+        // Built once, reopening only swaps in a view of the current roster
+        if (allTeamsDialog == null) {
+            allTeamsDialog = createAllTeamsDialog();
+        }
+        teamSearchField.clear();
+        teamTable.setItems(teamView(null));
+        long shownAt = System.nanoTime();
+        allTeamsDialog.showAndWait();
+        Metrics.fxStall("All teams dialog", shownAt);
+    }
+
+    private Dialog<Void> createAllTeamsDialog() {
         Dialog<Void> dialog = new Dialog<>();
         dialog.setTitle("All Teams");
         dialog.setHeaderText("List of all teams");
 
-        TableView<Team> teamTable = new TableView<>();
+        teamSearchField = new TextField();
+        teamSearchField.setPromptText("Search teams and players");
+        Label resultCountLabel = new Label();
+
+        teamTable = new TableView<>();
         TableColumn<Team, String> teamNameColumn = new TableColumn<>("Team Name");
         teamNameColumn.setCellValueFactory(data -> data.getValue().nameProperty());
 
@@ -455,31 +1188,76 @@ public class HelloApplication extends Application {
         teamTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
             if (newSelection != null) {
                 playerTable.setItems(newSelection.getPlayers());
+            } else {
+                playerTable.setItems(FXCollections.emptyObservableList());
             }
         });
+        teamTable.itemsProperty().addListener((obs, oldItems, newItems) ->
+                resultCountLabel.setText(newItems.size() + " teams"));
+
+        // Filter on every keystroke
+        teamSearchField.textProperty().addListener((obs, oldText, newText) -> filterTeams(newText));
 
         teamTable.getColumns().add(teamNameColumn);
-        teamTable.getItems().addAll(teams);
 
-        VBox content = new VBox(10, teamTable, playerTable);
+        VBox content = new VBox(10, teamSearchField, resultCountLabel, teamTable, playerTable);
         content.setPadding(new Insets(20));
 
         dialog.getDialogPane().setContent(content);
         dialog.getDialogPane().getButtonTypes().add(ButtonType.OK);
+        return dialog;
+    }
 
-        dialog.showAndWait();
+    // Read-only view of the roster without copying it; the table only decodes the teams in visible rows
+    private ObservableList<Team> teamView(int[] teamIndexes) {
+        List<Team> view = new AbstractList<>() {
+            @Override
+            public Team get(int index) {
+                return roster.team(teamIndexes == null ? index : teamIndexes[index]);
+            }
+
+            @Override
+            public int size() {
+                return teamIndexes == null ? roster.size() : teamIndexes.length;
+            }
+        };
+        return FXCollections.unmodifiableObservableList(FXCollections.observableList(view));
     }
 
-    private void showPeriodEndDialog() {
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Period Ended");
-        alert.setHeaderText(null);
-        alert.setContentText("The current period has ended.");
-        alert.showAndWait();
+    // The engine has already stopped the clock and started any intermission when this shows
+    private void showPeriodEndNotice() {
+        if (replay != null) {
+            return;
+        }
+        GameSnapshot snapshot = engine.snapshot();
+        String message = "The current period has ended.";
+        if (snapshot.phase() == GameSnapshot.Phase.INTERMISSION) {
+            message += " Intermission is running.";
+        }
+        prompts.notify("period-end-" + snapshot.periodsEnded(), message);
     }
 
+    // Once play goes on, the last period-end notice is old news and a timeout can no longer start
+    private void withdrawStalePrompts() {
+        if (replay != null) {
+            return;
+        }
+        prompts.cancel("period-end-" + engine.snapshot().periodsEnded());
+        prompts.cancel("timeout-home");
+        prompts.cancel("timeout-away");
+    }
 
     private void showSettingsDialog(Stage primaryStage) {
+        // Built on first use and kept, the controls are reloaded from the settings when it shows
+        if (settingsDialog == null) {
+            settingsDialog = createSettingsDialog();
+        }
+        long shownAt = System.nanoTime();
+        settingsDialog.showAndWait();
+        Metrics.fxStall("Settings dialog", shownAt);
+    }
+
+    private Dialog<Void> createSettingsDialog() {
         Dialog<Void> dialog = new Dialog<>();
         dialog.setTitle("Settings");
 
@@ -494,15 +1272,15 @@ public class HelloApplication extends Application {
         grid.setPadding(new Insets(20, 150, 10, 10));
 
         // Timeout duration spinners
-        Spinner<Integer> timeoutMinutesSpinner = new Spinner<>(0, 59, timeoutMinutes);
+        Spinner<Integer> timeoutMinutesSpinner = new Spinner<>(0, 59, 0);
         timeoutMinutesSpinner.setEditable(true);
-        Spinner<Integer> timeoutSecondsSpinner = new Spinner<>(0, 59, timeoutSeconds);
+        Spinner<Integer> timeoutSecondsSpinner = new Spinner<>(0, 59, 0);
         timeoutSecondsSpinner.setEditable(true);
 
         // Period duration spinners
-        Spinner<Integer> periodMinutesSpinner = new Spinner<>(0, 59, periodMinutes);
+        Spinner<Integer> periodMinutesSpinner = new Spinner<>(0, 59, 0);
         periodMinutesSpinner.setEditable(true);
-        Spinner<Integer> periodSecondsSpinner = new Spinner<>(0, 59, periodSeconds);
+        Spinner<Integer> periodSecondsSpinner = new Spinner<>(0, 59, 0);
         periodSecondsSpinner.setEditable(true);
 
         // Intermission controls
@@ -512,20 +1290,13 @@ public class HelloApplication extends Application {
         RadioButton intermissionNoButton = new RadioButton("No");
         intermissionYesButton.setToggleGroup(intermissionToggleGroup);
         intermissionNoButton.setToggleGroup(intermissionToggleGroup);
-        intermissionNoButton.setSelected(!intermissionEnabled);
-        intermissionYesButton.setSelected(intermissionEnabled);
-
-
 
         // Intermission duration spinners
-        Spinner<Integer> intermissionMinutesSpinner = new Spinner<>(0, 59, intermissionMinutes);
+        Spinner<Integer> intermissionMinutesSpinner = new Spinner<>(0, 59, 0);
         intermissionMinutesSpinner.setEditable(true);
-        Spinner<Integer> intermissionSecondsSpinner = new Spinner<>(0, 59, intermissionSeconds);
+        Spinner<Integer> intermissionSecondsSpinner = new Spinner<>(0, 59, 0);
         intermissionSecondsSpinner.setEditable(true);
 
-        intermissionMinutesSpinner.setDisable(!intermissionEnabled);
-        intermissionSecondsSpinner.setDisable(!intermissionEnabled);
-
         intermissionYesButton.selectedProperty().addListener((observable, oldValue, newValue) -> {
             intermissionMinutesSpinner.setDisable(!newValue);
             intermissionSecondsSpinner.setDisable(!newValue);
@@ -549,9 +1320,22 @@ public class HelloApplication extends Application {
         grid.add(new Label("Intermission duration (sec):"), 0, 6);
         grid.add(intermissionSecondsSpinner, 1, 6);
 
-
         dialog.getDialogPane().setContent(grid);
 
+        // A cancelled edit must not show up the next time
+        dialog.setOnShowing(e -> {
+            timeoutMinutesSpinner.getValueFactory().setValue(timeoutMinutes);
+            timeoutSecondsSpinner.getValueFactory().setValue(timeoutSeconds);
+            periodMinutesSpinner.getValueFactory().setValue(periodMinutes);
+            periodSecondsSpinner.getValueFactory().setValue(periodSeconds);
+            intermissionYesButton.setSelected(intermissionEnabled);
+            intermissionNoButton.setSelected(!intermissionEnabled);
+            intermissionMinutesSpinner.getValueFactory().setValue(intermissionMinutes);
+            intermissionSecondsSpinner.getValueFactory().setValue(intermissionSeconds);
+            intermissionMinutesSpinner.setDisable(!intermissionEnabled);
+            intermissionSecondsSpinner.setDisable(!intermissionEnabled);
+        });
+
         dialog.setResultConverter(dialogButton -> {
             if (dialogButton == saveButtonType) {
                 timeoutMinutes = timeoutMinutesSpinner.getValue();
@@ -561,72 +1345,14 @@ public class HelloApplication extends Application {
                 intermissionEnabled = intermissionYesButton.isSelected();
                 intermissionMinutes = intermissionMinutesSpinner.getValue();
                 intermissionSeconds = intermissionSecondsSpinner.getValue();
+                engine.submit(Command.configure(currentSettings()));
             }
             return null;
         });
-
-        dialog.showAndWait();
+        return dialog;
     }
 
     public static void main(String[] args) {
         launch(args);
     }
 }
-
-class Team {
-    private final SimpleStringProperty name;
-    private final ObservableList<Player> players;
-
-    public Team(String name) {
-        this.name = new SimpleStringProperty(name);
-        this.players = FXCollections.observableArrayList();
-    }
-
-    public String getName() {
-        return name.get();
-    }
-
-    public ObservableList<Player> getPlayers() {
-        return players;
-    }
-
-    public SimpleStringProperty nameProperty() {
-        return name;
-    }
-}
-
-class Player {
-    private final SimpleStringProperty number;
-    private final SimpleStringProperty name;
-    private final SimpleStringProperty position;
-
-    public Player(String number, String name, String position) {
-        this.number = new SimpleStringProperty(number);
-        this.name = new SimpleStringProperty(name);
-        this.position = new SimpleStringProperty(position);
-    }
-
-    public String getNumber() {
-        return number.get();
-    }
-
-    public String getName() {
-        return name.get();
-    }
-
-    public String getPosition() {
-        return position.get();
-    }
-
-    public SimpleStringProperty numberProperty() {
-        return number;
-    }
-
-    public SimpleStringProperty nameProperty() {
-        return name;
-    }
-
-    public SimpleStringProperty positionProperty() {
-        return position;
-    }
-}
\ No newline at end of file
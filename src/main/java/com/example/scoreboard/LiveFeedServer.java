@@ -0,0 +1,267 @@
+package com.example.scoreboard;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Embedded HTTP server for spectators' devices:
+//   GET /        small page that follows the game live
+//   GET /state   current state as JSON
+//   GET /events  server-sent events stream, one JSON message per state change
+//   GET /metrics timing histograms as plain text
+// Every state change is serialized exactly once; all requests and streams write the same
+// cached byte arrays. An event stream does not keep a thread: one fan-out thread waits for
+// changes and hands each open stream that is not still busy with its last write to the pool,
+// so the threads in use are the writes in flight, not the connected clients. A stream that
+// falls behind writes only the latest event once it is free again, and a client that stops
+// reading holds up a single pool thread, never the other streams.
+public class LiveFeedServer implements AutoCloseable {
+    private static final long KEEPALIVE_NANOS = TimeUnit.SECONDS.toNanos(15);
+    private static final byte[] KEEPALIVE = ":\n\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Thread fanOut;
+    private final Set<Stream> streams = ConcurrentHashMap.newKeySet();
+    private final ClockFormatter clockFormatter = new ClockFormatter();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private volatile Encoded current;
+    private volatile boolean running = true;
+
+    // One state change, serialized once for both endpoints
+    private record Encoded(long version, byte[] json, byte[] event) {
+    }
+
+    // An open /events response; runs on the pool until it has caught up with the current event
+    private final class Stream implements Runnable {
+        private final HttpExchange exchange;
+        private final OutputStream body;
+        private final AtomicBoolean busy = new AtomicBoolean();
+        private volatile boolean keepalive;
+        private long sentVersion = -1; // only touched by the task holding busy
+
+        Stream(HttpExchange exchange) {
+            this.exchange = exchange;
+            this.body = exchange.getResponseBody();
+        }
+
+        // Starts a write unless one is running, which then picks up the current event itself
+        void dispatch(boolean keepalive) {
+            if (keepalive) {
+                this.keepalive = true;
+            }
+            if (busy.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                do {
+                    Encoded next = current;
+                    if (next.version() != sentVersion) {
+                        body.write(next.event());
+                        sentVersion = next.version();
+                    } else if (keepalive) {
+                        // Keeps proxies and phones from dropping an idle stream
+                        body.write(KEEPALIVE);
+                    }
+                    keepalive = false;
+                    body.flush();
+                    busy.set(false);
+                    // A change that came in during the write was not dispatched to this stream
+                } while (running && current.version() != sentVersion && busy.compareAndSet(false, true));
+            } catch (IOException e) {
+                // Client went away
+                streams.remove(this);
+                exchange.close();
+            }
+        }
+    }
+
+    public LiveFeedServer(InetSocketAddress address) throws IOException {
+        this.executor = connectionExecutor();
+        this.server = HttpServer.create(address, 1024);
+        server.setExecutor(executor);
+        server.createContext("/state", this::handleState);
+        server.createContext("/events", this::handleEvents);
+        server.createContext("/metrics", this::handleMetrics);
+        server.createContext("/", this::handlePage);
+        this.fanOut = new Thread(this::runFanOut, "scoreboard-http-events");
+        fanOut.setDaemon(true);
+    }
+
+    public void attach(ScoreboardEngine engine) {
+        offer(engine.snapshot());
+        engine.addListener(this::offer);
+        fanOut.start();
+        server.start();
+    }
+
+    // Number of open event streams
+    public int streams() {
+        return streams.size();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public void offer(GameSnapshot snapshot) {
+        Encoded previous = current;
+        if (previous != null && previous.version() == snapshot.version()) {
+            return;
+        }
+        byte[] json = toJson(snapshot).getBytes(StandardCharsets.UTF_8);
+        byte[] event = new byte[json.length + 8];
+        System.arraycopy("data: ".getBytes(StandardCharsets.US_ASCII), 0, event, 0, 6);
+        System.arraycopy(json, 0, event, 6, json.length);
+        event[event.length - 2] = '\n';
+        event[event.length - 1] = '\n';
+        current = new Encoded(snapshot.version(), json, event);
+        lock.lock();
+        try {
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String toJson(GameSnapshot snapshot) {
+        return "{\"version\":" + snapshot.version()
+                + ",\"homeScore\":" + snapshot.homeScore()
+                + ",\"awayScore\":" + snapshot.awayScore()
+                + ",\"period\":" + snapshot.period()
+                + ",\"periodLabel\":\"" + snapshot.periodLabel() + "\""
+                + ",\"clock\":\"" + clockFormatter.format(snapshot.displayNanos()) + "\""
+                + ",\"clockRunning\":" + snapshot.clockRunning()
+                + ",\"phase\":\"" + snapshot.phase() + "\""
+                + ",\"homeTimeoutUsed\":" + snapshot.homeTimeoutUsed()
+                + ",\"awayTimeoutUsed\":" + snapshot.awayTimeoutUsed()
+                + "}";
+    }
+
+    private void handleState(HttpExchange exchange) throws IOException {
+        byte[] json = current.json();
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+        exchange.sendResponseHeaders(200, json.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(json);
+        }
+    }
+
+    private void handleEvents(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+        exchange.sendResponseHeaders(200, 0);
+        // The response stays open after the handler returns; the current event goes out first
+        Stream stream = new Stream(exchange);
+        streams.add(stream);
+        stream.dispatch(false);
+    }
+
+    private void runFanOut() {
+        long sent = current.version();
+        while (running) {
+            boolean changed = awaitChange(sent);
+            sent = current.version();
+            for (Stream stream : streams) {
+                stream.dispatch(!changed);
+            }
+        }
+    }
+
+    // Returns false if nothing changed before the keepalive interval passed
+    private boolean awaitChange(long sentVersion) {
+        long remaining = KEEPALIVE_NANOS;
+        lock.lock();
+        try {
+            while (running && current.version() == sentVersion) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = changed.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        byte[] text = Metrics.summary().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(200, text.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(text);
+        }
+    }
+
+    private void handlePage(HttpExchange exchange) throws IOException {
+        byte[] page = PAGE.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(200, page.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(page);
+        }
+    }
+
+    // Requests and stream writes are short, threads only pile up for clients that stopped reading
+    private static ExecutorService connectionExecutor() {
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "scoreboard-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        lock.lock();
+        try {
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        // Stopping the server closes every connection, which also ends writes stuck on a full socket
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static final String PAGE = """
+            <!DOCTYPE html>
+            <html><head><meta name="viewport" content="width=device-width, initial-scale=1"><title>Scoreboard</title>
+            <style>body{font-family:sans-serif;text-align:center}.score{font-size:4em}.clock{font-size:3em}</style></head>
+            <body><div class="score"><span id="home">-</span> : <span id="away">-</span></div>
+            <div>Period <span id="period">-</span></div><div class="clock" id="clock">--:--.-</div>
+            <script>
+            new EventSource('/events').onmessage = e => {
+              const s = JSON.parse(e.data);
+              home.textContent = s.homeScore; away.textContent = s.awayScore;
+              period.textContent = s.periodLabel; clock.textContent = s.clock;
+            };
+            </script></body></html>
+            """;
+}
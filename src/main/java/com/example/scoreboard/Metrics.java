@@ -0,0 +1,175 @@
+package com.example.scoreboard;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Process-wide timing instrumentation. Every measurement goes into an always-on histogram,
+// shown by the in-app overlay (F3) and the /metrics endpoint, and is emitted as a custom JFR
+// event when a recording has the event enabled, e.g.
+//   java -XX:StartFlightRecording:filename=game.jfr ...   then   jfr print --categories Scoreboard game.jfr
+// Disabled JFR events cost a single branch, so this can stay on at the rink.
+public final class Metrics {
+    // How late the engine's writer woke up after the planned clock tick
+    public static final LatencyHistogram TICK_JITTER = new LatencyHistogram();
+    // Time the FX thread spent blocked in a modal dialog or between two late pulses
+    public static final LatencyHistogram FX_STALL = new LatencyHistogram();
+    // From an operator command being submitted until the pulse that shows its result
+    public static final LatencyHistogram INPUT_LATENCY = new LatencyHistogram();
+    public static final LatencyHistogram JOURNAL_WRITE = new LatencyHistogram();
+    // From a snapshot being offered to the broadcaster until its datagram was sent
+    public static final LatencyHistogram BROADCAST_SEND = new LatencyHistogram();
+    public static final LatencyHistogram RENDER_PULSE = new LatencyHistogram();
+    public static final LatencyHistogram PULSE_INTERVAL = new LatencyHistogram();
+
+    // A pulse interval longer than this counts as an FX thread stall
+    static final long STALL_THRESHOLD_NANOS = 100_000_000L;
+
+    private Metrics() {
+    }
+
+    public static void clockTick(long jitterNanos) {
+        TICK_JITTER.record(jitterNanos);
+        ClockTickEvent event = new ClockTickEvent();
+        if (event.shouldCommit()) {
+            event.jitter = jitterNanos;
+            event.commit();
+        }
+    }
+
+    public static void fxStall(String cause, long startNanos) {
+        long duration = System.nanoTime() - startNanos;
+        FX_STALL.record(duration);
+        FxStallEvent event = new FxStallEvent();
+        if (event.shouldCommit()) {
+            event.cause = cause;
+            event.stall = duration;
+            event.commit();
+        }
+    }
+
+    public static void inputLatency(long submittedNanos) {
+        long latency = System.nanoTime() - submittedNanos;
+        INPUT_LATENCY.record(latency);
+        InputLatencyEvent event = new InputLatencyEvent();
+        if (event.shouldCommit()) {
+            event.latency = latency;
+            event.commit();
+        }
+    }
+
+    public static void journalWrite(int recordType, long startNanos) {
+        long duration = System.nanoTime() - startNanos;
+        JOURNAL_WRITE.record(duration);
+        JournalWriteEvent event = new JournalWriteEvent();
+        if (event.shouldCommit()) {
+            event.recordType = recordType;
+            event.write = duration;
+            event.commit();
+        }
+    }
+
+    public static void broadcastSend(long offeredNanos, int bytes) {
+        long latency = System.nanoTime() - offeredNanos;
+        BROADCAST_SEND.record(latency);
+        BroadcastSendEvent event = new BroadcastSendEvent();
+        if (event.shouldCommit()) {
+            event.bytes = bytes;
+            event.latency = latency;
+            event.commit();
+        }
+    }
+
+    public static void renderPulse(long startNanos, long intervalNanos) {
+        RENDER_PULSE.record(System.nanoTime() - startNanos);
+        if (intervalNanos > 0) {
+            PULSE_INTERVAL.record(intervalNanos);
+            if (intervalNanos > STALL_THRESHOLD_NANOS) {
+                fxStall("Late pulse", System.nanoTime() - intervalNanos);
+            }
+        }
+    }
+
+    // Plain text table of all histograms, in microseconds
+    public static String summary() {
+        StringBuilder text = new StringBuilder("metric              count     mean      p50      p99      max  (us)\n");
+        append(text, "tick jitter", TICK_JITTER);
+        append(text, "fx stall", FX_STALL);
+        append(text, "input latency", INPUT_LATENCY);
+        append(text, "journal write", JOURNAL_WRITE);
+        append(text, "broadcast send", BROADCAST_SEND);
+        append(text, "render pulse", RENDER_PULSE);
+        append(text, "pulse interval", PULSE_INTERVAL);
+        return text.toString();
+    }
+
+    private static void append(StringBuilder text, String name, LatencyHistogram histogram) {
+        text.append(String.format("%-16s %8d %8d %8d %8d %8d%n", name, histogram.count(),
+                histogram.meanNanos() / 1000, histogram.percentileNanos(50) / 1000,
+                histogram.percentileNanos(99) / 1000, histogram.maxNanos() / 1000));
+    }
+
+    @Name("com.example.scoreboard.ClockTick")
+    @Label("Clock Tick")
+    @Category("Scoreboard")
+    @Description("Engine writer woke up for a clock tick")
+    @StackTrace(false)
+    static class ClockTickEvent extends Event {
+        @Label("Jitter")
+        @Timespan
+        long jitter;
+    }
+
+    @Name("com.example.scoreboard.FxStall")
+    @Label("FX Thread Stall")
+    @Category("Scoreboard")
+    @StackTrace(false)
+    static class FxStallEvent extends Event {
+        @Label("Cause")
+        String cause;
+
+        @Label("Stall")
+        @Timespan
+        long stall;
+    }
+
+    @Name("com.example.scoreboard.InputLatency")
+    @Label("Input To Display Latency")
+    @Category("Scoreboard")
+    @StackTrace(false)
+    static class InputLatencyEvent extends Event {
+        @Label("Latency")
+        @Timespan
+        long latency;
+    }
+
+    @Name("com.example.scoreboard.JournalWrite")
+    @Label("Journal Write")
+    @Category("Scoreboard")
+    @StackTrace(false)
+    static class JournalWriteEvent extends Event {
+        @Label("Record Type")
+        int recordType;
+
+        @Label("Write")
+        @Timespan
+        long write;
+    }
+
+    @Name("com.example.scoreboard.BroadcastSend")
+    @Label("Broadcast Send")
+    @Category("Scoreboard")
+    @StackTrace(false)
+    static class BroadcastSendEvent extends Event {
+        @Label("Bytes")
+        int bytes;
+
+        @Label("Latency")
+        @Timespan
+        long latency;
+    }
+}
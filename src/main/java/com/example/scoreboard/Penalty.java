@@ -0,0 +1,31 @@
+package com.example.scoreboard;
+
+// One penalty as published in a GameSnapshot. Times are master game time: nanoseconds of
+// game clock elapsed since the start of the game, across all periods. A stacked penalty
+// waits (startNanos -1) until one of the team's running penalties ends.
+public record Penalty(int id, boolean home, int player, int minutes, long startNanos, long endNanos) {
+    public static final int MINOR = 2;
+    public static final int MAJOR = 5;
+    public static final int MISCONDUCT = 10;
+
+    public boolean waiting() {
+        return startNanos < 0;
+    }
+
+    public long durationNanos() {
+        return GameClock.toNanos(minutes, 0);
+    }
+
+    // A misconduct sends the player off without leaving the team short-handed
+    public boolean affectsStrength() {
+        return minutes != MISCONDUCT;
+    }
+
+    public long remainingNanos(long gameTimeNanos) {
+        return waiting() ? durationNanos() : Math.max(0, endNanos - gameTimeNanos);
+    }
+
+    Penalty startAt(long gameTimeNanos) {
+        return new Penalty(id, home, player, minutes, gameTimeNanos, gameTimeNanos + durationNanos());
+    }
+}
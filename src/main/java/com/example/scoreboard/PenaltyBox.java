@@ -0,0 +1,210 @@
+package com.example.scoreboard;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+// Penalties of both teams, owned by the engine's writer. There are no penalty timers: every
+// running penalty has a fixed end in master game time, so all of them stop, start and count
+// down exactly with the game clock. Running penalties are kept ordered by their end, which
+// makes finding and removing the next one to expire, or the minor released by a power-play
+// goal, O(log n).
+//
+// Rules: a team serves at most two penalties that leave it short-handed at once, further
+// ones wait and start when one of those ends. Misconducts always run. A goal scored on the
+// power play releases the short-handed team's minor that would end first; removing that goal
+// again puts the minor back as if it had never been released.
+public class PenaltyBox {
+    static final int MAX_SHORT_HANDED = 2;
+
+    private static final Comparator<Penalty> BY_END =
+            Comparator.comparingLong(Penalty::endNanos).thenComparingInt(Penalty::id);
+
+    private final TreeSet<Penalty> running = new TreeSet<>(BY_END);
+    private final List<TreeSet<Penalty>> runningMinors = List.of(new TreeSet<>(BY_END), new TreeSet<>(BY_END));
+    private final List<ArrayDeque<Penalty>> waiting = List.of(new ArrayDeque<>(), new ArrayDeque<>());
+    private final List<ArrayDeque<Release>> releases = List.of(new ArrayDeque<>(), new ArrayDeque<>()); // per scoring team, one per goal
+    private final int[] shortHanded = new int[2];
+    private long periodStartNanos;
+    private int nextId = 1;
+    private List<Penalty> published = List.of();
+
+    // What a goal did to the penalties: the minor it released and the waiting penalty that
+    // started in its place, either null
+    private record Release(Penalty released, Penalty started) {
+        static final Release NONE = new Release(null, null);
+    }
+
+    // Master game time for a reading of the current period's clock
+    public long gameTime(long periodClockNanos) {
+        return periodStartNanos + periodClockNanos;
+    }
+
+    public void endPeriod(long periodNanos) {
+        periodStartNanos += periodNanos;
+    }
+
+    public Penalty add(boolean home, int player, int minutes, long gameTimeNanos) {
+        Penalty penalty = new Penalty(nextId++, home, player, minutes, -1, -1);
+        if (!penalty.affectsStrength() || shortHanded[team(home)] < MAX_SHORT_HANDED) {
+            start(penalty, gameTimeNanos);
+        } else {
+            waiting.get(team(home)).addLast(penalty);
+        }
+        published = null;
+        return penalty;
+    }
+
+    // Ends every penalty whose time is up, starting waiting penalties at the exact moment the
+    // penalty they waited for ended. Returns whether anything changed.
+    public boolean expire(long gameTimeNanos) {
+        boolean changed = false;
+        while (!running.isEmpty() && running.first().endNanos() <= gameTimeNanos) {
+            Penalty ended = running.pollFirst();
+            remove(ended);
+            startWaiting(ended.home(), ended.endNanos());
+            changed = true;
+        }
+        if (changed) {
+            published = null;
+        }
+        return changed;
+    }
+
+    // Called for every goal; returns the released penalty, or null if the goal was not scored on a power play
+    public Penalty releaseOnGoal(boolean scoringHome, long gameTimeNanos) {
+        ArrayDeque<Release> goals = releases.get(team(scoringHome));
+        int shortTeam = team(!scoringHome);
+        if (shortHanded[shortTeam] <= shortHanded[team(scoringHome)]) {
+            goals.addLast(Release.NONE);
+            return null;
+        }
+        Penalty released = runningMinors.get(shortTeam).pollFirst();
+        if (released == null) {
+            goals.addLast(Release.NONE);
+            return null; // only majors, they are served in full
+        }
+        running.remove(released);
+        shortHanded[shortTeam]--;
+        ArrayDeque<Penalty> queue = waiting.get(shortTeam);
+        Penalty next = queue.peekFirst();
+        startWaiting(released.home(), gameTimeNanos);
+        Penalty started = next != null && queue.peekFirst() != next ? next.startAt(gameTimeNanos) : null;
+        goals.addLast(new Release(released, started));
+        published = null;
+        return released;
+    }
+
+    // Called for every goal taken back, the team's last one; undoes its release, if any. The
+    // minor runs on to its old end, unless that has passed, and a penalty that started in its
+    // place waits again. Returns the minor put back, or null.
+    public Penalty restoreOnGoalRemoved(boolean scoringHome, long gameTimeNanos) {
+        Release release = releases.get(team(scoringHome)).pollLast();
+        if (release == null || release.released() == null) {
+            return null;
+        }
+        Penalty released = release.released();
+        int shortTeam = team(released.home());
+        Penalty started = release.started();
+        if (started != null && running.remove(started)) {
+            remove(started);
+            waiting.get(shortTeam).addFirst(new Penalty(started.id(), started.home(), started.player(),
+                    started.minutes(), -1, -1));
+        }
+        published = null;
+        if (released.endNanos() <= gameTimeNanos) {
+            // Served in full by now; the waiting penalty starts when the minor would have ended
+            startWaiting(released.home(), released.endNanos());
+            expire(gameTimeNanos);
+            return null;
+        }
+        running.add(released);
+        runningMinors.get(shortTeam).add(released);
+        shortHanded[shortTeam]++;
+        return released;
+    }
+
+    public boolean isPowerPlay(boolean home) {
+        return shortHanded[team(home)] < shortHanded[team(!home)];
+    }
+
+    // Skaters of the team minus the opponent's: 1 on a power play, -1 short-handed
+    public int advantage(boolean home) {
+        return shortHanded[team(!home)] - shortHanded[team(home)];
+    }
+
+    // Immutable list for snapshots: running penalties by end, then waiting ones in order;
+    // the same instance is returned until something changes
+    public List<Penalty> penalties() {
+        if (published == null) {
+            List<Penalty> all = new ArrayList<>(running);
+            all.addAll(waiting.get(0));
+            all.addAll(waiting.get(1));
+            published = List.copyOf(all);
+        }
+        return published;
+    }
+
+    public void reset() {
+        running.clear();
+        runningMinors.forEach(TreeSet::clear);
+        waiting.forEach(ArrayDeque::clear);
+        releases.forEach(ArrayDeque::clear);
+        shortHanded[0] = 0;
+        shortHanded[1] = 0;
+        periodStartNanos = 0;
+        nextId = 1;
+        published = List.of();
+    }
+
+    // Makes this box the same as other; penalties are immutable, so only the collections are copied
+    public void copyFrom(PenaltyBox other) {
+        running.clear();
+        running.addAll(other.running);
+        for (int team = 0; team < 2; team++) {
+            runningMinors.get(team).clear();
+            runningMinors.get(team).addAll(other.runningMinors.get(team));
+            waiting.get(team).clear();
+            waiting.get(team).addAll(other.waiting.get(team));
+            releases.get(team).clear();
+            releases.get(team).addAll(other.releases.get(team));
+            shortHanded[team] = other.shortHanded[team];
+        }
+        periodStartNanos = other.periodStartNanos;
+        nextId = other.nextId;
+        published = null;
+    }
+
+    private void start(Penalty penalty, long gameTimeNanos) {
+        Penalty started = penalty.startAt(gameTimeNanos);
+        running.add(started);
+        if (started.affectsStrength()) {
+            shortHanded[team(started.home())]++;
+        }
+        if (started.minutes() == Penalty.MINOR) {
+            runningMinors.get(team(started.home())).add(started);
+        }
+    }
+
+    private void remove(Penalty ended) {
+        if (ended.affectsStrength()) {
+            shortHanded[team(ended.home())]--;
+        }
+        if (ended.minutes() == Penalty.MINOR) {
+            runningMinors.get(team(ended.home())).remove(ended);
+        }
+    }
+
+    private void startWaiting(boolean home, long gameTimeNanos) {
+        ArrayDeque<Penalty> queue = waiting.get(team(home));
+        while (!queue.isEmpty() && shortHanded[team(home)] < MAX_SHORT_HANDED) {
+            start(queue.pollFirst(), gameTimeNanos);
+        }
+    }
+
+    private static int team(boolean home) {
+        return home ? 0 : 1;
+    }
+}
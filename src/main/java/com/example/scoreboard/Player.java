@@ -0,0 +1,39 @@
+package com.example.scoreboard;
+
+import javafx.beans.property.SimpleStringProperty;
+
+public class Player {
+    private final SimpleStringProperty number;
+    private final SimpleStringProperty name;
+    private final SimpleStringProperty position;
+
+    public Player(String number, String name, String position) {
+        this.number = new SimpleStringProperty(number);
+        this.name = new SimpleStringProperty(name);
+        this.position = new SimpleStringProperty(position);
+    }
+
+    public String getNumber() {
+        return number.get();
+    }
+
+    public String getName() {
+        return name.get();
+    }
+
+    public String getPosition() {
+        return position.get();
+    }
+
+    public SimpleStringProperty numberProperty() {
+        return number;
+    }
+
+    public SimpleStringProperty nameProperty() {
+        return name;
+    }
+
+    public SimpleStringProperty positionProperty() {
+        return position;
+    }
+}
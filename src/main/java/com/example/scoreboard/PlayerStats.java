@@ -0,0 +1,130 @@
+package com.example.scoreboard;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Box score of the current game: goals, assists, penalty minutes and shots per team, jersey
+// number and period, in one flat int array indexed by
+//   ((team * NUMBERS + number) * PERIODS + period - 1) * STATS + stat
+// so every event is a single O(1) increment and the size never depends on the number of
+// events. Jersey number 0 stands for events not attributed to a player.
+// Only the engine's writer changes the counters; any thread may read them.
+public class PlayerStats {
+    public static final int GOALS = 0;
+    public static final int ASSISTS = 1;
+    public static final int PENALTY_MINUTES = 2;
+    public static final int SHOTS = 3;
+    public static final int STATS = 4;
+    public static final int NUMBERS = 100;
+    static final int PERIODS = GameState.PERIODS.length;
+
+    private final AtomicIntegerArray counters = new AtomicIntegerArray(2 * NUMBERS * PERIODS * STATS);
+    // Goals of each team in order, packed as in GameJournal, so a removed goal can be taken back
+    private final int[][] goals = {new int[16], new int[16]};
+    private final int[] goalCount = new int[2];
+    private final int[] teams = {-1, -1};
+
+    public static boolean isValidNumber(int number) {
+        return number >= 0 && number < NUMBERS;
+    }
+
+    // Scorer and assists packed into one int, one byte each
+    public static int packGoal(int scorer, int assist, int secondAssist) {
+        return scorer | assist << 8 | secondAssist << 16;
+    }
+
+    public void goal(boolean home, int period, int packedPlayers) {
+        int team = team(home);
+        if (goalCount[team] == goals[team].length) {
+            goals[team] = Arrays.copyOf(goals[team], goalCount[team] * 2);
+        }
+        goals[team][goalCount[team]++] = packedPlayers | period << 24;
+        countGoal(home, period, packedPlayers, 1);
+    }
+
+    // Takes back the team's last goal; returns false if it has none
+    public boolean removeGoal(boolean home) {
+        int team = team(home);
+        if (goalCount[team] == 0) {
+            return false;
+        }
+        int goal = goals[team][--goalCount[team]];
+        countGoal(home, goal >>> 24, goal & 0xFFFFFF, -1);
+        return true;
+    }
+
+    private void countGoal(boolean home, int period, int packedPlayers, int delta) {
+        add(home, packedPlayers & 0xFF, period, GOALS, delta);
+        int assist = packedPlayers >>> 8 & 0xFF;
+        int secondAssist = packedPlayers >>> 16 & 0xFF;
+        if (assist != 0) {
+            add(home, assist, period, ASSISTS, delta);
+        }
+        if (secondAssist != 0) {
+            add(home, secondAssist, period, ASSISTS, delta);
+        }
+    }
+
+    public void add(boolean home, int number, int period, int stat, int amount) {
+        int index = index(team(home), number, period, stat);
+        counters.setRelease(index, counters.getPlain(index) + amount);
+    }
+
+    public int get(boolean home, int number, int period, int stat) {
+        return counters.getAcquire(index(team(home), number, period, stat));
+    }
+
+    // Whole game total
+    public int get(boolean home, int number, int stat) {
+        int total = 0;
+        for (int period = 1; period <= PERIODS; period++) {
+            total += get(home, number, period, stat);
+        }
+        return total;
+    }
+
+    // Roster index of the team playing on the given side, -1 if none was chosen
+    public int teamIndex(boolean home) {
+        return teams[team(home)];
+    }
+
+    public void setTeam(boolean home, int teamIndex) {
+        teams[team(home)] = teamIndex;
+    }
+
+    // Adds this game to the season totals of both teams; sides without a team are skipped
+    public void addTo(SeasonStats season) {
+        for (boolean home : new boolean[]{true, false}) {
+            int teamIndex = teamIndex(home);
+            if (teamIndex < 0) {
+                continue;
+            }
+            season.addGamePlayed(teamIndex);
+            for (int number = 0; number < NUMBERS; number++) {
+                for (int stat = 0; stat < STATS; stat++) {
+                    int total = get(home, number, stat);
+                    if (total != 0) {
+                        season.add(teamIndex, number, stat, total);
+                    }
+                }
+            }
+        }
+    }
+
+    // Clears the counters for a new game, the teams stay
+    public void reset() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.setRelease(i, 0);
+        }
+        goalCount[0] = 0;
+        goalCount[1] = 0;
+    }
+
+    private static int index(int team, int number, int period, int stat) {
+        return ((team * NUMBERS + number) * PERIODS + period - 1) * STATS + stat;
+    }
+
+    private static int team(boolean home) {
+        return home ? 0 : 1;
+    }
+}
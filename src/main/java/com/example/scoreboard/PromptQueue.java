@@ -0,0 +1,152 @@
+package com.example.scoreboard;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.Border;
+import javafx.scene.layout.BorderStroke;
+import javafx.scene.layout.BorderStrokeStyle;
+import javafx.scene.layout.BorderWidths;
+import javafx.scene.layout.CornerRadii;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+// Operator notices and confirmations shown one at a time in a non-modal panel over the board.
+// Nothing waits for the answer: the FX thread keeps rendering and handling the other buttons
+// and keys while a prompt is open, and further prompts queue up behind it. Enter confirms the
+// prompt on top, Escape dismisses it. Prompts carry a key so the same question is never queued
+// twice, e.g. when a timeout button is clicked again.
+public class PromptQueue {
+    private record Prompt(String key, String message, Runnable onConfirm) {
+    }
+
+    private final ArrayDeque<Prompt> pending = new ArrayDeque<>();
+    private final VBox panel;
+    private final Label messageLabel = new Label();
+    private final Label queuedLabel = new Label();
+    private final Button confirmButton = new Button();
+    private final Button dismissButton = new Button();
+
+    public PromptQueue() {
+        confirmButton.setOnAction(event -> confirm());
+        dismissButton.setOnAction(event -> dismiss());
+        // Keys are handled by handleKey, the buttons must not take focus away from the board
+        confirmButton.setFocusTraversable(false);
+        dismissButton.setFocusTraversable(false);
+        messageLabel.setWrapText(true);
+
+        HBox buttons = new HBox(10, confirmButton, dismissButton);
+        buttons.setAlignment(Pos.CENTER);
+        panel = new VBox(8, messageLabel, buttons, queuedLabel);
+        panel.setAlignment(Pos.CENTER);
+        panel.setPadding(new Insets(10));
+        panel.setMaxSize(Region.USE_PREF_SIZE, Region.USE_PREF_SIZE);
+        panel.setBackground(new Background(new BackgroundFill(Color.rgb(255, 255, 224), new CornerRadii(5), Insets.EMPTY)));
+        panel.setBorder(new Border(new BorderStroke(Color.BLACK, BorderStrokeStyle.SOLID, new CornerRadii(5), BorderWidths.DEFAULT)));
+        panel.setVisible(false);
+    }
+
+    // The panel to place over the board, e.g. in a StackPane
+    public Node node() {
+        return panel;
+    }
+
+    // Information the operator only has to acknowledge
+    public void notify(String key, String message) {
+        enqueue(new Prompt(key, message, null));
+    }
+
+    // Question that runs onConfirm if the operator confirms; dismissing it does nothing
+    public void confirm(String key, String message, Runnable onConfirm) {
+        enqueue(new Prompt(key, message, onConfirm));
+    }
+
+    // Withdraws a prompt that no longer applies, whether it is showing or still queued
+    public void cancel(String key) {
+        Prompt current = pending.peekFirst();
+        for (Iterator<Prompt> it = pending.iterator(); it.hasNext(); ) {
+            if (it.next().key().equals(key)) {
+                it.remove();
+            }
+        }
+        if (current != pending.peekFirst()) {
+            show();
+        }
+    }
+
+    // Enter confirms and Escape dismisses the prompt on top; returns whether the key was used
+    public boolean handleKey(KeyEvent event) {
+        if (pending.isEmpty()) {
+            return false;
+        }
+        if (event.getCode() == KeyCode.ENTER) {
+            confirm();
+            return true;
+        }
+        if (event.getCode() == KeyCode.ESCAPE) {
+            dismiss();
+            return true;
+        }
+        return false;
+    }
+
+    private void enqueue(Prompt prompt) {
+        for (Prompt queued : pending) {
+            if (queued.key().equals(prompt.key())) {
+                return;
+            }
+        }
+        pending.addLast(prompt);
+        if (pending.size() == 1) {
+            show();
+        } else {
+            updateQueued();
+        }
+    }
+
+    private void confirm() {
+        Prompt prompt = pending.pollFirst();
+        if (prompt != null && prompt.onConfirm() != null) {
+            prompt.onConfirm().run();
+        }
+        show();
+    }
+
+    private void dismiss() {
+        pending.pollFirst();
+        show();
+    }
+
+    private void show() {
+        Prompt prompt = pending.peekFirst();
+        panel.setVisible(prompt != null);
+        if (prompt == null) {
+            return;
+        }
+        messageLabel.setText(prompt.message());
+        boolean question = prompt.onConfirm() != null;
+        confirmButton.setText(question ? "Yes (Enter)" : "OK (Enter)");
+        dismissButton.setText("No (Esc)");
+        dismissButton.setVisible(question);
+        dismissButton.setManaged(question);
+        updateQueued();
+    }
+
+    private void updateQueued() {
+        int queued = pending.size() - 1;
+        queuedLabel.setText(queued > 0 ? queued + " more waiting" : "");
+        queuedLabel.setVisible(queued > 0);
+        queuedLabel.setManaged(queued > 0);
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.scoreboard;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Operator console side of RemoteControlServer. send() waits for the acknowledgement; submit()
+// and await() let a console keep several commands in flight. Commands not acknowledged when the
+// connection broke are sent again with their sequence by reconnect(), so the server applies
+// each of them at most once.
+//
+// Also runs as a line based console for a timekeeper, penalty-box official or scorer:
+//   java ... com.example.scoreboard.RemoteConsole host:port console-id
+// with commands like "start", "stop", "goal home 9 10 11", "penalty away 4 2", "period +".
+public class RemoteConsole implements AutoCloseable {
+    // order is the command's place in the engine's queue; an accepted command is queued, and
+    // applied when the engine's writer next steps
+    public record Ack(int sequence, int status, long order, long roundTripNanos) {
+        public boolean accepted() {
+            return status == RemoteControlServer.ACCEPTED;
+        }
+    }
+
+    private final InetSocketAddress server;
+    private final int consoleId;
+    private final ByteBuffer response = ByteBuffer.allocate(RemoteControlServer.RESPONSE_SIZE);
+    private final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>(); // sent, not acknowledged yet
+    private final ArrayDeque<Long> sentNanos = new ArrayDeque<>();
+    private SocketChannel channel;
+    private int sequence; // last one used
+
+    public RemoteConsole(InetSocketAddress server, int consoleId) throws IOException {
+        this.server = server;
+        this.consoleId = consoleId;
+        connect();
+    }
+
+    private void connect() throws IOException {
+        channel = SocketChannel.open(server);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        write(frame(RemoteControlServer.HELLO, 0, consoleId, false, 0, 0, 0));
+        ByteBuffer welcome = readResponse();
+        // Continues after what the server already has, e.g. from an earlier run of this console
+        sequence = Math.max(sequence, welcome.getInt(4));
+    }
+
+    public Ack clockStart() throws IOException {
+        return send(Command.Type.CLOCK_START, false, 0, 0, 0);
+    }
+
+    public Ack clockStop() throws IOException {
+        return send(Command.Type.CLOCK_STOP, false, 0, 0, 0);
+    }
+
+    public Ack goal(boolean home, int scorer, int assist, int secondAssist) throws IOException {
+        return send(Command.Type.GOAL, home, scorer, assist, secondAssist);
+    }
+
+    public Ack removeGoal(boolean home) throws IOException {
+        return send(Command.Type.GOAL_REMOVED, home, 0, 0, 0);
+    }
+
+    public Ack nextPeriod() throws IOException {
+        return send(Command.Type.PERIOD_NEXT, false, 0, 0, 0);
+    }
+
+    public Ack previousPeriod() throws IOException {
+        return send(Command.Type.PERIOD_PREVIOUS, false, 0, 0, 0);
+    }
+
+    public Ack timeout(boolean home) throws IOException {
+        return send(Command.Type.TIMEOUT, home, 0, 0, 0);
+    }
+
+    public Ack penalty(boolean home, int player, int minutes) throws IOException {
+        return send(Command.Type.PENALTY, home, player, minutes, 0);
+    }
+
+    public Ack shot(boolean home, int player) throws IOException {
+        return send(Command.Type.SHOT, home, player, 0, 0);
+    }
+
+    public Ack send(Command.Type type, boolean home, int player, int arg, int secondArg) throws IOException {
+        return await(submit(type, home, player, arg, secondArg));
+    }
+
+    // Sends a command without waiting and returns its sequence
+    public int submit(Command.Type type, boolean home, int player, int arg, int secondArg) throws IOException {
+        int code = Arrays.asList(RemoteControlServer.COMMANDS).indexOf(type);
+        if (code < 0) {
+            throw new IllegalArgumentException("Not a remote command: " + type);
+        }
+        // Each travels in one byte; a wider value would reach the board as another number
+        jersey(player);
+        if (type == Command.Type.GOAL) {
+            jersey(arg);
+            jersey(secondArg);
+        } else if (arg < 0 || arg > 255 || secondArg < 0 || secondArg > 255) {
+            throw new IllegalArgumentException("Argument out of range 0 to 255: " + arg + ", " + secondArg);
+        }
+        ByteBuffer frame = frame(RemoteControlServer.COMMAND, code, ++sequence, home, player, arg, secondArg);
+        pending.addLast(frame);
+        sentNanos.addLast(System.nanoTime());
+        write(frame.duplicate());
+        return sequence;
+    }
+
+    // Reads acknowledgements up to the one of sequence, which the server sends in order
+    public Ack await(int sequence) throws IOException {
+        while (true) {
+            ByteBuffer ack = readResponse();
+            long now = System.nanoTime();
+            if (ack.get(2) != RemoteControlServer.ACK || pending.isEmpty()) {
+                throw new IOException("Unexpected response");
+            }
+            pending.removeFirst();
+            Ack result = new Ack(ack.getInt(4), ack.get(3), ack.getLong(8), now - sentNanos.removeFirst());
+            if (result.sequence() == sequence) {
+                return result;
+            }
+        }
+    }
+
+    // Connects again and sends the commands that were not acknowledged; returns their acknowledgements
+    public List<Ack> reconnect() throws IOException {
+        channel.close();
+        connect();
+        List<Ack> acks = new ArrayList<>();
+        int count = pending.size();
+        for (int i = 0; i < count; i++) {
+            ByteBuffer frame = pending.removeFirst();
+            sentNanos.removeFirst();
+            pending.addLast(frame);
+            sentNanos.addLast(System.nanoTime());
+            write(frame.duplicate());
+        }
+        for (int i = 0; i < count; i++) {
+            acks.add(await(pending.peekFirst().getInt(4)));
+        }
+        return acks;
+    }
+
+    private static void jersey(int number) {
+        if (number < 0 || number > 99) {
+            throw new IllegalArgumentException("Jersey numbers are 0 to 99: " + number);
+        }
+    }
+
+    private static ByteBuffer frame(byte kind, int command, int number, boolean home, int player, int arg, int secondArg) {
+        return ByteBuffer.allocate(RemoteControlServer.REQUEST_SIZE)
+                .putShort(RemoteControlServer.MAGIC)
+                .put(kind)
+                .put((byte) command)
+                .putInt(number)
+                .put((byte) (home ? 1 : 0))
+                .put((byte) player)
+                .put((byte) arg)
+                .put((byte) secondArg)
+                .flip();
+    }
+
+    private void write(ByteBuffer frame) throws IOException {
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    private ByteBuffer readResponse() throws IOException {
+        response.clear();
+        while (response.hasRemaining()) {
+            if (channel.read(response) < 0) {
+                throw new EOFException("Scoreboard closed the connection");
+            }
+        }
+        if (response.getShort(0) != RemoteControlServer.MAGIC) {
+            throw new IOException("Not a remote control response");
+        }
+        return response;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: RemoteConsole host:port console-id");
+            System.exit(2);
+        }
+        String[] hostPort = args[0].split(":");
+        InetSocketAddress address = new InetSocketAddress(hostPort[0], Integer.parseInt(hostPort[1]));
+        try (RemoteConsole console = new RemoteConsole(address, Integer.parseInt(args[1]));
+             BufferedReader in = new BufferedReader(new InputStreamReader(System.in))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] words = line.trim().split("\\s+");
+                try {
+                    Ack ack = console.execute(words);
+                    if (ack == null) {
+                        System.out.println("Commands: start, stop, goal home|away [scorer [assist [assist]]], "
+                                + "ungoal home|away, period +|-, timeout home|away, penalty home|away player minutes, "
+                                + "shot home|away [player]");
+                        continue;
+                    }
+                    String status = switch (ack.status()) {
+                        case RemoteControlServer.ACCEPTED -> "accepted as #" + ack.order();
+                        case RemoteControlServer.DUPLICATE -> "already applied";
+                        default -> "rejected";
+                    };
+                    System.out.printf("%d %s in %d us%n", ack.sequence(), status, ack.roundTripNanos() / 1000);
+                } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                    System.out.println("Could not read the command: " + line);
+                } catch (IOException e) {
+                    System.out.println("Connection lost, reconnecting: " + e.getMessage());
+                    console.reconnect().forEach(ack -> System.out.println(ack.sequence() + " sent again"));
+                }
+            }
+        }
+    }
+
+    // One console line; null if it is not a command
+    private Ack execute(String[] words) throws IOException {
+        return switch (words[0].toLowerCase(Locale.ROOT)) {
+            case "start" -> clockStart();
+            case "stop" -> clockStop();
+            case "goal" -> goal(home(words), number(words, 2), number(words, 3), number(words, 4));
+            case "ungoal" -> removeGoal(home(words));
+            case "period" -> forward(words) ? nextPeriod() : previousPeriod();
+            case "timeout" -> timeout(home(words));
+            case "penalty" -> penalty(home(words), Integer.parseInt(words[2]), Integer.parseInt(words[3]));
+            case "shot" -> shot(home(words), number(words, 2));
+            default -> null;
+        };
+    }
+
+    // The side a command is for, its second word; a typo must not score for the other team
+    static boolean home(String[] words) {
+        String side = words.length > 1 ? words[1].toLowerCase(Locale.ROOT) : "";
+        return switch (side) {
+            case "home" -> true;
+            case "away" -> false;
+            default -> throw new IllegalArgumentException("home or away expected: '" + side + "'");
+        };
+    }
+
+    // The direction of a period command, "+" or "-"
+    static boolean forward(String[] words) {
+        String direction = words.length > 1 ? words[1] : "";
+        return switch (direction) {
+            case "+" -> true;
+            case "-" -> false;
+            default -> throw new IllegalArgumentException("+ or - expected: '" + direction + "'");
+        };
+    }
+
+    private static int number(String[] words, int index) {
+        return index < words.length ? Integer.parseInt(words[index]) : 0;
+    }
+}
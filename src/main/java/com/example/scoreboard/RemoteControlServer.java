@@ -0,0 +1,239 @@
+package com.example.scoreboard;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+// Binary command protocol over TCP for remote operator consoles, e.g. one each for the
+// timekeeper, the penalty-box official and the scorer. One NIO selector thread serves every
+// console. Commands from all of them go into the engine's queue in the order they arrive,
+// which is the one order they are applied in, and each is acknowledged with its place in it.
+// An ACCEPTED acknowledgement means the command is queued, not yet applied: the engine's writer
+// applies it on its next step, and the board shows it with the next snapshot.
+//
+// Every console has an id and numbers its commands 1, 2, 3... The server remembers the highest
+// sequence accepted per console id, so a command sent again after a lost acknowledgement or a
+// reconnect is acknowledged as a duplicate and not applied twice. There is no clock toggle:
+// start and stop say what the clock should do, so two consoles pressing at the same moment
+// agree instead of cancelling each other out.
+//
+// Frames, big endian:
+//   console to server, 12 bytes: u16 magic, u8 kind, u8 command,
+//     i32 console id for HELLO or sequence for COMMAND, u8 flags (bit 0 home), u8 player, u8 arg, u8 arg
+//   server to console, 16 bytes: u16 magic, u8 kind, u8 status, i32 sequence, i64 order
+// HELLO is answered with WELCOME, whose sequence is the highest one accepted from the console id.
+// The args are the assists of a goal and the minutes of a penalty.
+public class RemoteControlServer implements AutoCloseable {
+    static final short MAGIC = 0x5352;
+    static final int REQUEST_SIZE = 12;
+    static final int RESPONSE_SIZE = 16;
+
+    // Kinds
+    static final byte HELLO = 1;
+    static final byte COMMAND = 2;
+    static final byte WELCOME = 3;
+    static final byte ACK = 4;
+
+    // Statuses; ACCEPTED is sent once the command is queued
+    public static final int ACCEPTED = 0;
+    public static final int DUPLICATE = 1;
+    public static final int REJECTED = 2;
+
+    // Commands on the wire; the index is the code
+    static final Command.Type[] COMMANDS = {
+            Command.Type.CLOCK_START,
+            Command.Type.CLOCK_STOP,
+            Command.Type.GOAL,
+            Command.Type.GOAL_REMOVED,
+            Command.Type.PERIOD_NEXT,
+            Command.Type.PERIOD_PREVIOUS,
+            Command.Type.TIMEOUT,
+            Command.Type.PENALTY,
+            Command.Type.SHOT
+    };
+
+    // Acks a console has not read yet; a console this far behind is disconnected
+    private static final int MAX_PENDING_ACKS = 1024;
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final Map<Integer, int[]> lastSequences = new HashMap<>(); // per console id, selector thread only
+    private final Thread thread;
+    private ScoreboardEngine engine;
+    private long order;
+    private volatile boolean running = true;
+
+    // Per connection state, attached to its selection key
+    private static final class Connection {
+        final ByteBuffer in = ByteBuffer.allocate(REQUEST_SIZE * 64);
+        final ByteBuffer out = ByteBuffer.allocate(RESPONSE_SIZE * MAX_PENDING_ACKS);
+        int[] lastSequence; // set by HELLO
+    }
+
+    public RemoteControlServer(InetSocketAddress address) throws IOException {
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open().bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.thread = new Thread(this::run, "scoreboard-remote");
+        thread.setDaemon(true);
+    }
+
+    public void attach(ScoreboardEngine engine) {
+        this.engine = engine;
+        thread.start();
+    }
+
+    public int port() {
+        return server.socket().getLocalPort();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            if (key.isReadable()) {
+                                read(key);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                flush(key);
+                            }
+                        }
+                    } catch (IOException e) {
+                        // Console went away; its commands so far stay applied
+                        key.cancel();
+                        key.channel().close();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Remote control stopped: " + e.getMessage());
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        // Acks are tiny and must go out at once
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.register(selector, SelectionKey.OP_READ, new Connection());
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        SocketChannel channel = (SocketChannel) key.channel();
+        if (channel.read(connection.in) < 0) {
+            throw new IOException("closed");
+        }
+        ByteBuffer in = connection.in.flip();
+        while (in.remaining() >= REQUEST_SIZE) {
+            handle(connection, in);
+        }
+        in.compact();
+        flush(key);
+    }
+
+    private void handle(Connection connection, ByteBuffer in) throws IOException {
+        int at = in.position();
+        in.position(at + REQUEST_SIZE);
+        if (in.getShort(at) != MAGIC) {
+            throw new IOException("Not a remote control frame");
+        }
+        byte kind = in.get(at + 2);
+        int command = in.get(at + 3);
+        int number = in.getInt(at + 4);
+        if (kind == HELLO) {
+            connection.lastSequence = lastSequences.computeIfAbsent(number, id -> new int[1]);
+            respond(connection, WELCOME, ACCEPTED, connection.lastSequence[0], order);
+            return;
+        }
+        if (kind != COMMAND || connection.lastSequence == null || command < 0 || command >= COMMANDS.length) {
+            respond(connection, ACK, REJECTED, number, -1);
+            return;
+        }
+        if (number <= connection.lastSequence[0]) {
+            respond(connection, ACK, DUPLICATE, number, -1);
+            return;
+        }
+        connection.lastSequence[0] = number;
+        boolean home = (in.get(at + 8) & 1) == 1;
+        int player = Byte.toUnsignedInt(in.get(at + 9));
+        int arg = Byte.toUnsignedInt(in.get(at + 10));
+        int secondArg = Byte.toUnsignedInt(in.get(at + 11));
+        engine.submit(switch (COMMANDS[command]) {
+            case GOAL -> Command.goal(home, player, arg, secondArg);
+            case PENALTY -> Command.penalty(home, player, arg);
+            case SHOT -> Command.shot(home, player);
+            default -> Command.of(COMMANDS[command], home);
+        });
+        respond(connection, ACK, ACCEPTED, number, ++order);
+    }
+
+    private static void respond(Connection connection, byte kind, int status, int sequence, long order) throws IOException {
+        if (connection.out.remaining() < RESPONSE_SIZE) {
+            throw new IOException("Console does not read its acknowledgements");
+        }
+        connection.out.putShort(MAGIC).put(kind).put((byte) status).putInt(sequence).putLong(order);
+    }
+
+    // Writes what the socket takes now and waits for it to take the rest
+    private static void flush(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        connection.out.flip();
+        ((SocketChannel) key.channel()).write(connection.out);
+        connection.out.compact();
+        key.interestOps(connection.out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    // Closes the listening socket and every console connection
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (thread.isAlive()) {
+            selector.wakeup();
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            closeAll();
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package com.example.scoreboard;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+// Bulk roster import and export as CSV, one player per line:
+//   team,number,name,position
+// with an optional header line. Fields may be quoted, "" is a quote inside a quoted field.
+//
+// Lines are parsed by hand in one pass, without regexes or copies of whole lines, and handled
+// in chunks: while one chunk is parsed the previous one is validated on the common fork/join
+// pool. Imported players go straight into encoded roster records. Whenever SPILL_SIZE bytes of
+// them are held, every team's players so far are spilled to a temporary file next to the roster
+// as one block chained to the team's previous block, and the blocks are copied into the roster
+// file when it is saved. Only the first MAX_ERRORS errors are kept, so memory depends on the
+// chunk size and the number of teams, never on the number of lines. Rows with errors are
+// skipped and reported with their line.
+public final class RosterCsv {
+    public static final int MAX_ERRORS = 100;
+
+    static final int CHUNK_SIZE = 8192;
+    static final int MAX_FIELD_LENGTH = 200;
+    static final int SPILL_SIZE = 1 << 20;
+
+    private static final String HEADER = "team,number,name,position";
+    private static final int FIELDS = 4;
+    private static final int MAX_PLAYERS = 0xFFFF; // player count is a u16 in the roster file
+    private static final int SPILL_HEADER_SIZE = 12; // long position of the previous block, int length
+
+    public record Error(long line, String message) {
+    }
+
+    // errors holds the first MAX_ERRORS of errorCount; roster is the roster reopened with the imported teams
+    public record ImportResult(RosterStore roster, int teams, int players, long rows, List<Error> errors, long errorCount) {
+    }
+
+    private RosterCsv() {
+    }
+
+    // Adds the teams in csv to the roster and saves it to rosterFile. Teams already in the
+    // roster are rejected rather than merged, so an import never changes existing teams.
+    public static ImportResult importRoster(Path csv, RosterStore roster, Path rosterFile) throws IOException {
+        return importRoster(csv, roster, rosterFile, SPILL_SIZE);
+    }
+
+    // Spills whenever spillSize bytes of players are held, small for tests
+    static ImportResult importRoster(Path csv, RosterStore roster, Path rosterFile, int spillSize) throws IOException {
+        try (Import state = new Import(roster, rosterFile.toAbsolutePath().getParent(), spillSize)) {
+            try (CsvReader reader = new CsvReader(new InputStreamReader(Files.newInputStream(csv), StandardCharsets.UTF_8))) {
+                Chunk chunk = Chunk.read(reader);
+                if (chunk.count > 0 && chunk.fields[0][0].trim().equalsIgnoreCase("team")) {
+                    chunk.skipFirst();
+                }
+                while (chunk.count > 0) {
+                    Chunk current = chunk;
+                    CompletableFuture<String[]> validated = CompletableFuture.supplyAsync(() -> state.validate(current));
+                    chunk = Chunk.read(reader);
+                    state.add(current, validated.join());
+                }
+            }
+            if (state.order.isEmpty()) {
+                return state.result(roster);
+            }
+            roster.save(rosterFile, state);
+            return state.result(RosterStore.open(rosterFile));
+        }
+    }
+
+    // Writes every player of the roster; teams that were never opened are not decoded. Returns the rows written.
+    public static long exportRoster(RosterStore roster, Path csv) throws IOException {
+        long[] rows = {0};
+        try (Writer out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.write('\n');
+            for (int i = 0; i < roster.size(); i++) {
+                String team = roster.teamName(i);
+                roster.forEachPlayer(i, (number, name, position) -> {
+                    writeField(out, team);
+                    out.write(',');
+                    writeField(out, number);
+                    out.write(',');
+                    writeField(out, name);
+                    out.write(',');
+                    writeField(out, position);
+                    out.write('\n');
+                    rows[0]++;
+                });
+            }
+        }
+        return rows[0];
+    }
+
+    private static void writeField(Writer out, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    // The imported teams in the order of their first valid row, as saved after the roster's own
+    private static final class Import implements RosterStore.EncodedTeams, Closeable {
+        private final RosterStore roster;
+        private final Path spillDirectory;
+        private final int spillSize;
+        private FileChannel spill; // blocks of players, opened with the first one
+        private long spillEnd;
+        private long held; // encoded players not spilled yet
+        private final Map<String, TeamImport> teams = new ConcurrentHashMap<>();
+        private final List<TeamImport> order = new ArrayList<>(); // teams by their first valid row
+        private final List<Error> errors = new ArrayList<>();
+        private long errorCount;
+        private long rows;
+        private int players;
+
+        Import(RosterStore roster, Path spillDirectory, int spillSize) {
+            this.roster = roster;
+            this.spillDirectory = spillDirectory;
+            this.spillSize = spillSize;
+        }
+
+        // Checks every row of the chunk in parallel; returns the error of each row, null if it is valid.
+        // Runs once per chunk and never alongside add, which only runs between validations.
+        String[] validate(Chunk chunk) {
+            String[] rowErrors = new String[chunk.count];
+            IntStream.range(0, chunk.count).parallel().forEach(i -> {
+                rowErrors[i] = checkFields(chunk.fields[i]);
+                if (rowErrors[i] == null) {
+                    // Remember the first line of every (team, number) to find duplicates below
+                    team(chunk.fields[i][0]).firstLines.accumulateAndGet(number(chunk.fields[i][1]), chunk.lines[i], Math::min);
+                }
+            });
+            IntStream.range(0, chunk.count).parallel().forEach(i -> {
+                if (rowErrors[i] == null) {
+                    String[] row = chunk.fields[i];
+                    int number = number(row[1]);
+                    long firstLine = team(row[0]).firstLines.get(number);
+                    if (firstLine != chunk.lines[i]) {
+                        rowErrors[i] = "jersey number " + number + " of team '" + row[0].trim() + "' is already used on line " + firstLine;
+                    }
+                }
+            });
+            return rowErrors;
+        }
+
+        private String checkFields(String[] row) {
+            if (row.length != FIELDS) {
+                return "expected " + FIELDS + " fields (" + HEADER + ") but found " + row.length;
+            }
+            for (String field : row) {
+                if (field.length() > MAX_FIELD_LENGTH) {
+                    return "field longer than " + MAX_FIELD_LENGTH + " characters";
+                }
+            }
+            if (row[0].isBlank()) {
+                return "team name is empty";
+            }
+            if (number(row[1]) < 0) {
+                return "jersey number must be 0 to 99: '" + row[1] + "'";
+            }
+            if (row[2].isBlank()) {
+                return "player name is empty";
+            }
+            String position = row[3].trim().toUpperCase(Locale.ROOT);
+            if (!position.equals("G") && !position.equals("F") && !position.equals("D")) {
+                return "position must be G, F or D: '" + row[3] + "'";
+            }
+            if (roster.hasTeam(row[0])) {
+                return "team '" + row[0].trim() + "' is already in the roster";
+            }
+            return null;
+        }
+
+        // Adds the valid rows of a validated chunk in line order and records the errors
+        void add(Chunk chunk, String[] rowErrors) throws IOException {
+            for (int i = 0; i < chunk.count; i++) {
+                rows++;
+                String[] row = chunk.fields[i];
+                String error = rowErrors[i];
+                TeamImport team = error == null ? team(row[0]) : null;
+                if (team != null && team.playerCount == MAX_PLAYERS) {
+                    error = "team '" + row[0].trim() + "' has more than " + MAX_PLAYERS + " players";
+                }
+                if (error != null) {
+                    if (errors.size() < MAX_ERRORS) {
+                        errors.add(new Error(chunk.lines[i], error));
+                    }
+                    errorCount++;
+                    continue;
+                }
+                if (team.playerCount == 0) {
+                    team.name = row[0].trim();
+                    order.add(team);
+                }
+                held += team.addPlayer(String.valueOf(number(row[1])), row[2].trim(), row[3].trim().toUpperCase(Locale.ROOT));
+                players++;
+                if (held >= spillSize) {
+                    for (TeamImport spilled : order) {
+                        spilled.spill(this);
+                    }
+                    held = 0;
+                }
+            }
+        }
+
+        private TeamImport team(String name) {
+            return teams.computeIfAbsent(name.trim().toLowerCase(Locale.ROOT), key -> new TeamImport());
+        }
+
+        ImportResult result(RosterStore imported) {
+            return new ImportResult(imported, order.size(), players, rows, List.copyOf(errors), errorCount);
+        }
+
+        @Override
+        public int size() {
+            return order.size();
+        }
+
+        @Override
+        public String name(int index) {
+            return order.get(index).name;
+        }
+
+        @Override
+        public int recordLength(int index) {
+            return 2 + order.get(index).length;
+        }
+
+        @Override
+        public void writeRecord(int index, DataOutputStream out) throws IOException {
+            order.get(index).write(out, this);
+        }
+
+        // Appends a block of players to the spill file; returns its position
+        long spill(long previous, ByteArrayOutputStream block) throws IOException {
+            if (spill == null) {
+                Files.createDirectories(spillDirectory);
+                Path file = Files.createTempFile(spillDirectory, "import", ".tmp");
+                spill = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            }
+            ByteBuffer data = ByteBuffer.allocate(SPILL_HEADER_SIZE + block.size())
+                    .putLong(previous).putInt(block.size()).put(block.toByteArray()).flip();
+            long position = spillEnd;
+            while (data.hasRemaining()) {
+                spillEnd += spill.write(data, spillEnd);
+            }
+            return position;
+        }
+
+        // Copies a team's spilled blocks to out in the order they were spilled; last is the
+        // position of its last block, -1 if none
+        void copySpilled(long last, DataOutputStream out) throws IOException {
+            long[] blocks = new long[16];
+            int count = 0;
+            ByteBuffer header = ByteBuffer.allocate(SPILL_HEADER_SIZE);
+            for (long position = last; position >= 0; position = read(header.clear(), position).getLong(0)) {
+                if (count == blocks.length) {
+                    blocks = Arrays.copyOf(blocks, count * 2);
+                }
+                blocks[count++] = position;
+            }
+            ByteBuffer block = ByteBuffer.allocate(0);
+            for (int i = count - 1; i >= 0; i--) {
+                int length = read(header.clear(), blocks[i]).getInt(8);
+                if (block.capacity() < length) {
+                    block = ByteBuffer.allocate(length);
+                }
+                read(block.clear().limit(length), blocks[i] + SPILL_HEADER_SIZE);
+                out.write(block.array(), 0, length);
+            }
+        }
+
+        // Fills the buffer from position on
+        private ByteBuffer read(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (spill.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Import spill file ended early");
+                }
+            }
+            return buffer;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (spill != null) {
+                spill.close();
+            }
+        }
+    }
+
+    // Jersey number 0 to 99 of one or two digits, surrounding spaces allowed; -1 if invalid
+    private static int number(String field) {
+        int start = 0;
+        int end = field.length();
+        while (start < end && field.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && field.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (end - start < 1 || end - start > 2) {
+            return -1;
+        }
+        int number = 0;
+        for (int i = start; i < end; i++) {
+            char c = field.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + c - '0';
+        }
+        return number;
+    }
+
+    // Players of one imported team, already encoded as in the roster file; the players not
+    // spilled yet are kept here
+    private static final class TeamImport {
+        final AtomicLongArray firstLines = new AtomicLongArray(PlayerStats.NUMBERS);
+        private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private DataOutputStream out = new DataOutputStream(bytes);
+        private long lastSpilled = -1; // position of the last spilled block
+        String name;
+        int playerCount;
+        int length; // encoded players, spilled or not
+
+        TeamImport() {
+            for (int i = 0; i < PlayerStats.NUMBERS; i++) {
+                firstLines.set(i, Long.MAX_VALUE);
+            }
+        }
+
+        // Returns the bytes the player was encoded in
+        int addPlayer(String number, String name, String position) throws IOException {
+            int added = 0;
+            for (String value : new String[]{number, name, position}) {
+                byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(encoded.length);
+                out.write(encoded);
+                added += 2 + encoded.length;
+            }
+            playerCount++;
+            length += added;
+            return added;
+        }
+
+        // A new buffer lets go of the old one's grown array
+        void spill(Import state) throws IOException {
+            if (bytes.size() > 0) {
+                lastSpilled = state.spill(lastSpilled, bytes);
+                bytes = new ByteArrayOutputStream();
+                out = new DataOutputStream(bytes);
+            }
+        }
+
+        // Writes the team's record: player count, then the players
+        void write(DataOutputStream record, Import state) throws IOException {
+            record.writeShort(playerCount);
+            state.copySpilled(lastSpilled, record);
+            bytes.writeTo(record);
+        }
+    }
+
+    // Up to CHUNK_SIZE rows with the line each starts on
+    private static final class Chunk {
+        final String[][] fields = new String[CHUNK_SIZE][];
+        final long[] lines = new long[CHUNK_SIZE];
+        int count;
+
+        static Chunk read(CsvReader reader) throws IOException {
+            Chunk chunk = new Chunk();
+            String[] row;
+            while (chunk.count < CHUNK_SIZE && (row = reader.next()) != null) {
+                if (row.length == 1 && row[0].isBlank()) {
+                    continue; // empty line
+                }
+                chunk.fields[chunk.count] = row;
+                chunk.lines[chunk.count++] = reader.rowLine();
+            }
+            return chunk;
+        }
+
+        void skipFirst() {
+            System.arraycopy(fields, 1, fields, 0, count - 1);
+            System.arraycopy(lines, 1, lines, 0, count - 1);
+            count--;
+        }
+    }
+
+    // Reads CSV rows from a character buffer; fields longer than MAX_FIELD_LENGTH are cut
+    // one character past the limit so that validation rejects them without holding them
+    private static final class CsvReader implements Closeable {
+        private final Reader in;
+        private final char[] buffer = new char[1 << 16];
+        private final StringBuilder field = new StringBuilder();
+        private final List<String> row = new ArrayList<>(FIELDS);
+        private int position;
+        private int limit;
+        private long line = 1;
+        private long rowLine;
+
+        CsvReader(Reader in) {
+            this.in = in;
+        }
+
+        // The next row, or null at the end of the input
+        String[] next() throws IOException {
+            row.clear();
+            field.setLength(0);
+            rowLine = line;
+            boolean quoted = false;
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            if (c == '\uFEFF' && rowLine == 1) {
+                c = read(); // byte order mark
+            }
+            for (; c != -1; c = read()) {
+                if (quoted) {
+                    if (c != '"') {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        append(c);
+                        continue;
+                    }
+                    c = read();
+                    if (c == '"') {
+                        append(c);
+                        continue;
+                    }
+                    quoted = false;
+                    if (c == -1) {
+                        break;
+                    }
+                }
+                if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    row.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    line++;
+                    break;
+                } else if (c != '\r') {
+                    append(c);
+                }
+            }
+            row.add(field.toString());
+            return row.toArray(new String[0]);
+        }
+
+        long rowLine() {
+            return rowLine;
+        }
+
+        private void append(int c) {
+            if (field.length() <= MAX_FIELD_LENGTH) {
+                field.append((char) c);
+            }
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
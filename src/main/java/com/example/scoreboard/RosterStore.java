@@ -0,0 +1,336 @@
+package com.example.scoreboard;
+
+import javafx.collections.ListChangeListener;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Teams and players saved between runs, with lookups by team name and by (team, jersey number).
+//
+// File layout (big endian):
+//   int magic, int version, int team count
+//   per team: int offset of its record, u16 name length, name bytes (UTF-8)
+//   team records: u16 player count, then per player three u16-length-prefixed UTF-8 strings:
+//   number, name, position
+// Opening reads the file into one buffer and only decodes the index; a team and its players
+// are decoded the first time they are accessed. The stored names and records never change
+// once opened, so they may be read from any thread; everything else belongs to the FX thread.
+public class RosterStore {
+    private static final int MAGIC = 0x53435231; // "SCR1"
+    private static final int VERSION = 1;
+
+    private final ByteBuffer data; // null for a new roster
+    private final int[] recordOffsets;
+    private final String[] names;
+    private final Team[] loaded;
+    private final List<Team> added = new ArrayList<>();
+    private final Map<String, Integer> teamsByName = new HashMap<>();
+    private final Map<Team, Map<String, Player>> playersByNumber = new HashMap<>();
+    private int[] editedTeams = new int[16]; // team of every edit of a team's players, in order
+    private int edits;
+    private final List<Team> teams = new AbstractList<>() {
+        @Override
+        public Team get(int index) {
+            return team(index);
+        }
+
+        @Override
+        public int size() {
+            return loaded.length + added.size();
+        }
+    };
+
+    private RosterStore(ByteBuffer data, int teamCount) {
+        this.data = data;
+        this.recordOffsets = new int[teamCount];
+        this.names = new String[teamCount];
+        this.loaded = new Team[teamCount];
+    }
+
+    public static RosterStore empty() {
+        return new RosterStore(null, 0);
+    }
+
+    // Loads the roster saved at file, or an empty roster if there is none yet
+    public static RosterStore open(Path file) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            data = ByteBuffer.allocate((int) channel.size());
+            while (data.hasRemaining() && channel.read(data) >= 0) {
+                // read the whole file
+            }
+        } catch (NoSuchFileException e) {
+            return empty();
+        }
+        data.flip();
+        if (data.remaining() < 12 || data.getInt() != MAGIC || data.getInt() != VERSION) {
+            throw new IOException("Not a roster file: " + file);
+        }
+        RosterStore store = new RosterStore(data, data.getInt());
+        for (int i = 0; i < store.recordOffsets.length; i++) {
+            store.recordOffsets[i] = data.getInt();
+            store.names[i] = readString(data);
+            store.teamsByName.put(key(store.names[i]), i);
+        }
+        return store;
+    }
+
+    public static Path defaultPath() {
+        return Path.of(System.getProperty("user.home"), ".scoreboard", "roster.bin");
+    }
+
+    // All teams in the order they were added; teams are decoded when first accessed
+    public List<Team> teams() {
+        return teams;
+    }
+
+    public int size() {
+        return teams.size();
+    }
+
+    public Team team(int index) {
+        if (index >= loaded.length) {
+            return added.get(index - loaded.length);
+        }
+        Team team = loaded[index];
+        if (team == null) {
+            team = decodeTeam(index);
+            loaded[index] = team;
+        }
+        return team;
+    }
+
+    // Name of a team without decoding its players
+    public String teamName(int index) {
+        return index < loaded.length && loaded[index] == null ? names[index] : team(index).getName();
+    }
+
+    public void add(Team team) {
+        int index = teams.size();
+        teamsByName.put(key(team.getName()), index);
+        added.add(team);
+        watch(team, index);
+    }
+
+    // Team names are matched ignoring case and surrounding whitespace
+    public Team findTeam(String name) {
+        Integer index = teamsByName.get(key(name));
+        return index == null ? null : team(index);
+    }
+
+    // Safe to call from several threads while the roster is not changed
+    boolean hasTeam(String name) {
+        return teamsByName.containsKey(key(name));
+    }
+
+    public Player findPlayer(String teamName, String number) {
+        Team team = findTeam(teamName);
+        return team == null ? null : findPlayer(team, number);
+    }
+
+    // team must be one of this roster's teams
+    public Player findPlayer(Team team, String number) {
+        Map<String, Player> byNumber = playersByNumber.get(team);
+        if (byNumber == null) {
+            byNumber = new HashMap<>();
+            for (Player player : team.getPlayers()) {
+                byNumber.put(player.getNumber().trim(), player);
+            }
+            playersByNumber.put(team, byNumber);
+        }
+        return byNumber.get(number.trim());
+    }
+
+    // Once per team, when it is decoded or added: an edit of its players drops its index,
+    // which is rebuilt on the next lookup, and is logged for the search index
+    private void watch(Team team, int index) {
+        team.getPlayers().addListener((ListChangeListener<Player>) change -> {
+            playersByNumber.remove(team);
+            if (edits == editedTeams.length) {
+                editedTeams = Arrays.copyOf(editedTeams, edits * 2);
+            }
+            editedTeams[edits++] = index;
+        });
+    }
+
+    // Number of edits of teams' players so far
+    int edits() {
+        return edits;
+    }
+
+    // Index of the team whose players were changed by the given edit
+    int editedTeam(int edit) {
+        return editedTeams[edit];
+    }
+
+    // Teams read from the file, the first storedTeams() of teams()
+    int storedTeams() {
+        return loaded.length;
+    }
+
+    // Name of a team as read from the file, for any thread
+    String storedName(int index) {
+        return names[index];
+    }
+
+    // Receives the players of a team one at a time, see forEachPlayer
+    interface PlayerSink {
+        void accept(String number, String name, String position) throws IOException;
+    }
+
+    // Streams the players of a team; a team that was never accessed is read from the file
+    // without being decoded and kept
+    void forEachPlayer(int index, PlayerSink sink) throws IOException {
+        if (index >= loaded.length || loaded[index] != null) {
+            for (Player player : team(index).getPlayers()) {
+                sink.accept(player.getNumber(), player.getName(), player.getPosition());
+            }
+            return;
+        }
+        forEachStoredPlayer(index, sink);
+    }
+
+    // Streams the players of a team as read from the file, even if it was decoded and edited
+    // since; for any thread
+    void forEachStoredPlayer(int index, PlayerSink sink) throws IOException {
+        ByteBuffer in = data.duplicate();
+        in.position(recordOffsets[index]);
+        int playerCount = Short.toUnsignedInt(in.getShort());
+        for (int i = 0; i < playerCount; i++) {
+            sink.accept(readString(in), readString(in), readString(in));
+        }
+    }
+
+    private Team decodeTeam(int index) {
+        ByteBuffer in = data.duplicate();
+        in.position(recordOffsets[index]);
+        Team team = new Team(names[index]);
+        int playerCount = Short.toUnsignedInt(in.getShort());
+        List<Player> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            players.add(new Player(readString(in), readString(in), readString(in)));
+        }
+        team.getPlayers().setAll(players);
+        watch(team, index);
+        return team;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = Short.toUnsignedInt(in.getShort());
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Teams that save appends after the roster's own, their records already encoded as in the
+    // file and written one at a time, so they never have to be in memory all at once
+    interface EncodedTeams {
+        int size();
+
+        String name(int index);
+
+        // Bytes writeRecord writes for the team
+        int recordLength(int index);
+
+        void writeRecord(int index, DataOutputStream out) throws IOException;
+    }
+
+    // Writes the whole roster to a temporary file next to file and moves it into place,
+    // so a crash while saving never leaves a half-written roster
+    public void save(Path file) throws IOException {
+        save(file, null);
+    }
+
+    // Saves the roster followed by extra teams, if any, which are only read back, lazily, when
+    // the file is opened again
+    void save(Path file, EncodedTeams extra) throws IOException {
+        int extraCount = extra == null ? 0 : extra.size();
+        int teamCount = size() + extraCount;
+        List<byte[]> nameBytes = new ArrayList<>(teamCount);
+        List<byte[]> records = new ArrayList<>(size());
+        int indexSize = 12;
+        for (int i = 0; i < teamCount; i++) {
+            byte[] name;
+            if (i >= size()) {
+                name = extra.name(i - size()).getBytes(StandardCharsets.UTF_8);
+            } else {
+                // Teams that were never accessed are copied over as they are, without decoding them
+                boolean decoded = i >= loaded.length || loaded[i] != null;
+                name = (decoded ? team(i).getName() : names[i]).getBytes(StandardCharsets.UTF_8);
+                records.add(decoded ? encodeRecord(team(i)) : rawRecord(i));
+            }
+            nameBytes.add(name);
+            indexSize += 6 + name.length;
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "roster", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(teamCount);
+            int offset = indexSize;
+            for (int i = 0; i < teamCount; i++) {
+                out.writeInt(offset);
+                out.writeShort(nameBytes.get(i).length);
+                out.write(nameBytes.get(i));
+                offset += i < size() ? records.get(i).length : extra.recordLength(i - size());
+            }
+            for (byte[] record : records) {
+                out.write(record);
+            }
+            for (int i = 0; i < extraCount; i++) {
+                extra.writeRecord(i, out);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private byte[] rawRecord(int index) {
+        int end = index + 1 < recordOffsets.length ? recordOffsets[index + 1] : data.limit();
+        byte[] record = new byte[end - recordOffsets[index]];
+        data.get(recordOffsets[index], record);
+        return record;
+    }
+
+    private static byte[] encodeRecord(Team team) {
+        List<Player> players = team.getPlayers();
+        List<byte[]> fields = new ArrayList<>(players.size() * 3);
+        int size = 2;
+        for (Player player : players) {
+            for (String value : new String[]{player.getNumber(), player.getName(), player.getPosition()}) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                fields.add(bytes);
+                size += 2 + bytes.length;
+            }
+        }
+        ByteBuffer record = ByteBuffer.allocate(size);
+        record.putShort((short) players.size());
+        for (byte[] field : fields) {
+            record.putShort((short) field.length);
+            record.put(field);
+        }
+        return record.array();
+    }
+}
@@ -0,0 +1,469 @@
+package com.example.scoreboard;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+// JavaFX-free core of the scoreboard. Any number of threads submit commands into a lock-free
+// queue; a single writer drains it, advances the clocks, journals every change and publishes
+// an immutable GameSnapshot. The writer is either the engine's own thread (start()) or a
+// caller that invokes step() itself, never both.
+public class ScoreboardEngine implements AutoCloseable {
+    private static final long IDLE_PARK_NANOS = 100_000_000L;
+    private static final long FINISHED_GAMES_DRAIN_SECONDS = 5;
+
+    private final Queue<Command> commands = new ConcurrentLinkedQueue<>();
+    private final List<Consumer<GameSnapshot>> listeners = new CopyOnWriteArrayList<>();
+    private final LongSupplier nanoTime;
+    private final GameJournal journal;
+
+    // Writer-owned state
+    private final GameState game = new GameState();
+    private final GameClock gameClock;
+    private final GameClock countdownClock;
+    private final PenaltyBox penalties = new PenaltyBox();
+    private final PlayerStats stats = new PlayerStats();
+    private volatile SeasonStats season;
+    private volatile Standings standings;
+    private volatile SeasonArchive archive;
+    private GameSettings settings = GameSettings.defaults();
+    private GameSnapshot.Phase phase = GameSnapshot.Phase.PLAY;
+    private int periodsEnded;
+    private long lastInputNanos;
+    private boolean changed = true;
+    private long version;
+
+    private volatile GameSnapshot snapshot;
+    private volatile Thread writer;
+    private volatile ExecutorService finishedGames; // saves results and archives games off the writer, started with the first one
+    private volatile boolean running;
+    private Runnable wakeup = () -> { };
+
+    public ScoreboardEngine(GameJournal journal) {
+        this(journal, System::nanoTime);
+    }
+
+    public ScoreboardEngine(GameJournal journal, LongSupplier nanoTime) {
+        this.journal = journal;
+        this.nanoTime = nanoTime;
+        this.gameClock = new GameClock(nanoTime);
+        this.countdownClock = new GameClock(nanoTime);
+        GameJournal.Restored restored = journal.restore(game, gameClock, countdownClock, penalties, stats);
+        phase = restored.phase();
+        periodsEnded = restored.periodsEnded();
+        gameClock.setLimitNanos(settings.periodNanos());
+        publish();
+    }
+
+    // Safe to call from any thread
+    public void submit(Command command) {
+        commands.offer(command);
+        wakeup.run();
+    }
+
+    public GameSnapshot snapshot() {
+        return snapshot;
+    }
+
+    // Listeners run on the writer after each published change and must not block it
+    public void addListener(Consumer<GameSnapshot> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<GameSnapshot> listener) {
+        listeners.remove(listener);
+    }
+
+    // Settings in force; only for listeners, which run on the writer
+    public GameSettings settings() {
+        return settings;
+    }
+
+    // Box score of the current game, readable from any thread
+    public PlayerStats stats() {
+        return stats;
+    }
+
+    // Replay of the game so far, for any thread; the game goes on while it plays
+    public GameReplay replay() {
+        return new GameReplay(journal, snapshot.gameTimeNanos(), nanoTime);
+    }
+
+    // Season totals each finished game is added to when the next one starts
+    public void setSeason(SeasonStats season) {
+        this.season = season;
+    }
+
+    // League table the result of each finished game between two chosen teams goes into
+    public void setStandings(Standings standings) {
+        this.standings = standings;
+    }
+
+    // Columnar archive the events of each finished game go into
+    public void setArchive(SeasonArchive archive) {
+        this.archive = archive;
+    }
+
+    // Replaces the hook that wakes the writer when a command arrives, for callers driving step() themselves
+    public void setWakeup(Runnable wakeup) {
+        this.wakeup = wakeup;
+    }
+
+    // Runs the writer on a dedicated daemon thread
+    public synchronized void start() {
+        if (writer != null) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::runWriter, "scoreboard-engine");
+        thread.setDaemon(true);
+        writer = thread;
+        wakeup = () -> LockSupport.unpark(thread);
+        thread.start();
+    }
+
+    private void runWriter() {
+        long plannedTick = 0;
+        while (running) {
+            if (plannedTick != 0) {
+                long now = nanoTime.getAsLong();
+                if (now >= plannedTick) {
+                    // Woke up for the clock, not because a command arrived
+                    Metrics.clockTick(now - plannedTick);
+                }
+            }
+            long parkNanos = step();
+            plannedTick = parkNanos < IDLE_PARK_NANOS ? nanoTime.getAsLong() + parkNanos : 0;
+            if (commands.isEmpty()) {
+                LockSupport.parkNanos(this, parkNanos);
+            }
+        }
+    }
+
+    // Applies pending commands, advances the clocks and publishes a snapshot if anything
+    // visible changed. Returns how long the writer may wait before the board changes on its own.
+    public long step() {
+        Command command;
+        while ((command = commands.poll()) != null) {
+            apply(command);
+        }
+        tick();
+        if (changed || displayedTenth() != displayedTenth(snapshot)) {
+            publish();
+        }
+        return nanosUntilNextTenth();
+    }
+
+    private void apply(Command command) {
+        switch (command.type()) {
+            case GOAL -> {
+                int players = PlayerStats.packGoal(number(command.player()),
+                        number(command.value() >>> 8 & 0xFF), number(command.value() >>> 16 & 0xFF));
+                game.addGoal(command.home());
+                stats.goal(command.home(), game.getCurrentPeriod(), players);
+                record(GameJournal.GOAL, command.home() ? 1 : 0, players);
+                penalties.expire(gameTime());
+                penalties.releaseOnGoal(command.home(), gameTime());
+            }
+            case GOAL_REMOVED -> {
+                if (game.removeGoal(command.home())) {
+                    stats.removeGoal(command.home());
+                    record(GameJournal.GOAL_REMOVED, command.home() ? 1 : 0);
+                    penalties.expire(gameTime());
+                    penalties.restoreOnGoalRemoved(command.home(), gameTime());
+                }
+            }
+            case SHOT -> {
+                int player = number(command.player());
+                stats.add(command.home(), player, game.getCurrentPeriod(), PlayerStats.SHOTS, 1);
+                record(GameJournal.SHOT, player << 1 | (command.home() ? 1 : 0));
+            }
+            case TEAM -> {
+                stats.setTeam(command.home(), command.value());
+                record(GameJournal.TEAM, command.home() ? 1 : 0, command.value());
+            }
+            case PERIOD_NEXT -> {
+                if (game.nextPeriod()) {
+                    record(GameJournal.PERIOD_NEXT, 0);
+                }
+            }
+            case PERIOD_PREVIOUS -> {
+                if (game.previousPeriod()) {
+                    record(GameJournal.PERIOD_PREVIOUS, 0);
+                }
+            }
+            case CLOCK_TOGGLE -> {
+                if (gameClock.isRunning()) {
+                    stopClock();
+                } else {
+                    startClock();
+                }
+            }
+            case CLOCK_START -> startClock();
+            case CLOCK_STOP -> stopClock();
+            case TIMEOUT -> startTimeout(command.home());
+            case NEW_GAME -> newGame();
+            case CONFIGURE -> {
+                settings = command.settings();
+                gameClock.setLimitNanos(settings.periodNanos());
+            }
+            case PENALTY -> addPenalty(command.home(), command.player(), command.value());
+        }
+        lastInputNanos = command.submittedNanos();
+        changed = true;
+    }
+
+    private void startClock() {
+        // The game clock does not run during timeouts and intermissions
+        if (phase != GameSnapshot.Phase.PLAY || gameClock.isRunning()) {
+            return;
+        }
+        gameClock.setLimitNanos(settings.periodNanos());
+        gameClock.start();
+        record(GameJournal.CLOCK_START, 0);
+    }
+
+    private void stopClock() {
+        if (gameClock.isRunning()) {
+            gameClock.pause();
+            record(GameJournal.CLOCK_STOP, 0);
+        }
+    }
+
+    private void startTimeout(boolean home) {
+        if (phase != GameSnapshot.Phase.PLAY || game.isTimeoutUsed(home)) {
+            return;
+        }
+        stopClock();
+        game.useTimeout(home);
+        phase = GameSnapshot.Phase.TIMEOUT;
+        countdownClock.countDown(settings.timeoutNanos());
+        countdownClock.start();
+        record(GameJournal.TIMEOUT_START, home ? 1 : 0, settings.timeoutNanos());
+    }
+
+    private void addPenalty(boolean home, int player, int minutes) {
+        if (minutes != Penalty.MINOR && minutes != Penalty.MAJOR && minutes != Penalty.MISCONDUCT) {
+            return;
+        }
+        player = number(player);
+        penalties.expire(gameTime());
+        penalties.add(home, player, minutes, gameTime());
+        stats.add(home, player, game.getCurrentPeriod(), PlayerStats.PENALTY_MINUTES, minutes);
+        record(GameJournal.PENALTY, player << 1 | (home ? 1 : 0), minutes);
+    }
+
+    // Jersey numbers outside the box score's range count as unattributed
+    private static int number(int player) {
+        return PlayerStats.isValidNumber(player) ? player : 0;
+    }
+
+    // Master game time across all periods, the clock every penalty runs on
+    private long gameTime() {
+        return penalties.gameTime(gameClock.valueNanos());
+    }
+
+    private void newGame() {
+        if (gameClock.isRunning() || phase != GameSnapshot.Phase.PLAY) {
+            return; // Only start a new game while the clock is stopped
+        }
+        if (gameFinished()) {
+            SeasonStats season = this.season;
+            if (season != null) {
+                stats.addTo(season);
+            }
+            addResult();
+            archiveGame();
+        }
+        journal.reset();
+        game.reset();
+        penalties.reset();
+        stats.reset();
+        // The teams stay for the next game until changed
+        for (boolean home : new boolean[]{true, false}) {
+            if (stats.teamIndex(home) >= 0) {
+                record(GameJournal.TEAM, home ? 1 : 0, stats.teamIndex(home));
+            }
+        }
+        gameClock.countUp(0, settings.periodNanos());
+        periodsEnded = 0;
+    }
+
+    // Games abandoned before the end of regulation are neither results, season stats nor archived; one
+    // decided in overtime or the shootout counts even if the operator skipped a period clock
+    private boolean gameFinished() {
+        return periodsEnded >= 3 || game.getCurrentPeriod() > 3 && game.getHomeScore() != game.getAwayScore();
+    }
+
+    // Games without two different teams are not results
+    private void addResult() {
+        Standings standings = this.standings;
+        int home = stats.teamIndex(true);
+        int away = stats.teamIndex(false);
+        if (standings == null || home < 0 || away < 0 || home == away) {
+            return;
+        }
+        Standings.Decision decision = switch (game.getCurrentPeriod()) {
+            case 4 -> Standings.Decision.OVERTIME;
+            case 5 -> Standings.Decision.SHOOTOUT;
+            default -> Standings.Decision.REGULATION;
+        };
+        Standings.Result result = new Standings.Result(home, away, game.getHomeScore(), game.getAwayScore(), decision);
+        finishedGames().execute(() -> {
+            try {
+                standings.add(result);
+            } catch (IOException e) {
+                System.err.println("Could not save the game result: " + e.getMessage());
+            }
+        });
+    }
+
+    // Finished games are saved and archived in order on a thread of their own, the clocks tick on meanwhile
+    private ExecutorService finishedGames() {
+        if (finishedGames == null) {
+            finishedGames = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "scoreboard-finished-games");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return finishedGames;
+    }
+
+    private void archiveGame() {
+        SeasonArchive archive = this.archive;
+        if (archive == null) {
+            return;
+        }
+        GameJournal game = journal.copy(); // the journal is reset for the next game right after this
+        finishedGames().execute(() -> {
+            try {
+                archive.add(game);
+            } catch (IOException e) {
+                System.err.println("Could not archive the game: " + e.getMessage());
+            }
+        });
+    }
+
+    private void tick() {
+        if (gameClock.isRunning()) {
+            boolean finished = gameClock.pauseIfFinished();
+            changed |= penalties.expire(gameTime());
+            if (finished) {
+                endPeriod();
+            } else {
+                journal.checkpoint(gameClock.valueNanos());
+            }
+        }
+        if (phase != GameSnapshot.Phase.PLAY && countdownClock.pauseIfFinished()) {
+            phase = GameSnapshot.Phase.PLAY;
+            changed = true;
+        }
+    }
+
+    private void endPeriod() {
+        record(GameJournal.CLOCK_STOP, 0);
+        long periodNanos = gameClock.valueNanos();
+        penalties.endPeriod(periodNanos);
+        gameClock.countUp(0, settings.periodNanos());
+        record(GameJournal.CLOCK_RESET, 0, periodNanos);
+        periodsEnded++;
+        if (settings.intermissionEnabled()) {
+            phase = GameSnapshot.Phase.INTERMISSION;
+            countdownClock.countDown(settings.intermissionNanos());
+            countdownClock.start();
+            record(GameJournal.INTERMISSION_START, 0, settings.intermissionNanos());
+        }
+        changed = true;
+    }
+
+    private void record(int type, int arg) {
+        record(type, arg, 0);
+    }
+
+    private void record(int type, int arg, long value) {
+        long start = System.nanoTime();
+        journal.append(type, arg, gameClock.valueNanos(), value);
+        Metrics.journalWrite(type, start);
+    }
+
+    private void publish() {
+        long now = nanoTime.getAsLong();
+        long gameClockNanos = gameClock.valueAt(now);
+        GameSnapshot next = new GameSnapshot(
+                ++version,
+                game.getHomeScore(),
+                game.getAwayScore(),
+                game.getCurrentPeriod(),
+                game.isHomeTimeoutUsed(),
+                game.isAwayTimeoutUsed(),
+                phase,
+                gameClock.isRunning(),
+                gameClockNanos,
+                countdownClock.valueAt(now),
+                periodsEnded,
+                lastInputNanos,
+                penalties.gameTime(gameClockNanos),
+                penalties.penalties(),
+                stats.teamIndex(true),
+                stats.teamIndex(false));
+        snapshot = next;
+        changed = false;
+        for (Consumer<GameSnapshot> listener : listeners) {
+            listener.accept(next);
+        }
+    }
+
+    private long displayedTenth() {
+        GameClock clock = phase == GameSnapshot.Phase.PLAY ? gameClock : countdownClock;
+        return clock.valueNanos() / GameClock.NANOS_PER_TENTH;
+    }
+
+    private static long displayedTenth(GameSnapshot snapshot) {
+        return snapshot.displayNanos() / GameClock.NANOS_PER_TENTH;
+    }
+
+    private long nanosUntilNextTenth() {
+        GameClock clock = phase == GameSnapshot.Phase.PLAY ? gameClock : countdownClock;
+        if (!clock.isRunning()) {
+            return IDLE_PARK_NANOS;
+        }
+        long value = clock.valueNanos();
+        long remainder = value % GameClock.NANOS_PER_TENTH;
+        // Counting down the displayed tenth changes once the remainder has run out, counting up when it fills
+        return clock.isCountDown() ? remainder + 1 : GameClock.NANOS_PER_TENTH - remainder;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // The writer has stopped, so no more finished games come in; the last ones are saved before the files close
+        ExecutorService saving = finishedGames;
+        if (saving != null) {
+            saving.shutdown();
+            try {
+                saving.awaitTermination(FINISHED_GAMES_DRAIN_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        journal.close();
+    }
+}
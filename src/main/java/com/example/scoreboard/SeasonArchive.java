@@ -0,0 +1,553 @@
+package com.example.scoreboard;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Finished games of the season in a compressed columnar archive, for queries like "all power-play
+// goals of a player". Every goal, assist, penalty and shot of a game is a row with one column each
+// for event type, roster team, jersey number, period, master game time in tenths and strength,
+// the acting team's skaters minus the opponent's.
+//
+// Rows are kept in segments. Every column of a segment is bit-packed with a frame of reference:
+// its minimum and maximum, then each value minus the minimum in just enough bits, so an event type
+// takes 2 bits and a jersey number 7. A query only reads the columns it filters on, skips a
+// segment when a column's minimum and maximum rule it out, and scans the segments in parallel.
+//
+// A finished game is appended to the file as a segment of its own. Every COMPACT_GAMES games those
+// single game segments are merged into one, which is appended as well; opening the archive again
+// drops the single game segments a merged one follows. Nothing written is ever rewritten, at the
+// cost of every game taking its space in the file twice.
+//
+// Segment layout (little endian): int magic, int byte length, int row count, int game count,
+// int first game, an int row count per game, then per column: int minimum, int maximum and the
+// packed values as longs. A segment cut short by a crash ends the archive.
+public class SeasonArchive implements AutoCloseable {
+    // Event types
+    public static final int GOAL = 0;
+    public static final int ASSIST = 1;
+    public static final int PENALTY = 2;
+    public static final int SHOT = 3;
+
+    // Columns
+    public static final int TYPE = 0;
+    public static final int TEAM = 1;
+    public static final int NUMBER = 2;
+    public static final int PERIOD = 3;
+    public static final int GAME_TIME = 4;
+    public static final int STRENGTH = 5;
+    static final int COLUMNS = 6;
+
+    static final int COMPACT_GAMES = 64;
+    private static final int MAGIC = 0x53434131; // "SCA1"
+    private static final int HEADER_SIZE = 20;
+
+    // One archived event
+    public record Event(int game, int type, int team, int number, int period, long gameTimeNanos, int strength) {
+    }
+
+    // Rows matching a range on each column; columns without a range match anything
+    public static final class Query {
+        private final int[] min = new int[COLUMNS];
+        private final int[] max = new int[COLUMNS];
+
+        private Query() {
+            Arrays.fill(min, Integer.MIN_VALUE);
+            Arrays.fill(max, Integer.MAX_VALUE);
+        }
+
+        public static Query all() {
+            return new Query();
+        }
+
+        public static Query events(int type) {
+            return all().where(TYPE, type, type);
+        }
+
+        public Query team(int team) {
+            return where(TEAM, team, team);
+        }
+
+        public Query number(int number) {
+            return where(NUMBER, number, number);
+        }
+
+        public Query period(int period) {
+            return where(PERIOD, period, period);
+        }
+
+        public Query powerPlay() {
+            return where(STRENGTH, 1, Integer.MAX_VALUE);
+        }
+
+        public Query shortHanded() {
+            return where(STRENGTH, Integer.MIN_VALUE, -1);
+        }
+
+        public Query evenStrength() {
+            return where(STRENGTH, 0, 0);
+        }
+
+        public Query where(int column, int from, int to) {
+            Query query = new Query();
+            System.arraycopy(min, 0, query.min, 0, COLUMNS);
+            System.arraycopy(max, 0, query.max, 0, COLUMNS);
+            query.min[column] = Math.max(min[column], from);
+            query.max[column] = Math.min(max[column], to);
+            return query;
+        }
+    }
+
+    private final Path file; // null when the archive is not persisted
+    private FileChannel channel; // games are appended here, opened with the first one
+    private long fileSize; // end of the last whole segment
+    private volatile List<Segment> segments = List.of();
+    private int sealed; // segments before this one are merged, the ones after hold one game each
+    private volatile int gameCount;
+
+    private SeasonArchive(Path file) {
+        this.file = file;
+    }
+
+    public static SeasonArchive inMemory() {
+        return new SeasonArchive(null);
+    }
+
+    public static Path defaultPath() {
+        return Path.of(System.getProperty("user.home"), ".scoreboard", "season.archive");
+    }
+
+    // Loads the archive saved at file, or starts an empty one there
+    public static SeasonArchive open(Path file) throws IOException {
+        SeasonArchive archive = new SeasonArchive(file);
+        ByteBuffer data;
+        try {
+            data = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        } catch (NoSuchFileException e) {
+            return archive;
+        }
+        List<Segment> segments = new ArrayList<>();
+        while (data.remaining() >= HEADER_SIZE) {
+            int at = data.position();
+            if (data.getInt(at) != MAGIC) {
+                throw new IOException("Not a season archive: " + file);
+            }
+            int length = data.getInt(at + 4);
+            if (length < HEADER_SIZE || length > data.remaining()) {
+                break;
+            }
+            Segment segment = Segment.decode(data.slice(at, length).order(ByteOrder.LITTLE_ENDIAN));
+            if (segment.games() > 1) {
+                // A merged segment follows the single game segments it was merged from
+                segments.subList(archive.sealed, segments.size()).clear();
+                segments.add(segment);
+                archive.sealed = segments.size();
+            } else {
+                segments.add(segment);
+            }
+            data.position(at + length);
+        }
+        archive.segments = List.copyOf(segments);
+        archive.gameCount = segments.stream().mapToInt(Segment::games).sum();
+        archive.fileSize = data.position();
+        return archive;
+    }
+
+    public int gameCount() {
+        return gameCount;
+    }
+
+    public long rowCount() {
+        return segments.stream().mapToLong(Segment::rows).sum();
+    }
+
+    // Archives the events of a finished game from its journal and saves them. Replays the whole
+    // journal and every COMPACT_GAMES games merges segments, so not for the engine's writer.
+    public synchronized void add(GameJournal journal) throws IOException {
+        Segment segment = new Rows().addGame(journal).segment(gameCount);
+        append(segment);
+        List<Segment> added = new ArrayList<>(segments);
+        added.add(segment);
+        segments = List.copyOf(added);
+        gameCount++;
+        if (added.size() - sealed >= COMPACT_GAMES) {
+            compact();
+        }
+    }
+
+    // Merges the single game segments into one and appends it
+    private void compact() throws IOException {
+        List<Segment> compacted = new ArrayList<>(segments.subList(0, sealed));
+        Rows rows = new Rows();
+        for (Segment segment : segments.subList(sealed, segments.size())) {
+            rows.addSegment(segment);
+        }
+        Segment merged = rows.segment(segments.get(sealed).firstGame());
+        append(merged);
+        compacted.add(merged);
+        sealed = compacted.size();
+        segments = List.copyOf(compacted);
+    }
+
+    private void append(Segment segment) throws IOException {
+        if (file == null) {
+            return;
+        }
+        if (channel == null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            // Drops a segment cut short by a crash
+            channel.truncate(fileSize);
+            channel.position(fileSize);
+        }
+        ByteBuffer data = segment.encode();
+        fileSize += data.remaining();
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+
+    // Number of rows matching the query; safe from any thread while games are added
+    public long count(Query query) {
+        return segments.parallelStream().mapToLong(segment -> segment.count(query)).sum();
+    }
+
+    // Rows matching the query in the order the games were played
+    public List<Event> find(Query query) {
+        return segments.parallelStream().flatMap(segment -> segment.find(query).stream()).toList();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // Rows being collected for a segment, one growing int array per column
+    static final class Rows {
+        private int[][] columns = new int[COLUMNS][256];
+        private int[] gameRows = new int[16];
+        private int rows;
+        private int games;
+
+        // Replays the game's journal like a restore and adds a row for every goal, assist,
+        // penalty and shot that still counts at the end
+        Rows addGame(GameJournal journal) {
+            GameState game = new GameState();
+            PenaltyBox penalties = new PenaltyBox();
+            int[] teams = {-1, -1};
+            int[][] goals = {new int[16], new int[16]}; // first row and row count of each team's goals
+            int[] goalCount = new int[2];
+            boolean[] removed = new boolean[0];
+            int first = rows;
+            long clockNanos = 0;
+            for (int i = 0; i < journal.size(); i++) {
+                int arg = journal.arg(i);
+                long gameTime = penalties.gameTime(journal.clockNanos(i));
+                if (journal.type(i) != GameJournal.CLOCK_RESET) {
+                    penalties.expire(gameTime);
+                }
+                int period = game.getCurrentPeriod();
+                int tenths = (int) (gameTime / GameClock.NANOS_PER_TENTH);
+                switch (journal.type(i)) {
+                    case GameJournal.GOAL -> {
+                        boolean home = arg == 1;
+                        int team = home ? 1 : 0;
+                        int strength = penalties.advantage(home);
+                        int players = (int) journal.value(i);
+                        if (goalCount[team] == goals[team].length) {
+                            goals[team] = Arrays.copyOf(goals[team], goalCount[team] * 2);
+                        }
+                        int goalRow = rows;
+                        add(GOAL, teams[team], players & 0xFF, period, tenths, strength);
+                        for (int assist : new int[]{players >>> 8 & 0xFF, players >>> 16 & 0xFF}) {
+                            if (assist != 0) {
+                                add(ASSIST, teams[team], assist, period, tenths, strength);
+                            }
+                        }
+                        goals[team][goalCount[team]++] = (goalRow - first) << 2 | rows - goalRow;
+                    }
+                    case GameJournal.GOAL_REMOVED -> {
+                        int team = arg == 1 ? 1 : 0;
+                        if (goalCount[team] > 0) {
+                            int goal = goals[team][--goalCount[team]];
+                            if (removed.length < rows - first) {
+                                removed = Arrays.copyOf(removed, Math.max(rows - first, removed.length * 2));
+                            }
+                            Arrays.fill(removed, goal >>> 2, (goal >>> 2) + (goal & 3), true);
+                        }
+                    }
+                    case GameJournal.PENALTY -> add(PENALTY, teams[arg & 1], arg >>> 1, period, tenths,
+                            penalties.advantage((arg & 1) == 1));
+                    case GameJournal.SHOT -> add(SHOT, teams[arg & 1], arg >>> 1, period, tenths,
+                            penalties.advantage((arg & 1) == 1));
+                    case GameJournal.TEAM -> teams[arg == 1 ? 1 : 0] = (int) journal.value(i);
+                    default -> {
+                    }
+                }
+                journal.apply(i, clockNanos, game, penalties, null);
+                clockNanos = journal.clockNanos(i);
+            }
+            // Drops the rows of removed goals
+            int kept = first;
+            for (int row = first; row < rows; row++) {
+                if (row - first >= removed.length || !removed[row - first]) {
+                    for (int[] column : columns) {
+                        column[kept] = column[row];
+                    }
+                    kept++;
+                }
+            }
+            rows = kept;
+            addGameRows(rows - first);
+            return this;
+        }
+
+        void addSegment(Segment segment) {
+            for (int game = 0; game < segment.games(); game++) {
+                int from = segment.gameStart(game);
+                int to = segment.gameStart(game + 1);
+                for (int row = from; row < to; row++) {
+                    ensureCapacity();
+                    for (int column = 0; column < COLUMNS; column++) {
+                        columns[column][rows] = segment.get(column, row);
+                    }
+                    rows++;
+                }
+                addGameRows(to - from);
+            }
+        }
+
+        private void add(int type, int team, int number, int period, int tenths, int strength) {
+            ensureCapacity();
+            columns[TYPE][rows] = type;
+            columns[TEAM][rows] = team;
+            columns[NUMBER][rows] = PlayerStats.isValidNumber(number) ? number : 0;
+            columns[PERIOD][rows] = period;
+            columns[GAME_TIME][rows] = tenths;
+            columns[STRENGTH][rows] = strength;
+            rows++;
+        }
+
+        private void ensureCapacity() {
+            if (rows == columns[0].length) {
+                for (int column = 0; column < COLUMNS; column++) {
+                    columns[column] = Arrays.copyOf(columns[column], rows * 2);
+                }
+            }
+        }
+
+        private void addGameRows(int count) {
+            if (games == gameRows.length) {
+                gameRows = Arrays.copyOf(gameRows, games * 2);
+            }
+            gameRows[games++] = count;
+        }
+
+        Segment segment(int firstGame) {
+            int[] gameStarts = new int[games + 1];
+            for (int game = 0; game < games; game++) {
+                gameStarts[game + 1] = gameStarts[game] + gameRows[game];
+            }
+            int[] min = new int[COLUMNS];
+            int[] max = new int[COLUMNS];
+            long[][] packed = new long[COLUMNS][];
+            for (int column = 0; column < COLUMNS; column++) {
+                int[] values = columns[column];
+                int low = rows > 0 ? values[0] : 0;
+                int high = low;
+                for (int row = 1; row < rows; row++) {
+                    low = Math.min(low, values[row]);
+                    high = Math.max(high, values[row]);
+                }
+                min[column] = low;
+                max[column] = high;
+                int width = width(low, high);
+                long[] words = new long[words(rows, width) + 1];
+                long position = 0;
+                for (int row = 0; width > 0 && row < rows; row++, position += width) {
+                    long value = (long) values[row] - low;
+                    int word = (int) (position >>> 6);
+                    int shift = (int) (position & 63);
+                    words[word] |= value << shift;
+                    if (shift + width > 64) {
+                        words[word + 1] = value >>> 64 - shift;
+                    }
+                }
+                packed[column] = words;
+            }
+            return new Segment(firstGame, gameStarts, rows, min, max, packed);
+        }
+    }
+
+    // Bits per value for a column from low to high, 0 when all values are the same
+    private static int width(int low, int high) {
+        return 64 - Long.numberOfLeadingZeros((long) high - low);
+    }
+
+    private static int words(int rows, int width) {
+        return (int) (((long) rows * width + 63) >>> 6);
+    }
+
+    // Immutable packed rows of one or more games, shared with queries on any thread
+    record Segment(int firstGame, int[] gameStarts, int rows, int[] min, int[] max, long[][] packed) {
+        int games() {
+            return gameStarts.length - 1;
+        }
+
+        int gameStart(int game) {
+            return gameStarts[game];
+        }
+
+        int get(int column, int row) {
+            int width = width(min[column], max[column]);
+            if (width == 0) {
+                return min[column];
+            }
+            return (int) (value(packed[column], (long) row * width, (1L << width) - 1) + min[column]);
+        }
+
+        long count(Query query) {
+            long[] match = match(query);
+            if (match == null) {
+                return rows;
+            }
+            long count = 0;
+            for (long bits : match) {
+                count += Long.bitCount(bits);
+            }
+            return count;
+        }
+
+        List<Event> find(Query query) {
+            long[] match = match(query);
+            List<Event> events = new ArrayList<>();
+            int game = 0;
+            for (int row = 0; row < rows; row++) {
+                if (match != null && (match[row >>> 6] & 1L << row) == 0) {
+                    continue;
+                }
+                while (gameStarts[game + 1] <= row) {
+                    game++;
+                }
+                events.add(new Event(firstGame + game, get(TYPE, row), get(TEAM, row), get(NUMBER, row),
+                        get(PERIOD, row), get(GAME_TIME, row) * GameClock.NANOS_PER_TENTH, get(STRENGTH, row)));
+            }
+            return events;
+        }
+
+        // Bitmap of the matching rows, or null when all of them match. The columns are scanned
+        // from the one keeping the smallest share of its values, so later scans can skip most blocks.
+        private long[] match(Query query) {
+            Integer[] columns = new Integer[COLUMNS];
+            int scanned = 0;
+            for (int column = 0; column < COLUMNS; column++) {
+                if (query.min[column] <= min[column] && query.max[column] >= max[column]) {
+                    continue; // every value is in range
+                }
+                if (query.min[column] > max[column] || query.max[column] < min[column]) {
+                    return new long[words(rows, 1)]; // no value is
+                }
+                columns[scanned++] = column;
+            }
+            Arrays.sort(columns, 0, scanned, Comparator.comparingDouble(column -> share(query, column)));
+            long[] match = null;
+            for (int i = 0; i < scanned; i++) {
+                int column = columns[i];
+                match = scan(column, Math.max(query.min[column], min[column]), Math.min(query.max[column], max[column]), match);
+            }
+            return match;
+        }
+
+        private double share(Query query, int column) {
+            long kept = (long) Math.min(query.max[column], max[column]) - Math.max(query.min[column], min[column]) + 1;
+            return (double) kept / ((long) max[column] - min[column] + 1);
+        }
+
+        // Sequential scan of one packed column for values from low to high among the rows matched
+        // so far, 64 rows to a word of the bitmap; blocks without a match left are skipped
+        private long[] scan(int column, int low, int high, long[] matched) {
+            int width = width(min[column], max[column]);
+            long mask = (1L << width) - 1;
+            long from = (long) low - min[column];
+            long range = (long) high - low;
+            long[] words = packed[column];
+            long[] match = new long[words(rows, 1)];
+            for (int block = 0; block < match.length; block++) {
+                if (matched != null && matched[block] == 0) {
+                    continue;
+                }
+                long position = (long) block * 64 * width;
+                int end = Math.min(64, rows - block * 64);
+                long bits = 0;
+                for (int i = 0; i < end; i++, position += width) {
+                    // In range when neither value - from nor range - (value - from) is negative
+                    long offset = value(words, position, mask) - from;
+                    bits |= ((offset | range - offset) >>> 63 ^ 1) << i;
+                }
+                match[block] = matched != null ? bits & matched[block] : bits;
+            }
+            return match;
+        }
+
+        // Value at a bit position; the packed columns end with a spare word so the next word can always be read
+        private static long value(long[] words, long position, long mask) {
+            int word = (int) (position >>> 6);
+            int shift = (int) (position & 63);
+            return (words[word] >>> shift | words[word + 1] << 1 << 63 - shift) & mask;
+        }
+
+        ByteBuffer encode() {
+            int length = HEADER_SIZE + 4 * games();
+            for (long[] words : packed) {
+                length += 8 + 8 * (words.length - 1);
+            }
+            ByteBuffer data = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(MAGIC).putInt(length).putInt(rows).putInt(games()).putInt(firstGame);
+            for (int game = 0; game < games(); game++) {
+                data.putInt(gameStarts[game + 1] - gameStarts[game]);
+            }
+            for (int column = 0; column < COLUMNS; column++) {
+                data.putInt(min[column]).putInt(max[column]);
+                for (int word = 0; word < packed[column].length - 1; word++) {
+                    data.putLong(packed[column][word]);
+                }
+            }
+            return data.flip();
+        }
+
+        static Segment decode(ByteBuffer data) {
+            data.position(8);
+            int rows = data.getInt();
+            int games = data.getInt();
+            int firstGame = data.getInt();
+            int[] gameStarts = new int[games + 1];
+            for (int game = 0; game < games; game++) {
+                gameStarts[game + 1] = gameStarts[game] + data.getInt();
+            }
+            int[] min = new int[COLUMNS];
+            int[] max = new int[COLUMNS];
+            long[][] packed = new long[COLUMNS][];
+            for (int column = 0; column < COLUMNS; column++) {
+                min[column] = data.getInt();
+                max[column] = data.getInt();
+                int words = words(rows, width(min[column], max[column]));
+                packed[column] = new long[words + 1];
+                data.asLongBuffer().get(packed[column], 0, words);
+                data.position(data.position() + 8 * words);
+            }
+            return new Segment(firstGame, gameStarts, rows, min, max, packed);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.scoreboard;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Season totals per roster team and jersey number, kept in a memory-mapped file of ints.
+// A finished game is added once, when the next game starts; the current game's PlayerStats
+// are added on top when shown. The size only depends on the number of teams, never on the
+// number of games played.
+//
+// File layout (little endian):
+//   header, 16 bytes: magic, version, team capacity
+//   per team: games played, then NUMBERS * STATS counters
+public class SeasonStats implements AutoCloseable {
+    private static final int MAGIC = 0x53435331; // "SCS1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int TEAM_SIZE = 4 * (1 + PlayerStats.NUMBERS * PlayerStats.STATS);
+    private static final int INITIAL_TEAMS = 64;
+
+    private final FileChannel channel; // null for in-memory season stats
+    private volatile ByteBuffer buffer;
+
+    private SeasonStats(FileChannel channel, ByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+        }
+        buffer.putInt(8, (buffer.capacity() - HEADER_SIZE) / TEAM_SIZE);
+    }
+
+    public static SeasonStats open(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), HEADER_SIZE + (long) INITIAL_TEAMS * TEAM_SIZE);
+        return new SeasonStats(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    public static SeasonStats inMemory() {
+        return new SeasonStats(null, ByteBuffer.allocateDirect(HEADER_SIZE + INITIAL_TEAMS * TEAM_SIZE));
+    }
+
+    public static Path defaultPath() {
+        return Path.of(System.getProperty("user.home"), ".scoreboard", "season.stats");
+    }
+
+    public int get(int teamIndex, int number, int stat) {
+        ByteBuffer current = buffer;
+        int offset = offset(teamIndex, number, stat);
+        return offset + 4 <= current.capacity() ? current.getInt(offset) : 0;
+    }
+
+    public int gamesPlayed(int teamIndex) {
+        ByteBuffer current = buffer;
+        int offset = teamOffset(teamIndex);
+        return offset + 4 <= current.capacity() ? current.getInt(offset) : 0;
+    }
+
+    // Several hosted games may finish at once, so changes are serialized
+    public synchronized void add(int teamIndex, int number, int stat, int amount) {
+        int offset = offset(teamIndex, number, stat);
+        ensureCapacity(teamIndex);
+        buffer.putInt(offset, buffer.getInt(offset) + amount);
+    }
+
+    public synchronized void addGamePlayed(int teamIndex) {
+        ensureCapacity(teamIndex);
+        int offset = teamOffset(teamIndex);
+        buffer.putInt(offset, buffer.getInt(offset) + 1);
+    }
+
+    private void ensureCapacity(int teamIndex) {
+        if (teamOffset(teamIndex + 1) <= buffer.capacity()) {
+            return;
+        }
+        int capacity = buffer.capacity();
+        while (capacity < teamOffset(teamIndex + 1)) {
+            capacity = HEADER_SIZE + (capacity - HEADER_SIZE) * 2;
+        }
+        try {
+            ByteBuffer larger;
+            if (channel != null) {
+                larger = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            } else {
+                larger = ByteBuffer.allocateDirect(capacity);
+                larger.put(buffer.duplicate().clear());
+            }
+            larger.order(ByteOrder.LITTLE_ENDIAN).putInt(8, (capacity - HEADER_SIZE) / TEAM_SIZE);
+            buffer = larger;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int teamOffset(int teamIndex) {
+        return HEADER_SIZE + teamIndex * TEAM_SIZE;
+    }
+
+    private static int offset(int teamIndex, int number, int stat) {
+        return teamOffset(teamIndex) + 4 * (1 + number * PlayerStats.STATS + stat);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer instanceof MappedByteBuffer mapped) {
+            mapped.force();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
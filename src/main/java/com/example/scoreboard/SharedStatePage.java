@@ -0,0 +1,206 @@
+package com.example.scoreboard;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// The live state in a memory-mapped file with a fixed binary layout, for graphics and video
+// overlay processes on the same machine. They map the file and read it in place, no syscalls
+// and no copies; the engine's writer updates it after every published change, so the FX
+// thread never touches it.
+//
+// A seqlock guards the page: the writer makes the sequence odd, writes the fields and makes
+// it even again. A reader reads the sequence, retries while it is odd, reads the fields and
+// accepts them if the sequence has not changed meanwhile, so it never sees a torn update.
+//
+// Layout (little endian, PAGE_SIZE bytes):
+//    0 i32 magic "SCP1"      4 i32 layout version     8 i64 sequence
+//   16 i64 snapshot version 24 i64 wall clock millis of the update
+//   32 i32 home score       36 i32 away score        40 i32 period
+//   44 u8 phase: 0 play, 1 timeout, 2 intermission
+//   45 u8 flags: bit 0 clock running, bit 1 home timeout used, bit 2 away timeout used
+//   48 i64 shown clock nanos, the countdown during timeouts and intermissions
+//   56 clock text (16 bytes)  72 period label (8 bytes)  80 home team (64 bytes)  144 away team (64 bytes)
+// Texts are a u8 byte length followed by UTF-8.
+public class SharedStatePage implements AutoCloseable {
+    public static final int PAGE_SIZE = 4096;
+
+    static final int MAGIC = 0x53435031; // "SCP1"
+    static final int LAYOUT_VERSION = 1;
+    static final int SEQUENCE = 8;
+    static final int VERSION = 16;
+    static final int UPDATED_MILLIS = 24;
+    static final int HOME_SCORE = 32;
+    static final int AWAY_SCORE = 36;
+    static final int PERIOD = 40;
+    static final int PHASE = 44;
+    static final int FLAGS = 45;
+    static final int CLOCK_NANOS = 48;
+    static final int CLOCK_TEXT = 56;
+    static final int PERIOD_LABEL = 72;
+    static final int HOME_TEAM = 80;
+    static final int AWAY_TEAM = 144;
+    static final int CLOCK_TEXT_SIZE = 16;
+    static final int PERIOD_LABEL_SIZE = 8;
+    static final int TEAM_SIZE = 64;
+
+    static final int CLOCK_RUNNING = 1;
+    static final int HOME_TIMEOUT_USED = 1 << 1;
+    static final int AWAY_TIMEOUT_USED = 1 << 2;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    // The state as one reader saw it
+    public record State(long version, long updatedMillis, int homeScore, int awayScore, int period,
+                        GameSnapshot.Phase phase, boolean clockRunning, boolean homeTimeoutUsed,
+                        boolean awayTimeoutUsed, long clockNanos, String clock, String periodLabel,
+                        String homeTeam, String awayTeam) {
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer page;
+    private final ClockFormatter clockFormatter = new ClockFormatter(); // writer thread only
+    private volatile List<String> teamNames = List.of();
+    private final String[] written = new String[4]; // texts in the page, by slot
+    private long sequence;
+
+    private SharedStatePage(FileChannel channel, MappedByteBuffer page) {
+        this.channel = channel;
+        this.page = page;
+        page.order(ByteOrder.LITTLE_ENDIAN);
+        sequence = page.getInt(0) == MAGIC ? page.getLong(SEQUENCE) & ~1L : 0;
+        page.putInt(0, MAGIC);
+        page.putInt(4, LAYOUT_VERSION);
+    }
+
+    public static SharedStatePage open(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new SharedStatePage(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, PAGE_SIZE));
+    }
+
+    public void attach(ScoreboardEngine engine) {
+        write(engine.snapshot());
+        engine.addListener(this::write);
+    }
+
+    // Names of the roster teams by index, from any thread; shown from the next update on
+    public void setTeamNames(List<String> names) {
+        teamNames = List.copyOf(names);
+    }
+
+    // Called by one writer at a time, the engine's
+    public void write(GameSnapshot snapshot) {
+        LONG.setOpaque(page, SEQUENCE, ++sequence);
+        // Nothing below may become visible before the odd sequence
+        VarHandle.storeStoreFence();
+        page.putLong(VERSION, snapshot.version());
+        page.putLong(UPDATED_MILLIS, System.currentTimeMillis());
+        page.putInt(HOME_SCORE, snapshot.homeScore());
+        page.putInt(AWAY_SCORE, snapshot.awayScore());
+        page.putInt(PERIOD, snapshot.period());
+        page.put(PHASE, (byte) snapshot.phase().ordinal());
+        page.put(FLAGS, (byte) ((snapshot.clockRunning() ? CLOCK_RUNNING : 0)
+                | (snapshot.homeTimeoutUsed() ? HOME_TIMEOUT_USED : 0)
+                | (snapshot.awayTimeoutUsed() ? AWAY_TIMEOUT_USED : 0)));
+        page.putLong(CLOCK_NANOS, snapshot.displayNanos());
+        putText(0, CLOCK_TEXT, CLOCK_TEXT_SIZE, clockFormatter.format(snapshot.displayNanos()));
+        putText(1, PERIOD_LABEL, PERIOD_LABEL_SIZE, snapshot.periodLabel());
+        putText(2, HOME_TEAM, TEAM_SIZE, teamName(snapshot.homeTeam()));
+        putText(3, AWAY_TEAM, TEAM_SIZE, teamName(snapshot.awayTeam()));
+        LONG.setRelease(page, SEQUENCE, ++sequence);
+    }
+
+    private String teamName(int index) {
+        List<String> names = teamNames;
+        return index >= 0 && index < names.size() ? names.get(index) : "";
+    }
+
+    // Cut to whole characters that fit. The formatter and the names hand out the same instance
+    // while a text does not change, so most updates leave the texts as they are.
+    private void putText(int slot, int offset, int size, String text) {
+        if (text == written[slot]) {
+            return;
+        }
+        written[slot] = text;
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, size - 1);
+        while (length > 0 && length < bytes.length && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        page.put(offset, (byte) length);
+        page.put(offset + 1, bytes, 0, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Reads a page mapped by another process, or this one, the way external readers should
+    public static final class Reader implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer page;
+
+        public Reader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            page = channel.map(FileChannel.MapMode.READ_ONLY, 0, PAGE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        // The latest whole update, null before the first one
+        public State read() {
+            while (true) {
+                long before = (long) LONG.getAcquire(page, SEQUENCE);
+                if ((before & 1) != 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                State state = before == 0 || page.getInt(0) != MAGIC ? null : new State(
+                        page.getLong(VERSION),
+                        page.getLong(UPDATED_MILLIS),
+                        page.getInt(HOME_SCORE),
+                        page.getInt(AWAY_SCORE),
+                        page.getInt(PERIOD),
+                        GameSnapshot.Phase.values()[Math.min(Byte.toUnsignedInt(page.get(PHASE)), GameSnapshot.Phase.values().length - 1)],
+                        (page.get(FLAGS) & CLOCK_RUNNING) != 0,
+                        (page.get(FLAGS) & HOME_TIMEOUT_USED) != 0,
+                        (page.get(FLAGS) & AWAY_TIMEOUT_USED) != 0,
+                        page.getLong(CLOCK_NANOS),
+                        text(CLOCK_TEXT, CLOCK_TEXT_SIZE),
+                        text(PERIOD_LABEL, PERIOD_LABEL_SIZE),
+                        text(HOME_TEAM, TEAM_SIZE),
+                        text(AWAY_TEAM, TEAM_SIZE));
+                // The fields must be read before the sequence is checked again
+                VarHandle.loadLoadFence();
+                if ((long) LONG.getOpaque(page, SEQUENCE) == before) {
+                    return state;
+                }
+            }
+        }
+
+        // A torn update can have any length byte, it is clamped and the read retried
+        private String text(int offset, int size) {
+            int length = Math.min(Byte.toUnsignedInt(page.get(offset)), size - 1);
+            byte[] bytes = new byte[length];
+            page.get(offset + 1, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.example.scoreboard;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// League table built from game results. Teams are roster indexes. Each finished game updates
+// the two teams' rows and moves them to their new place in the ranking, so adding a result
+// costs O(1) plus the distance the teams move. Corrected or imported results are tallied
+// again from scratch on a fork/join pool.
+//
+// Points: 3 for a win in regulation, 2 for a win in overtime or shootout, 1 for an overtime
+// or shootout loss and for a tie. Ties on points are broken by goal difference, goals scored,
+// regulation wins and finally by roster order.
+//
+// Results file layout (big endian): int magic, int version, then 16 bytes per result:
+// int home team, int away team, u16 home goals, u16 away goals, u8 decision, 3 bytes padding.
+public class Standings implements AutoCloseable {
+    public enum Decision {
+        REGULATION,
+        OVERTIME,
+        SHOOTOUT
+    }
+
+    public record Result(int homeTeam, int awayTeam, int homeGoals, int awayGoals, Decision decision) {
+    }
+
+    public record Row(int rank, int team, int played, int wins, int overtimeWins, int overtimeLosses, int losses,
+                      int ties, int goalsFor, int goalsAgainst, int points) {
+        public int goalDifference() {
+            return goalsFor - goalsAgainst;
+        }
+    }
+
+    private static final int MAGIC = 0x53434C31; // "SCL1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = 16;
+
+    // Columns of the table, one row of COLUMNS ints per team
+    private static final int PLAYED = 0;
+    private static final int WINS = 1;
+    private static final int OVERTIME_WINS = 2;
+    private static final int OVERTIME_LOSSES = 3;
+    private static final int LOSSES = 4;
+    private static final int TIES = 5;
+    private static final int GOALS_FOR = 6;
+    private static final int GOALS_AGAINST = 7;
+    private static final int POINTS = 8;
+    private static final int COLUMNS = 9;
+
+    // Results tallied sequentially below this size
+    static final int TALLY_THRESHOLD = 1024;
+
+    private final Path file; // null when the results are not persisted
+    private FileChannel channel; // results are appended here, opened with the first one
+    private int[] results = new int[5 * 64]; // home, away, home goals, away goals, decision
+    private int resultCount;
+    private int[] table = new int[0];
+    private int[] order = new int[0]; // teams by rank
+    private int[] rank = new int[0];  // position of each team in order
+    private int teamCount;
+
+    private Standings(Path file) {
+        this.file = file;
+    }
+
+    public static Standings inMemory() {
+        return new Standings(null);
+    }
+
+    public static Path defaultPath() {
+        return Path.of(System.getProperty("user.home"), ".scoreboard", "results.bin");
+    }
+
+    // Loads the results saved at file, or starts an empty league there
+    public static Standings open(Path file) throws IOException {
+        Standings standings = new Standings(file);
+        ByteBuffer data;
+        try {
+            data = ByteBuffer.wrap(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return standings;
+        }
+        if (data.remaining() < HEADER_SIZE || data.getInt() != MAGIC || data.getInt() != VERSION) {
+            throw new IOException("Not a results file: " + file);
+        }
+        List<Result> results = new ArrayList<>(data.remaining() / RECORD_SIZE);
+        while (data.remaining() >= RECORD_SIZE) {
+            int home = data.getInt();
+            int away = data.getInt();
+            int homeGoals = Short.toUnsignedInt(data.getShort());
+            int awayGoals = Short.toUnsignedInt(data.getShort());
+            int decision = data.get();
+            if (decision < 0 || decision >= Decision.values().length || home < 0 || away < 0) {
+                throw new IOException("Corrupt result " + results.size() + " in " + file);
+            }
+            data.position(data.position() + 3);
+            results.add(new Result(home, away, homeGoals, awayGoals, Decision.values()[decision]));
+        }
+        standings.load(results);
+        return standings;
+    }
+
+    // Adds a finished game and saves it
+    public synchronized void add(Result result) throws IOException {
+        append(result);
+        tally(table, result);
+        // Each move only looks at neighbours, so the team moved first may have stopped next to
+        // the other one still out of place; once that one is in place it moves on if it must
+        reposition(result.homeTeam());
+        reposition(result.awayTeam());
+        reposition(result.homeTeam());
+        if (file != null) {
+            if (channel == null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                if (channel.size() == 0) {
+                    channel.write(header());
+                }
+            }
+            channel.write(encode(result).flip());
+        }
+    }
+
+    // Replaces a result, e.g. after a scoring correction, and rebuilds the table
+    public synchronized void correct(int index, Result result) throws IOException {
+        Objects.checkIndex(index, resultCount);
+        write(index, result);
+        recompute();
+        save();
+    }
+
+    // Replaces all results with imported ones and rebuilds the table
+    public synchronized void importResults(List<Result> imported) throws IOException {
+        load(imported);
+        save();
+    }
+
+    public synchronized int resultCount() {
+        return resultCount;
+    }
+
+    public synchronized Result result(int index) {
+        Objects.checkIndex(index, resultCount);
+        int at = index * 5;
+        return new Result(results[at], results[at + 1], results[at + 2], results[at + 3], Decision.values()[results[at + 4]]);
+    }
+
+    // The table in ranking order, teams without games included
+    public synchronized List<Row> rows() {
+        List<Row> rows = new ArrayList<>(teamCount);
+        for (int i = 0; i < teamCount; i++) {
+            int team = order[i];
+            int at = team * COLUMNS;
+            rows.add(new Row(i + 1, team, table[at + PLAYED], table[at + WINS], table[at + OVERTIME_WINS],
+                    table[at + OVERTIME_LOSSES], table[at + LOSSES], table[at + TIES], table[at + GOALS_FOR],
+                    table[at + GOALS_AGAINST], table[at + POINTS]));
+        }
+        return rows;
+    }
+
+    private void load(List<Result> loaded) {
+        resultCount = 0;
+        for (Result result : loaded) {
+            append(result);
+        }
+        recompute();
+    }
+
+    private void append(Result result) {
+        if ((resultCount + 1) * 5 > results.length) {
+            results = Arrays.copyOf(results, results.length * 2);
+        }
+        write(resultCount++, result);
+    }
+
+    private void write(int index, Result result) {
+        ensureTeams(Math.max(result.homeTeam(), result.awayTeam()) + 1);
+        int at = index * 5;
+        results[at] = result.homeTeam();
+        results[at + 1] = result.awayTeam();
+        results[at + 2] = result.homeGoals();
+        results[at + 3] = result.awayGoals();
+        results[at + 4] = result.decision().ordinal();
+    }
+
+    private void ensureTeams(int count) {
+        if (count <= teamCount) {
+            return;
+        }
+        table = Arrays.copyOf(table, count * COLUMNS);
+        order = Arrays.copyOf(order, count);
+        rank = Arrays.copyOf(rank, count);
+        // New teams start at the bottom and move up past teams with a negative goal difference
+        int first = teamCount;
+        for (int team = first; team < count; team++) {
+            order[team] = team;
+            rank[team] = team;
+        }
+        teamCount = count;
+        for (int team = first; team < count; team++) {
+            reposition(team);
+        }
+    }
+
+    // Rebuilds the whole table in parallel and sorts it
+    void recompute() {
+        table = ForkJoinPool.commonPool().invoke(new Tally(results, 0, resultCount, teamCount));
+        Integer[] sorted = new Integer[teamCount];
+        Arrays.setAll(sorted, i -> i);
+        Arrays.sort(sorted, (a, b) -> compare(table, a, b));
+        for (int i = 0; i < teamCount; i++) {
+            order[i] = sorted[i];
+            rank[sorted[i]] = i;
+        }
+    }
+
+    // Tallies a range of results into a table of its own, halves are tallied in parallel and summed
+    private static final class Tally extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] results;
+        private final int from;
+        private final int to;
+        private final int teamCount;
+
+        Tally(int[] results, int from, int to, int teamCount) {
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.teamCount = teamCount;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= TALLY_THRESHOLD) {
+                int[] table = new int[teamCount * COLUMNS];
+                for (int i = from; i < to; i++) {
+                    int at = i * 5;
+                    tally(table, results[at], results[at + 1], results[at + 2], results[at + 3], results[at + 4]);
+                }
+                return table;
+            }
+            int middle = (from + to) >>> 1;
+            Tally left = new Tally(results, from, middle, teamCount);
+            left.fork();
+            int[] table = new Tally(results, middle, to, teamCount).compute();
+            int[] other = left.join();
+            for (int i = 0; i < table.length; i++) {
+                table[i] += other[i];
+            }
+            return table;
+        }
+    }
+
+    private static void tally(int[] table, Result result) {
+        tally(table, result.homeTeam(), result.awayTeam(), result.homeGoals(), result.awayGoals(), result.decision().ordinal());
+    }
+
+    private static void tally(int[] table, int home, int away, int homeGoals, int awayGoals, int decision) {
+        int homeAt = home * COLUMNS;
+        int awayAt = away * COLUMNS;
+        table[homeAt + PLAYED]++;
+        table[awayAt + PLAYED]++;
+        table[homeAt + GOALS_FOR] += homeGoals;
+        table[homeAt + GOALS_AGAINST] += awayGoals;
+        table[awayAt + GOALS_FOR] += awayGoals;
+        table[awayAt + GOALS_AGAINST] += homeGoals;
+        if (homeGoals == awayGoals) {
+            table[homeAt + TIES]++;
+            table[awayAt + TIES]++;
+            table[homeAt + POINTS]++;
+            table[awayAt + POINTS]++;
+            return;
+        }
+        int winnerAt = homeGoals > awayGoals ? homeAt : awayAt;
+        int loserAt = homeGoals > awayGoals ? awayAt : homeAt;
+        if (decision == Decision.REGULATION.ordinal()) {
+            table[winnerAt + WINS]++;
+            table[winnerAt + POINTS] += 3;
+            table[loserAt + LOSSES]++;
+        } else {
+            table[winnerAt + OVERTIME_WINS]++;
+            table[winnerAt + POINTS] += 2;
+            table[loserAt + OVERTIME_LOSSES]++;
+            table[loserAt + POINTS]++;
+        }
+    }
+
+    // Moves a team whose row changed to its place in the ranking, shifting the teams in between
+    private void reposition(int team) {
+        int position = rank[team];
+        while (position > 0 && compare(table, team, order[position - 1]) < 0) {
+            order[position] = order[position - 1];
+            rank[order[position]] = position;
+            position--;
+        }
+        while (position < teamCount - 1 && compare(table, team, order[position + 1]) > 0) {
+            order[position] = order[position + 1];
+            rank[order[position]] = position;
+            position++;
+        }
+        order[position] = team;
+        rank[team] = position;
+    }
+
+    // Negative if team a ranks above team b
+    private static int compare(int[] table, int a, int b) {
+        int aAt = a * COLUMNS;
+        int bAt = b * COLUMNS;
+        int result = Integer.compare(table[bAt + POINTS], table[aAt + POINTS]);
+        if (result == 0) {
+            result = Integer.compare(table[bAt + GOALS_FOR] - table[bAt + GOALS_AGAINST], table[aAt + GOALS_FOR] - table[aAt + GOALS_AGAINST]);
+        }
+        if (result == 0) {
+            result = Integer.compare(table[bAt + GOALS_FOR], table[aAt + GOALS_FOR]);
+        }
+        if (result == 0) {
+            result = Integer.compare(table[bAt + WINS], table[aAt + WINS]);
+        }
+        return result != 0 ? result : Integer.compare(a, b);
+    }
+
+    // Writes all results to a temporary file next to file and moves it into place
+    private void save() throws IOException {
+        if (file == null) {
+            return;
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "results", ".tmp");
+        ByteBuffer data = ByteBuffer.allocate(HEADER_SIZE + resultCount * RECORD_SIZE).put(header());
+        for (int i = 0; i < resultCount; i++) {
+            encode(data, result(i));
+        }
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            out.write(data.flip());
+        }
+        close(); // the appending channel still points at the replaced file
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private static ByteBuffer header() {
+        return ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+    }
+
+    private static ByteBuffer encode(Result result) {
+        return encode(ByteBuffer.allocate(RECORD_SIZE), result);
+    }
+
+    private static ByteBuffer encode(ByteBuffer buffer, Result result) {
+        return buffer
+                .putInt(result.homeTeam())
+                .putInt(result.awayTeam())
+                .putShort((short) result.homeGoals())
+                .putShort((short) result.awayGoals())
+                .put((byte) result.decision().ordinal())
+                .put(new byte[3]);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.scoreboard;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Sends the engine's snapshots to display clients over UDP multicast. One datagram reaches
+// every receiver on the segment, so the cost does not grow with the number of displays.
+// Each change goes out as a delta against the previous packet, with a full keyframe at
+// least once per KEYFRAME_INTERVAL_NANOS so late joiners and receivers that lost a packet catch up.
+public class StateBroadcaster implements AutoCloseable {
+    public static final InetSocketAddress DEFAULT_GROUP = new InetSocketAddress("239.1.2.3", 4446);
+    static final long KEYFRAME_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final DatagramChannel channel;
+    private final InetSocketAddress group;
+    private final ByteBuffer packet = ByteBuffer.allocateDirect(StateCodec.MAX_PACKET_SIZE);
+    private final AtomicReference<GameSnapshot> pending = new AtomicReference<>();
+    private volatile long offeredAt;
+    private final Thread sender;
+    private volatile boolean running = true;
+    private volatile boolean clockTicks = true;
+
+    private GameSnapshot lastSent;
+    private int sequence;
+    private long lastKeyframeAt;
+
+    public StateBroadcaster(InetSocketAddress group, NetworkInterface networkInterface) throws IOException {
+        this.group = group;
+        this.channel = DatagramChannel.open(StandardProtocolFamily.INET);
+        channel.setOption(StandardSocketOptions.IP_MULTICAST_TTL, 1);
+        channel.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+        if (networkInterface != null) {
+            channel.setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface);
+        }
+        this.sender = new Thread(this::runSender, "scoreboard-broadcast");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    // Publishes every snapshot of the engine from now on
+    public void attach(ScoreboardEngine engine) {
+        offer(engine.snapshot());
+        engine.addListener(this::offer);
+    }
+
+    // Whether snapshots in which only the clocks moved are sent; displays that follow the
+    // clock with ClockSyncClient do not need them, keyframes still carry the clocks
+    public void setClockTicks(boolean clockTicks) {
+        this.clockTicks = clockTicks;
+    }
+
+    // Hands the snapshot to the sender thread; only the latest pending one is sent, so a slow
+    // network never backs up into the engine's writer
+    public void offer(GameSnapshot snapshot) {
+        offeredAt = System.nanoTime();
+        pending.set(snapshot);
+        LockSupport.unpark(sender);
+    }
+
+    private void runSender() {
+        while (running) {
+            long offered = offeredAt;
+            GameSnapshot next = pending.getAndSet(null);
+            long now = System.nanoTime();
+            boolean keyframeDue = now - lastKeyframeAt >= KEYFRAME_INTERVAL_NANOS;
+            try {
+                if (next != null && (clockTicks || keyframeDue || !onlyClocksMoved(next))) {
+                    int bytes = send(next, keyframeDue, now);
+                    Metrics.broadcastSend(offered, bytes);
+                } else if (keyframeDue && lastSent != null) {
+                    send(lastSent, true, now);
+                }
+            } catch (IOException e) {
+                System.err.println("Scoreboard broadcast failed: " + e.getMessage());
+            }
+            if (pending.get() == null) {
+                // Until the first snapshot there is no keyframe to repeat
+                long wait = lastSent == null ? KEYFRAME_INTERVAL_NANOS
+                        : KEYFRAME_INTERVAL_NANOS - (System.nanoTime() - lastKeyframeAt);
+                LockSupport.parkNanos(this, wait);
+            }
+        }
+    }
+
+    private boolean onlyClocksMoved(GameSnapshot next) {
+        return lastSent != null
+                && (StateCodec.changedFields(lastSent, next) & ~(StateCodec.GAME_CLOCK | StateCodec.COUNTDOWN)) == 0;
+    }
+
+    private int send(GameSnapshot snapshot, boolean keyframe, long now) throws IOException {
+        packet.clear();
+        if (keyframe || lastSent == null) {
+            StateCodec.encodeKeyframe(packet, ++sequence, snapshot);
+            lastKeyframeAt = now;
+        } else {
+            StateCodec.encodeDelta(packet, ++sequence, lastSent, snapshot);
+        }
+        packet.flip();
+        int bytes = channel.send(packet, group);
+        lastSent = snapshot;
+        return bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(sender);
+        try {
+            sender.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.scoreboard;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+// Compact binary encoding of GameSnapshots for display clients. A keyframe carries every
+// field, a delta only the fields that changed since the packet with the previous sequence
+// number. Clock values are sent as milliseconds.
+//
+//   u16 magic, u8 kind, u8 field mask, i32 sequence, then the masked fields in bit order:
+//   SCORE u16 home u16 away | PERIOD u8 | FLAGS u8 | GAME_CLOCK i32 | COUNTDOWN i32 | PERIODS_ENDED u16
+public final class StateCodec {
+    public static final int MAX_PACKET_SIZE = 32;
+
+    static final short MAGIC = 0x5342;
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+
+    static final int SCORE = 1;
+    static final int PERIOD = 1 << 1;
+    static final int FLAGS = 1 << 2;
+    static final int GAME_CLOCK = 1 << 3;
+    static final int COUNTDOWN = 1 << 4;
+    static final int PERIODS_ENDED = 1 << 5;
+    static final int ALL = SCORE | PERIOD | FLAGS | GAME_CLOCK | COUNTDOWN | PERIODS_ENDED;
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private StateCodec() {
+    }
+
+    public static void encodeKeyframe(ByteBuffer out, int sequence, GameSnapshot snapshot) {
+        encode(out, KEYFRAME, ALL, sequence, snapshot);
+    }
+
+    // Writes only the fields that differ from previous; previous must be the snapshot sent with sequence - 1
+    public static void encodeDelta(ByteBuffer out, int sequence, GameSnapshot previous, GameSnapshot next) {
+        encode(out, DELTA, changedFields(previous, next), sequence, next);
+    }
+
+    static int changedFields(GameSnapshot previous, GameSnapshot next) {
+        int mask = 0;
+        if (previous.homeScore() != next.homeScore() || previous.awayScore() != next.awayScore()) {
+            mask |= SCORE;
+        }
+        if (previous.period() != next.period()) {
+            mask |= PERIOD;
+        }
+        if (flags(previous) != flags(next)) {
+            mask |= FLAGS;
+        }
+        if (millis(previous.gameClockNanos()) != millis(next.gameClockNanos())) {
+            mask |= GAME_CLOCK;
+        }
+        if (millis(previous.countdownNanos()) != millis(next.countdownNanos())) {
+            mask |= COUNTDOWN;
+        }
+        if (previous.periodsEnded() != next.periodsEnded()) {
+            mask |= PERIODS_ENDED;
+        }
+        return mask;
+    }
+
+    private static void encode(ByteBuffer out, byte kind, int mask, int sequence, GameSnapshot snapshot) {
+        out.putShort(MAGIC);
+        out.put(kind);
+        out.put((byte) mask);
+        out.putInt(sequence);
+        if ((mask & SCORE) != 0) {
+            out.putShort((short) snapshot.homeScore());
+            out.putShort((short) snapshot.awayScore());
+        }
+        if ((mask & PERIOD) != 0) {
+            out.put((byte) snapshot.period());
+        }
+        if ((mask & FLAGS) != 0) {
+            out.put((byte) flags(snapshot));
+        }
+        if ((mask & GAME_CLOCK) != 0) {
+            out.putInt(millis(snapshot.gameClockNanos()));
+        }
+        if ((mask & COUNTDOWN) != 0) {
+            out.putInt(millis(snapshot.countdownNanos()));
+        }
+        if ((mask & PERIODS_ENDED) != 0) {
+            out.putShort((short) snapshot.periodsEnded());
+        }
+    }
+
+    private static int flags(GameSnapshot snapshot) {
+        return (snapshot.homeTimeoutUsed() ? 1 : 0)
+                | (snapshot.awayTimeoutUsed() ? 2 : 0)
+                | (snapshot.clockRunning() ? 4 : 0)
+                | snapshot.phase().ordinal() << 3;
+    }
+
+    private static int millis(long nanos) {
+        return (int) (nanos / NANOS_PER_MILLI);
+    }
+
+    // Stateful decoder for one stream of packets. Deltas are only applied on top of the packet
+    // with the directly preceding sequence number; after a loss it waits for the next keyframe.
+    public static final class Decoder {
+        private GameSnapshot current;
+        private int sequence;
+
+        // Returns the decoded snapshot, or null if the packet was invalid or could not be applied
+        public GameSnapshot decode(ByteBuffer in) {
+            try {
+                return decodePacket(in);
+            } catch (BufferUnderflowException e) {
+                return null; // truncated packet
+            }
+        }
+
+        private GameSnapshot decodePacket(ByteBuffer in) {
+            if (in.remaining() < 8 || in.getShort() != MAGIC) {
+                return null;
+            }
+            byte kind = in.get();
+            int mask = in.get() & 0xFF;
+            int seq = in.getInt();
+            GameSnapshot base;
+            if (kind == KEYFRAME) {
+                if (mask != ALL) {
+                    return null;
+                }
+                base = null;
+            } else if (kind == DELTA && current != null && seq == sequence + 1) {
+                base = current;
+            } else {
+                return null;
+            }
+
+            int home = base == null ? 0 : base.homeScore();
+            int away = base == null ? 0 : base.awayScore();
+            int period = base == null ? 1 : base.period();
+            int flags = base == null ? 0 : flags(base);
+            long gameClock = base == null ? 0 : base.gameClockNanos();
+            long countdown = base == null ? 0 : base.countdownNanos();
+            int periodsEnded = base == null ? 0 : base.periodsEnded();
+            if ((mask & SCORE) != 0) {
+                home = in.getShort() & 0xFFFF;
+                away = in.getShort() & 0xFFFF;
+            }
+            if ((mask & PERIOD) != 0) {
+                period = in.get();
+            }
+            if ((mask & FLAGS) != 0) {
+                flags = in.get();
+            }
+            if ((mask & GAME_CLOCK) != 0) {
+                gameClock = in.getInt() * NANOS_PER_MILLI;
+            }
+            if ((mask & COUNTDOWN) != 0) {
+                countdown = in.getInt() * NANOS_PER_MILLI;
+            }
+            if ((mask & PERIODS_ENDED) != 0) {
+                periodsEnded = in.getShort() & 0xFFFF;
+            }
+            int phase = (flags >> 3) & 3;
+            if (period < 1 || period > GameState.PERIODS.length || phase >= GameSnapshot.Phase.values().length) {
+                return null;
+            }
+
+            current = new GameSnapshot(
+                    Integer.toUnsignedLong(seq),
+                    home,
+                    away,
+                    period,
+                    (flags & 1) != 0,
+                    (flags & 2) != 0,
+                    GameSnapshot.Phase.values()[phase],
+                    (flags & 4) != 0,
+                    gameClock,
+                    countdown,
+                    periodsEnded,
+                    0,
+                    0,
+                    List.of(),
+                    -1,
+                    -1);
+            sequence = seq;
+            return current;
+        }
+
+        public GameSnapshot current() {
+            return current;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.scoreboard;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.MembershipKey;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Display side of StateBroadcaster: joins the multicast group and decodes the packets into
+// GameSnapshots that a board can render like the engine's own snapshots.
+public class StateReceiver implements AutoCloseable {
+    private final DatagramChannel channel;
+    private final MembershipKey membership;
+    private final StateCodec.Decoder decoder = new StateCodec.Decoder();
+    private final List<Consumer<GameSnapshot>> listeners = new CopyOnWriteArrayList<>();
+    private final Thread receiver;
+    private volatile GameSnapshot snapshot;
+
+    public StateReceiver(InetSocketAddress group, NetworkInterface networkInterface) throws IOException {
+        this.channel = DatagramChannel.open(StandardProtocolFamily.INET)
+                .setOption(StandardSocketOptions.SO_REUSEADDR, true)
+                .bind(new InetSocketAddress(group.getPort()));
+        this.membership = channel.join(group.getAddress(), networkInterface);
+        this.receiver = new Thread(this::runReceiver, "scoreboard-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    // Latest decoded state, null until the first keyframe arrived
+    public GameSnapshot snapshot() {
+        return snapshot;
+    }
+
+    public void addListener(Consumer<GameSnapshot> listener) {
+        listeners.add(listener);
+    }
+
+    private void runReceiver() {
+        ByteBuffer packet = ByteBuffer.allocateDirect(StateCodec.MAX_PACKET_SIZE * 2);
+        while (channel.isOpen()) {
+            try {
+                packet.clear();
+                channel.receive(packet);
+                packet.flip();
+                GameSnapshot decoded = decoder.decode(packet);
+                if (decoded != null) {
+                    snapshot = decoded;
+                    for (Consumer<GameSnapshot> listener : listeners) {
+                        listener.accept(decoded);
+                    }
+                }
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("Scoreboard receive failed: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        membership.drop();
+        channel.close();
+    }
+}
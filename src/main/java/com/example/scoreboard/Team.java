@@ -0,0 +1,27 @@
+package com.example.scoreboard;
+
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+public class Team {
+    private final SimpleStringProperty name;
+    private final ObservableList<Player> players;
+
+    public Team(String name) {
+        this.name = new SimpleStringProperty(name);
+        this.players = FXCollections.observableArrayList();
+    }
+
+    public String getName() {
+        return name.get();
+    }
+
+    public ObservableList<Player> getPlayers() {
+        return players;
+    }
+
+    public SimpleStringProperty nameProperty() {
+        return name;
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.scoreboard;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+// Search over team and player names for the team browser. Every name is indexed by its
+// trigrams and by the one and two letter prefixes of its words, each key mapping to a sorted
+// list of team indexes. A query intersects the postings of its trigrams (or looks up a short
+// prefix) and then checks the few remaining candidates, so a keystroke costs microseconds
+// even with thousands of players. Names come from the roster's records, so indexing never
+// decodes a team. The teams in the roster file are indexed by build(), off the FX thread when
+// the roster loads; teams added later are indexed and teams whose players were edited are
+// indexed again by update() before each search.
+public class TeamSearchIndex {
+    private final RosterStore roster;
+    private final Map<Integer, Postings> postings = new HashMap<>();
+    private String[] searchText = new String[16]; // lowercase team and player names per team
+    private int indexedTeams;
+    private int seenEdits;
+
+    public TeamSearchIndex(RosterStore roster) {
+        this.roster = roster;
+    }
+
+    // Indexes the teams of the roster file from their stored records. Safe on any thread as
+    // long as the index is not used anywhere else until it returns.
+    public void build() {
+        while (indexedTeams < roster.storedTeams()) {
+            index(indexedTeams, roster.storedName(indexedTeams), true);
+            indexedTeams++;
+        }
+    }
+
+    // Indexes the teams added to the roster since the last call and those whose players were
+    // edited; on the FX thread, like the edits
+    public void update() {
+        while (indexedTeams < roster.size()) {
+            index(indexedTeams, roster.teamName(indexedTeams), false);
+            indexedTeams++;
+        }
+        int previous = -1;
+        while (seenEdits < roster.edits()) {
+            int teamIndex = roster.editedTeam(seenEdits++);
+            // Adding several players in a row is one reindex
+            if (teamIndex != previous && teamIndex < indexedTeams) {
+                forEachKey(searchText[teamIndex], key -> postings.get(key).remove(teamIndex));
+                index(teamIndex, roster.teamName(teamIndex), false);
+            }
+            previous = teamIndex;
+        }
+    }
+
+    private void index(int teamIndex, String teamName, boolean stored) {
+        StringBuilder text = new StringBuilder(normalize(teamName));
+        RosterStore.PlayerSink names = (number, name, position) -> text.append('\n').append(normalize(name));
+        try {
+            if (stored) {
+                roster.forEachStoredPlayer(teamIndex, names);
+            } else {
+                roster.forEachPlayer(teamIndex, names);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // the sink does no I/O
+        }
+        if (teamIndex == searchText.length) {
+            searchText = Arrays.copyOf(searchText, searchText.length * 2);
+        }
+        searchText[teamIndex] = text.toString();
+        forEachKey(searchText[teamIndex], key -> postings.computeIfAbsent(key, k -> new Postings()).add(teamIndex));
+    }
+
+    private static void forEachKey(String value, IntConsumer action) {
+        for (int i = 0; i < value.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(value.charAt(i - 1));
+            if (wordStart && Character.isLetterOrDigit(value.charAt(i))) {
+                action.accept(key(value, i, 1));
+                if (i + 1 < value.length()) {
+                    action.accept(key(value, i, 2));
+                }
+            }
+            if (i + 2 < value.length()) {
+                action.accept(key(value, i, 3));
+            }
+        }
+    }
+
+    // Up to three chars packed into an int, the length in the top bits keeps prefixes and trigrams apart
+    private static int key(CharSequence value, int start, int length) {
+        int key = length << 30;
+        for (int i = 0; i < length; i++) {
+            key |= (value.charAt(start + i) & 0x3FF) << (10 * i);
+        }
+        return key;
+    }
+
+    // Indexes of the teams whose name or any player name contains the query, in roster order.
+    // An empty query matches every team.
+    public int[] search(String query) {
+        update();
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            int[] all = new int[indexedTeams];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+        int[] candidates;
+        int count;
+        if (normalized.length() < 3) {
+            Postings prefix = postings.get(key(normalized, 0, normalized.length()));
+            if (prefix == null) {
+                return new int[0];
+            }
+            candidates = Arrays.copyOf(prefix.values, prefix.size);
+            count = candidates.length;
+        } else {
+            // Intersect starting with the rarest trigram
+            Postings[] lists = new Postings[normalized.length() - 2];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = postings.get(key(normalized, i, 3));
+                if (lists[i] == null) {
+                    return new int[0];
+                }
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+            candidates = Arrays.copyOf(lists[0].values, lists[0].size);
+            count = candidates.length;
+            for (int i = 1; i < lists.length && count > 0; i++) {
+                count = intersect(candidates, count, lists[i]);
+            }
+        }
+
+        // Trigrams can match out of order and keys keep only 10 bits of each char, so e.g.
+        // Cyrillic letters share keys with ASCII ones; confirm the candidates
+        int matches = 0;
+        for (int i = 0; i < count; i++) {
+            if (searchText[candidates[i]].contains(normalized)) {
+                candidates[matches++] = candidates[i];
+            }
+        }
+        return Arrays.copyOf(candidates, matches);
+    }
+
+    private static int intersect(int[] candidates, int count, Postings list) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count; i++) {
+            int value = candidates[i];
+            while (j < list.size && list.values[j] < value) {
+                j++;
+            }
+            if (j < list.size && list.values[j] == value) {
+                candidates[kept++] = value;
+            }
+        }
+        return kept;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Sorted, duplicate-free list of team indexes; teams are mostly indexed in ascending order,
+    // so adding is an append except when an edited team is indexed again
+    private static final class Postings {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int teamIndex) {
+            int at = size;
+            if (size > 0 && values[size - 1] >= teamIndex) {
+                at = Arrays.binarySearch(values, 0, size, teamIndex);
+                if (at >= 0) {
+                    return;
+                }
+                at = -at - 1;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, at, values, at + 1, size - at);
+            values[at] = teamIndex;
+            size++;
+        }
+
+        void remove(int teamIndex) {
+            int at = Arrays.binarySearch(values, 0, size, teamIndex);
+            if (at >= 0) {
+                System.arraycopy(values, at + 1, values, at, size - at - 1);
+                size--;
+            }
+        }
+    }
+}
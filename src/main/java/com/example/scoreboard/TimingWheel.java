@@ -0,0 +1,124 @@
+package com.example.scoreboard;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+// Hashed timing wheel: one thread serves any number of timers with O(1) schedule and cancel.
+// Time is cut into ticks of tickNanos; a timer goes into the bucket of the tick its deadline
+// falls in, with a round count for deadlines more than one turn of the wheel away. Every
+// tick the thread expires a single bucket, so the cost depends on the number of timers due,
+// not on the number scheduled. Timers fire at most one tick late and never early.
+// Tasks run on the wheel's thread and must only hand work off, e.g. to an executor.
+public class TimingWheel implements AutoCloseable {
+    private final long tickNanos;
+    private final Timeout[] buckets;
+    private final int mask;
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final long startedAt;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private long tick; // next tick to expire, owned by the wheel's thread
+
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private long rounds;
+        private Timeout next;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        public long deadline() {
+            return deadline;
+        }
+
+        // The task will not run if it has not started yet
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    // wheelSize is rounded up to a power of two
+    public TimingWheel(String name, long tickNanos, int wheelSize) {
+        this.tickNanos = tickNanos;
+        this.buckets = new Timeout[Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1];
+        this.mask = buckets.length - 1;
+        this.startedAt = System.nanoTime();
+        this.thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Safe to call from any thread; deadline is in System.nanoTime() terms
+    public Timeout schedule(Runnable task, long deadline) {
+        Timeout timeout = new Timeout(task, deadline);
+        added.offer(timeout);
+        return timeout;
+    }
+
+    private void run() {
+        while (running) {
+            long tickEnd = startedAt + (tick + 1) * tickNanos;
+            long wait;
+            while ((wait = tickEnd - System.nanoTime()) > 0 && running) {
+                LockSupport.parkNanos(this, wait);
+            }
+            transferAdded();
+            expire(tick & mask);
+            tick++;
+        }
+    }
+
+    private void transferAdded() {
+        Timeout timeout;
+        while ((timeout = added.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            // Deadlines already in the past go into the bucket expired next
+            long dueTick = Math.max((timeout.deadline - startedAt) / tickNanos, tick);
+            timeout.rounds = (dueTick - tick) / buckets.length;
+            int bucket = (int) (dueTick & mask);
+            timeout.next = buckets[bucket];
+            buckets[bucket] = timeout;
+        }
+    }
+
+    private void expire(long bucket) {
+        Timeout kept = null;
+        Timeout timeout = buckets[(int) bucket];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.cancelled) {
+                // dropped
+            } else if (timeout.rounds <= 0) {
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Timer task failed: " + e);
+                }
+            } else {
+                timeout.rounds--;
+                timeout.next = kept;
+                kept = timeout;
+            }
+            timeout = next;
+        }
+        buckets[(int) bucket] = kept;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
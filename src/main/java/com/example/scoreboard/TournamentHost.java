@@ -0,0 +1,178 @@
+package com.example.scoreboard;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs many independent games in one process. No game owns a thread: every engine is driven
+// through step() by a small pool of workers, woken either by a submitted command or by its
+// next clock tick on a shared TimingWheel. A game is stepped by at most one worker at a time.
+// The game clocks themselves read System.nanoTime(), so the wheel's granularity only delays
+// when a change is published, never what the clock shows.
+//
+// The CPU time and the bytes allocated while stepping are measured per game.
+public class TournamentHost implements AutoCloseable {
+    public static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final int WHEEL_SIZE = 512;
+
+    private static final int IDLE = 0;
+    private static final int QUEUED = 1;
+    private static final int RUNNING = 2;
+    private static final int RUNNING_WOKEN = 3; // woken again while stepping, step once more
+
+    private final TimingWheel wheel = new TimingWheel("tournament-timer", TICK_NANOS, WHEEL_SIZE);
+    private final ExecutorService workers;
+    private final List<Game> games = new CopyOnWriteArrayList<>();
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final long createdAt = System.nanoTime();
+    private volatile boolean running = true;
+
+    public static final class Game {
+        private final String name;
+        private final ScoreboardEngine engine;
+        private final AtomicInteger state = new AtomicInteger(IDLE);
+        private TimingWheel.Timeout timeout;
+        private volatile long cpuNanos;
+        private volatile long allocatedBytes;
+        private volatile long steps;
+
+        private Game(String name, ScoreboardEngine engine) {
+            this.name = name;
+            this.engine = engine;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public ScoreboardEngine engine() {
+            return engine;
+        }
+
+        // CPU time the workers spent stepping this game
+        public long cpuNanos() {
+            return cpuNanos;
+        }
+
+        // Heap allocated while stepping this game
+        public long allocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public long steps() {
+            return steps;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    public TournamentHost(int workerThreads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "tournament-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        threads.setThreadCpuTimeEnabled(true);
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    // Hosts a game on this host's workers; the engine must not be started on its own thread
+    public Game addGame(String name, GameJournal journal) {
+        Game game = new Game(name, new ScoreboardEngine(journal));
+        game.engine.setWakeup(() -> wake(game));
+        games.add(game);
+        wake(game);
+        return game;
+    }
+
+    public List<Game> games() {
+        return games;
+    }
+
+    public Game game(int index) {
+        return games.get(index);
+    }
+
+    private void wake(Game game) {
+        while (running) {
+            int state = game.state.get();
+            if (state == IDLE) {
+                if (game.state.compareAndSet(IDLE, QUEUED)) {
+                    try {
+                        workers.execute(() -> step(game));
+                    } catch (RejectedExecutionException e) {
+                        // closing
+                    }
+                    return;
+                }
+            } else if (state == RUNNING) {
+                if (game.state.compareAndSet(RUNNING, RUNNING_WOKEN)) {
+                    return;
+                }
+            } else {
+                return; // already queued or going to be stepped again
+            }
+        }
+    }
+
+    private void step(Game game) {
+        do {
+            game.state.set(RUNNING);
+            long cpuBefore = threads.getCurrentThreadCpuTime();
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long wait = game.engine.step();
+            game.cpuNanos += threads.getCurrentThreadCpuTime() - cpuBefore;
+            game.allocatedBytes += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            game.steps++;
+
+            if (game.timeout != null) {
+                game.timeout.cancel();
+            }
+            long deadline = System.nanoTime() + wait;
+            game.timeout = wheel.schedule(() -> tick(game, deadline), deadline);
+        } while (!game.state.compareAndSet(RUNNING, IDLE));
+    }
+
+    // Runs on the wheel's thread
+    private void tick(Game game, long deadline) {
+        Metrics.clockTick(System.nanoTime() - deadline);
+        wake(game);
+    }
+
+    // One line per game: CPU share, allocation rate and steps per second since the host started
+    public String summary() {
+        double seconds = (System.nanoTime() - createdAt) / 1e9;
+        StringBuilder text = new StringBuilder("game                 cpu %   alloc KB/s   steps/s\n");
+        for (Game game : games) {
+            text.append(String.format("%-18s %7.3f %12.1f %9.1f%n", game.name,
+                    game.cpuNanos / 1e9 / seconds * 100, game.allocatedBytes / 1024.0 / seconds, game.steps / seconds));
+        }
+        return text.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        wheel.close();
+        workers.shutdown();
+        try {
+            workers.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Game game : games) {
+            game.engine.close();
+        }
+    }
+}
@@ -1,8 +1,9 @@
 module com.example.scoreboard {
     requires javafx.controls;
-    requires javafx.fxml;
+    requires jdk.httpserver;
+    requires jdk.jfr;
+    requires jdk.management;
 
 
-    opens com.example.scoreboard to javafx.fxml;
     exports com.example.scoreboard;
-}
\ No newline at end of file
+}
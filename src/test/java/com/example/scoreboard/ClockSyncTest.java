@@ -0,0 +1,61 @@
+package com.example.scoreboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.scoreboard.StateBroadcasterTest.await;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClockSyncTest {
+    private static final InetSocketAddress GROUP = new InetSocketAddress("239.1.2.4", 4457);
+    private static final long LATENCY_NANOS = 2_000_000L;
+    private static final long JITTER_NANOS = 4_000_000L;
+    // Half the jitter is the most the best exchange can be off by, plus a margin for scheduling
+    private static final long MAX_OFFSET_NANOS = JITTER_NANOS / 2 + 1_000_000L;
+
+    @Test
+    void displaysAgreeUnderJitter() throws Exception {
+        NetworkInterface loopback = NetworkInterface.getByName("lo");
+        List<ClockSyncClient> displays = new ArrayList<>();
+        try (ScoreboardEngine engine = new ScoreboardEngine(GameJournal.inMemory());
+             ClockSyncServer server = new ClockSyncServer(GROUP, loopback)) {
+            for (int i = 0; i < 4; i++) {
+                displays.add(new ClockSyncClient(GROUP, loopback, LATENCY_NANOS, JITTER_NANOS));
+            }
+            engine.start();
+            server.attach(engine);
+            engine.submit(Command.of(Command.Type.CLOCK_START));
+            await(() -> engine.snapshot().clockRunning(), "the clock to start");
+            for (ClockSyncClient display : displays) {
+                await(() -> display.displayNanos() >= 0, "the first line and time reply");
+            }
+            // Lets the first burst of time requests finish
+            Thread.sleep(ClockSyncClient.SAMPLES * ClockSyncClient.FIRST_REQUEST_INTERVAL_NANOS / 1_000_000 + 200);
+
+            // Displays and master share this machine's clock, so every offset should be 0
+            for (ClockSyncClient display : displays) {
+                long offset = display.offsetNanos();
+                assertTrue(Math.abs(offset) <= MAX_OFFSET_NANOS, "offset " + offset + " ns");
+            }
+            long low = Long.MAX_VALUE;
+            long high = Long.MIN_VALUE;
+            for (ClockSyncClient display : displays) {
+                long shown = display.displayNanos();
+                low = Math.min(low, shown);
+                high = Math.max(high, shown);
+            }
+            assertTrue(high - low <= 2 * MAX_OFFSET_NANOS, "displays " + (high - low) + " ns apart");
+            long master = engine.snapshot().gameClockNanos();
+            assertTrue(Math.abs(low - master) < GameClock.NANOS_PER_SECOND, "displays follow the master's clock");
+        } finally {
+            for (ClockSyncClient display : displays) {
+                display.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.scoreboard;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameClockTest {
+    private long now = 1_000_000_000L;
+    private final GameClock clock = new GameClock(() -> now);
+
+    private void advance(long nanos) {
+        now += nanos;
+    }
+
+    @Test
+    void countsUpOnlyWhileRunning() {
+        clock.countUp(0, 0);
+        advance(GameClock.NANOS_PER_SECOND);
+        assertEquals(0, clock.valueNanos());
+
+        clock.start();
+        advance(GameClock.toNanos(1, 5));
+        assertEquals(GameClock.toNanos(1, 5), clock.valueNanos());
+        assertEquals(650, clock.tenths());
+        assertFalse(clock.isCountDown());
+    }
+
+    @Test
+    void countsDownToZeroAndStaysThere() {
+        clock.countDown(GameClock.toNanos(0, 30));
+        clock.start();
+        advance(GameClock.toNanos(0, 10));
+        assertEquals(GameClock.toNanos(0, 20), clock.valueNanos());
+        assertFalse(clock.isFinished());
+
+        advance(GameClock.toNanos(1, 0));
+        assertEquals(0, clock.valueNanos());
+        assertTrue(clock.isFinished());
+        assertTrue(clock.pauseIfFinished());
+        assertFalse(clock.isRunning());
+        assertFalse(clock.pauseIfFinished());
+    }
+
+    @Test
+    void pauseKeepsTheValueAndResumeContinuesFromIt() {
+        clock.countUp(0, 0);
+        clock.start();
+        advance(3 * GameClock.NANOS_PER_SECOND);
+        clock.pause();
+        assertFalse(clock.isRunning());
+
+        advance(GameClock.toNanos(5, 0));
+        assertEquals(3 * GameClock.NANOS_PER_SECOND, clock.valueNanos());
+
+        clock.start();
+        advance(2 * GameClock.NANOS_PER_SECOND);
+        assertEquals(5 * GameClock.NANOS_PER_SECOND, clock.valueNanos());
+    }
+
+    @Test
+    void startAndPauseTwiceChangeNothing() {
+        clock.countUp(0, 0);
+        clock.start();
+        advance(GameClock.NANOS_PER_SECOND);
+        clock.start();
+        advance(GameClock.NANOS_PER_SECOND);
+        assertEquals(2 * GameClock.NANOS_PER_SECOND, clock.valueNanos());
+        clock.pause();
+        clock.pause();
+        assertEquals(2 * GameClock.NANOS_PER_SECOND, clock.valueNanos());
+    }
+
+    @Test
+    void stopsAtTheLimit() {
+        long period = GameClock.toNanos(20, 0);
+        clock.countUp(GameClock.toNanos(19, 59), period);
+        clock.start();
+        advance(GameClock.NANOS_PER_SECOND / 2);
+        assertFalse(clock.isFinished());
+
+        advance(GameClock.toNanos(2, 0));
+        assertEquals(period, clock.valueNanos());
+        assertTrue(clock.isFinished());
+        assertTrue(clock.pauseIfFinished());
+        advance(GameClock.NANOS_PER_SECOND);
+        assertEquals(period, clock.valueNanos());
+    }
+
+    @Test
+    void changingTheLimitKeepsTheValue() {
+        clock.countUp(0, GameClock.toNanos(20, 0));
+        clock.start();
+        advance(GameClock.toNanos(12, 0));
+        clock.setLimitNanos(GameClock.toNanos(10, 0));
+        assertEquals(GameClock.toNanos(10, 0), clock.valueNanos());
+        assertTrue(clock.pauseIfFinished());
+
+        clock.setLimitNanos(GameClock.toNanos(15, 0));
+        clock.start();
+        advance(GameClock.toNanos(1, 0));
+        assertEquals(GameClock.toNanos(11, 0), clock.valueNanos());
+    }
+
+    @Test
+    void setMovesARunningClock() {
+        clock.countDown(GameClock.toNanos(15, 0));
+        clock.start();
+        advance(GameClock.toNanos(1, 0));
+        clock.set(GameClock.toNanos(10, 0));
+        advance(GameClock.NANOS_PER_TENTH);
+        assertEquals(GameClock.toNanos(10, 0) - GameClock.NANOS_PER_TENTH, clock.valueNanos());
+        assertTrue(clock.isCountDown());
+    }
+
+    @Test
+    void valueIsComputedFromTheTimeSourceNotFromSamples() {
+        clock.countUp(0, 0);
+        clock.start();
+        for (int i = 0; i < 1000; i++) {
+            advance(GameClock.NANOS_PER_TENTH / 3);
+        }
+        assertEquals(1000 * (GameClock.NANOS_PER_TENTH / 3), clock.valueNanos());
+        assertEquals(clock.valueAt(now + GameClock.NANOS_PER_SECOND), clock.valueNanos() + GameClock.NANOS_PER_SECOND);
+    }
+}
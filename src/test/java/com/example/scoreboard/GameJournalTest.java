@@ -0,0 +1,100 @@
+package com.example.scoreboard;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameJournalTest {
+    @TempDir
+    Path dir;
+
+    private static GameJournal.Restored restore(GameJournal journal, GameState game, GameClock countdown) {
+        return journal.restore(game, new GameClock(), countdown, new PenaltyBox(), new PlayerStats());
+    }
+
+    @Test
+    void aNewGameNeverRestoresRecordsOfTheLastOne() throws IOException {
+        Path file = dir.resolve("game.journal");
+        try (GameJournal journal = GameJournal.open(file)) {
+            for (int i = 0; i < 5; i++) {
+                journal.append(GameJournal.GOAL, 1, i);
+            }
+            journal.reset();
+            journal.append(GameJournal.GOAL, 0, 0);
+        }
+        try (GameJournal journal = GameJournal.open(file)) {
+            assertEquals(1, journal.size());
+            GameState game = new GameState();
+            restore(journal, game, new GameClock());
+            assertEquals(0, game.getHomeScore());
+            assertEquals(1, game.getAwayScore());
+
+            // The new game grows over the old records and still ends where it should
+            for (int i = 0; i < 7; i++) {
+                journal.append(GameJournal.SHOT, 1, i);
+            }
+            assertEquals(8, journal.size());
+        }
+        try (GameJournal journal = GameJournal.open(file)) {
+            assertEquals(8, journal.size());
+        }
+    }
+
+    @Test
+    void aResetIsCompleteAsSoonAsItReturns() throws IOException {
+        Path file = dir.resolve("game.journal");
+        try (GameJournal journal = GameJournal.open(file)) {
+            journal.append(GameJournal.GOAL, 1, 0);
+            journal.append(GameJournal.PERIOD_NEXT, 0, 0);
+            journal.reset();
+            // Closed without another record, as if the process had died right after the reset
+        }
+        try (GameJournal journal = GameJournal.open(file)) {
+            assertEquals(0, journal.size());
+        }
+    }
+
+    @Test
+    void restoresPeriodsEndedAndARunningIntermission() {
+        GameJournal journal = GameJournal.inMemory();
+        long period = GameClock.toNanos(20, 0);
+        journal.append(GameJournal.CLOCK_START, 0, 0);
+        journal.append(GameJournal.CLOCK_STOP, 0, period);
+        journal.append(GameJournal.CLOCK_RESET, 0, 0, period);
+        journal.append(GameJournal.INTERMISSION_START, 0, 0, GameClock.toNanos(15, 0));
+
+        GameClock countdown = new GameClock();
+        GameJournal.Restored restored = restore(journal, new GameState(), countdown);
+        assertEquals(GameSnapshot.Phase.INTERMISSION, restored.phase());
+        assertEquals(1, restored.periodsEnded());
+        assertTrue(countdown.isRunning());
+        long left = countdown.valueNanos();
+        assertTrue(left <= GameClock.toNanos(15, 0) && left > GameClock.toNanos(14, 50), "left " + left);
+    }
+
+    @Test
+    void aCountdownThatRanOutWhileDownRestoresIntoPlay() {
+        GameJournal journal = GameJournal.inMemory();
+        journal.append(GameJournal.TIMEOUT_START, 1, 0, 0);
+
+        GameState game = new GameState();
+        GameJournal.Restored restored = restore(journal, game, new GameClock());
+        assertEquals(GameSnapshot.Phase.PLAY, restored.phase());
+        assertTrue(game.isHomeTimeoutUsed());
+    }
+
+    @Test
+    void aClockStartAfterATimeoutMeansTheTimeoutIsOver() {
+        GameJournal journal = GameJournal.inMemory();
+        journal.append(GameJournal.TIMEOUT_START, 0, 0, GameClock.toNanos(10, 0));
+        journal.append(GameJournal.CLOCK_START, 0, 0);
+
+        GameJournal.Restored restored = restore(journal, new GameState(), new GameClock());
+        assertEquals(GameSnapshot.Phase.PLAY, restored.phase());
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.scoreboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameReplayTest {
+    private static final GameSettings SETTINGS = new GameSettings(
+            GameClock.toNanos(4, 0), GameClock.toNanos(0, 30), true, GameClock.toNanos(0, 20));
+
+    private final GameSimulator.VirtualTime time = new GameSimulator.VirtualTime();
+    private final GameJournal journal = GameJournal.inMemory();
+
+    // Plays a game of random commands on an engine that writes to journal
+    private long playRandomGame(long seed, int actions) throws IOException {
+        Random random = new Random(seed);
+        try (ScoreboardEngine engine = new ScoreboardEngine(journal, time)) {
+            engine.submit(Command.configure(SETTINGS));
+            engine.submit(Command.of(Command.Type.CLOCK_START));
+            for (int i = 0; i < actions; i++) {
+                boolean home = random.nextBoolean();
+                Command command = switch (random.nextInt(12)) {
+                    case 0 -> Command.of(Command.Type.CLOCK_START);
+                    case 1 -> Command.of(Command.Type.CLOCK_STOP);
+                    case 2, 3 -> Command.goal(home, random.nextInt(1, 30), random.nextInt(30), 0);
+                    case 4 -> Command.of(Command.Type.GOAL_REMOVED, home);
+                    case 5, 6 -> Command.penalty(home, random.nextInt(1, 30), random.nextInt(4) == 0 ? 5 : 2);
+                    case 7 -> Command.shot(home, random.nextInt(1, 30));
+                    case 8 -> Command.of(Command.Type.TIMEOUT, home);
+                    case 9 -> Command.of(Command.Type.PERIOD_NEXT);
+                    case 10 -> Command.team(home, random.nextInt(-1, 6));
+                    default -> null;
+                };
+                if (command != null) {
+                    engine.submit(command);
+                }
+                engine.step();
+                time.advance(random.nextLong(GameClock.toNanos(0, 15)));
+                engine.step();
+            }
+            return engine.snapshot().gameTimeNanos();
+        }
+    }
+
+    // Master game time of every record, from the period lengths of the clock resets before it
+    private long[] recordTimes() {
+        long[] times = new long[journal.size()];
+        long periodStart = 0;
+        for (int i = 0; i < times.length; i++) {
+            if (journal.type(i) == GameJournal.CLOCK_RESET) {
+                periodStart += journal.value(i);
+                times[i] = periodStart;
+            } else {
+                times[i] = periodStart + journal.clockNanos(i);
+            }
+        }
+        return times;
+    }
+
+    // Applies every record up to target one by one from the start, as a restore does
+    private static void assertReplayedLinearly(GameJournal journal, long[] times, long target, GameSnapshot snapshot) {
+        GameState game = new GameState();
+        PenaltyBox penalties = new PenaltyBox();
+        long previousClockNanos = 0;
+        int periodsEnded = 0;
+        int homeTeam = -1;
+        int awayTeam = -1;
+        for (int i = 0; i < times.length && times[i] <= target; i++) {
+            journal.apply(i, previousClockNanos, game, penalties, null);
+            if (journal.type(i) == GameJournal.CLOCK_RESET) {
+                periodsEnded++;
+            } else if (journal.type(i) == GameJournal.TEAM) {
+                if (journal.arg(i) == 1) {
+                    homeTeam = (int) journal.value(i);
+                } else {
+                    awayTeam = (int) journal.value(i);
+                }
+            }
+            previousClockNanos = journal.clockNanos(i);
+        }
+        penalties.expire(target);
+        String at = "at " + target;
+        assertEquals(target, snapshot.gameTimeNanos(), at);
+        assertEquals(game.getHomeScore(), snapshot.homeScore(), at);
+        assertEquals(game.getAwayScore(), snapshot.awayScore(), at);
+        assertEquals(game.getCurrentPeriod(), snapshot.period(), at);
+        assertEquals(game.isHomeTimeoutUsed(), snapshot.homeTimeoutUsed(), at);
+        assertEquals(game.isAwayTimeoutUsed(), snapshot.awayTimeoutUsed(), at);
+        assertEquals(periodsEnded, snapshot.periodsEnded(), at);
+        assertEquals(target - penalties.gameTime(0), snapshot.gameClockNanos(), at);
+        assertEquals(penalties.penalties(), snapshot.penalties(), at);
+        assertEquals(homeTeam, snapshot.homeTeam(), at);
+        assertEquals(awayTeam, snapshot.awayTeam(), at);
+    }
+
+    @Test
+    void seeksShowWhatALinearReplayShows() throws IOException {
+        long end = playRandomGame(18, 1500);
+        long[] times = recordTimes();
+        assertTrue(times.length > 10 * GameReplay.KEYFRAME_INTERVAL, "records: " + times.length);
+        for (int i = 1; i < times.length; i++) {
+            assertTrue(times[i - 1] <= times[i], "record " + i + " before the one ahead of it");
+        }
+
+        GameReplay replay = new GameReplay(journal, end, time);
+        assertEquals(end, replay.durationNanos());
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            // Exactly at a record, just before one, or anywhere in the game, in random order so seeks go both ways
+            long target = switch (random.nextInt(3)) {
+                case 0 -> times[random.nextInt(times.length)];
+                case 1 -> Math.max(0, times[random.nextInt(times.length)] - 1);
+                default -> random.nextLong(end + 1);
+            };
+            replay.seek(target);
+            assertReplayedLinearly(journal, times, target, replay.snapshot());
+        }
+    }
+
+    @Test
+    void playingForwardShowsWhatASeekShows() throws IOException {
+        long end = playRandomGame(4, 400);
+        long[] times = recordTimes();
+        GameReplay played = new GameReplay(journal, end, time);
+        GameReplay sought = new GameReplay(journal, end, time);
+        played.setSpeed(GameReplay.MAX_SPEED);
+        played.play();
+        while (played.isPlaying()) {
+            time.advance(GameClock.toNanos(0, 1) / 3);
+            long position = played.position();
+            GameSnapshot snapshot = played.snapshot();
+            assertEquals(position, snapshot.gameTimeNanos());
+            sought.seek(position);
+            assertEquals(sought.snapshot().penalties(), snapshot.penalties());
+            assertReplayedLinearly(journal, times, position, snapshot);
+        }
+        assertEquals(end, played.position());
+    }
+
+    @Test
+    void keyframesCoverAJournalOfWholeIntervals() {
+        // Exactly two intervals of records, so the last keyframe is the state after all of them
+        int records = 2 * GameReplay.KEYFRAME_INTERVAL;
+        for (int i = 0; i < records; i++) {
+            journal.append(GameJournal.GOAL, i % 3 == 0 ? 0 : 1, GameClock.toNanos(0, i));
+        }
+        long end = GameClock.toNanos(0, records - 1);
+        GameReplay replay = new GameReplay(journal, 0, time);
+        assertEquals(end, replay.durationNanos());
+        long[] times = recordTimes();
+        for (long target : new long[]{end, 0, GameClock.toNanos(0, GameReplay.KEYFRAME_INTERVAL) - 1,
+                GameClock.toNanos(0, GameReplay.KEYFRAME_INTERVAL - 1), GameClock.toNanos(0, 100), end - 1, end}) {
+            replay.seek(target);
+            assertReplayedLinearly(journal, times, target, replay.snapshot());
+        }
+        replay.seek(end);
+        assertEquals(records, replay.snapshot().homeScore() + replay.snapshot().awayScore());
+    }
+
+    @Test
+    void recordsAtTheSameTimeAreAllShown() {
+        // Goals while the clock is stopped span keyframes at one game time
+        for (int i = 0; i < 3 * GameReplay.KEYFRAME_INTERVAL; i++) {
+            journal.append(GameJournal.GOAL, 1, GameClock.toNanos(1, 0));
+        }
+        journal.append(GameJournal.GOAL, 0, GameClock.toNanos(2, 0));
+        GameReplay replay = new GameReplay(journal, 0, time);
+        replay.seek(GameClock.toNanos(1, 0));
+        assertEquals(3 * GameReplay.KEYFRAME_INTERVAL, replay.snapshot().homeScore());
+        assertEquals(0, replay.snapshot().awayScore());
+        replay.seek(GameClock.toNanos(1, 0) - 1);
+        assertEquals(0, replay.snapshot().homeScore());
+        replay.seek(GameClock.toNanos(3, 0));
+        assertEquals(1, replay.snapshot().awayScore());
+    }
+
+    @Test
+    void seekPeriodJumpsToWhereThePeriodWasFirstShown() throws IOException {
+        try (ScoreboardEngine engine = new ScoreboardEngine(journal, time)) {
+            engine.submit(Command.configure(SETTINGS));
+            engine.submit(Command.of(Command.Type.CLOCK_START));
+            engine.step();
+            time.advance(GameClock.toNanos(1, 0));
+            engine.submit(Command.goal(true, 9, 0, 0));
+            engine.step();
+            // The period ends at 4:00; the operator moves on to the second after the intermission
+            time.advance(GameClock.toNanos(3, 30));
+            engine.step();
+            time.advance(GameClock.toNanos(0, 20));
+            engine.step();
+            engine.submit(Command.of(Command.Type.PERIOD_NEXT));
+            engine.submit(Command.of(Command.Type.CLOCK_START));
+            engine.step();
+            time.advance(GameClock.toNanos(0, 45));
+            engine.submit(Command.goal(false, 4, 0, 0));
+            engine.step();
+            time.advance(GameClock.toNanos(0, 30));
+            engine.step();
+            GameReplay replay = engine.replay();
+
+            assertTrue(replay.seekPeriod(2));
+            GameSnapshot second = replay.snapshot();
+            assertEquals(2, second.period());
+            assertEquals(GameClock.toNanos(4, 0), second.gameTimeNanos());
+            assertEquals(1, second.homeScore());
+            assertEquals(0, second.awayScore());
+
+            assertTrue(replay.seekPeriod(1));
+            assertEquals(0, replay.position());
+            assertEquals(0, replay.snapshot().homeScore());
+
+            assertFalse(replay.seekPeriod(3));
+            assertFalse(replay.seekPeriod(0));
+            assertFalse(replay.seekPeriod(GameState.PERIODS.length + 1));
+            assertEquals(0, replay.position());
+        }
+    }
+
+    @Test
+    void speedScalesHowFastTheReplayMoves() {
+        for (int i = 0; i < 10; i++) {
+            journal.append(GameJournal.SHOT, 3, GameClock.toNanos(i, 0));
+        }
+        GameReplay replay = new GameReplay(journal, GameClock.toNanos(10, 0), time);
+        assertEquals(GameClock.toNanos(10, 0), replay.durationNanos());
+        assertThrows(IllegalArgumentException.class, () -> replay.setSpeed(0));
+        assertThrows(IllegalArgumentException.class, () -> replay.setSpeed(GameReplay.MAX_SPEED + 1));
+
+        replay.play();
+        time.advance(GameClock.toNanos(0, 10));
+        assertEquals(GameClock.toNanos(0, 10), replay.position());
+
+        // A new speed counts from where the replay is, not from where it started
+        replay.setSpeed(8);
+        time.advance(GameClock.toNanos(0, 10));
+        assertEquals(GameClock.toNanos(1, 30), replay.position());
+
+        replay.pause();
+        time.advance(GameClock.toNanos(1, 0));
+        assertEquals(GameClock.toNanos(1, 30), replay.position());
+        GameSnapshot paused = replay.snapshot();
+        assertSame(paused, replay.snapshot());
+        assertFalse(paused.clockRunning());
+
+        // Stops at the end, and plays again from the start
+        replay.play();
+        time.advance(GameClock.toNanos(2, 0));
+        assertFalse(replay.isPlaying());
+        assertEquals(GameClock.toNanos(10, 0), replay.position());
+        replay.play();
+        assertEquals(0, replay.position());
+        assertTrue(replay.isPlaying());
+    }
+}
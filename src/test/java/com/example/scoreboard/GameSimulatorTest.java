@@ -0,0 +1,46 @@
+package com.example.scoreboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameSimulatorTest {
+    @Test
+    void scriptsAreParsedWithTheirSides() {
+        List<GameSimulator.Action> actions = GameSimulator.parseScript(List.of(
+                "# opening minutes",
+                "0 start",
+                "12.5 goal away 9",
+                "",
+                "3 penalty HOME 4 2",
+                "1 wait"));
+        assertEquals(4, actions.size());
+        Command goal = actions.get(1).command();
+        assertEquals(Command.Type.GOAL, goal.type());
+        assertFalse(goal.home());
+        assertEquals(9, goal.player());
+        assertEquals(12_500_000_000L, actions.get(1).waitNanos());
+        Command penalty = actions.get(2).command();
+        assertEquals(Command.Type.PENALTY, penalty.type());
+        assertTrue(penalty.home());
+        assertEquals(4, penalty.player());
+        assertEquals(2, penalty.value());
+        assertNull(actions.get(3).command());
+    }
+
+    @Test
+    void unknownSidesAreRejectedWithTheirLine() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> GameSimulator.parseScript(List.of("0 start", "", "5 goal hoem 9")));
+        assertTrue(e.getMessage().startsWith("Script line 3:"), e.getMessage());
+
+        e = assertThrows(IllegalArgumentException.class, () -> GameSimulator.parseScript(List.of("2 timeout")));
+        assertTrue(e.getMessage().startsWith("Script line 1:"), e.getMessage());
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.scoreboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PenaltyBoxTest {
+    private static final long MINUTE = GameClock.toNanos(1, 0);
+
+    private final PenaltyBox box = new PenaltyBox();
+
+    @Test
+    void aThirdPenaltyWaitsForTheFirstToEnd() {
+        box.add(true, 4, Penalty.MINOR, 0);
+        box.add(true, 5, Penalty.MINOR, MINUTE);
+        Penalty third = box.add(true, 6, Penalty.MINOR, MINUTE);
+        assertEquals(-2, box.advantage(true));
+        assertTrue(box.penalties().get(2).waiting());
+
+        assertTrue(box.expire(2 * MINUTE));
+        List<Penalty> penalties = box.penalties();
+        assertEquals(2, penalties.size());
+        Penalty started = penalties.get(1);
+        assertEquals(third.id(), started.id());
+        // Starts the moment the first one ended, not when expire was called
+        assertEquals(2 * MINUTE, started.startNanos());
+        assertEquals(4 * MINUTE, started.endNanos());
+        assertEquals(-2, box.advantage(true));
+    }
+
+    @Test
+    void misconductsRunWithoutLeavingTheTeamShortHanded() {
+        box.add(false, 4, Penalty.MINOR, 0);
+        box.add(false, 5, Penalty.MINOR, 0);
+        box.add(false, 6, Penalty.MISCONDUCT, 0);
+        assertTrue(box.penalties().stream().noneMatch(Penalty::waiting));
+        assertEquals(-2, box.advantage(false));
+        assertTrue(box.isPowerPlay(true));
+    }
+
+    @Test
+    void aPowerPlayGoalReleasesTheMinorEndingFirst() {
+        box.add(false, 4, Penalty.MINOR, 0);
+        box.add(false, 5, Penalty.MINOR, MINUTE / 2);
+        Penalty released = box.releaseOnGoal(true, MINUTE);
+        assertEquals(4, released.player());
+        assertEquals(-1, box.advantage(false));
+
+        // Even strength goals and goals by the short-handed team release nothing
+        assertNull(box.releaseOnGoal(false, MINUTE));
+        box.add(true, 7, Penalty.MINOR, MINUTE);
+        assertNull(box.releaseOnGoal(true, MINUTE));
+    }
+
+    @Test
+    void majorsAreServedInFull() {
+        box.add(true, 4, Penalty.MAJOR, 0);
+        assertNull(box.releaseOnGoal(false, MINUTE));
+        assertEquals(1, box.penalties().size());
+        assertFalse(box.expire(5 * MINUTE - 1));
+        assertTrue(box.expire(5 * MINUTE));
+        assertEquals(0, box.advantage(true));
+    }
+
+    @Test
+    void penaltiesRunOnAcrossThePeriodEnd() {
+        box.add(true, 4, Penalty.MINOR, box.gameTime(19 * MINUTE));
+        box.endPeriod(20 * MINUTE);
+        assertFalse(box.expire(box.gameTime(MINUTE - 1)));
+        assertTrue(box.expire(box.gameTime(MINUTE)));
+        assertTrue(box.penalties().isEmpty());
+    }
+
+    @Test
+    void removingThePowerPlayGoalPutsTheMinorBack() {
+        Penalty first = box.add(false, 4, Penalty.MINOR, 0);
+        box.add(false, 5, Penalty.MINOR, 0);
+        Penalty third = box.add(false, 6, Penalty.MINOR, 0);
+        box.releaseOnGoal(true, MINUTE);
+        assertEquals(MINUTE, box.penalties().stream().filter(p -> p.id() == third.id()).findFirst().orElseThrow().startNanos());
+
+        Penalty restored = box.restoreOnGoalRemoved(true, MINUTE + MINUTE / 2);
+        assertEquals(first.id(), restored.id());
+        assertEquals(2 * MINUTE, restored.endNanos());
+        assertEquals(-2, box.advantage(false));
+        // The penalty that started in its place waits again
+        assertTrue(box.penalties().get(2).waiting());
+        assertEquals(third.id(), box.penalties().get(2).id());
+
+        // Both minors end together and the third one starts then
+        box.expire(2 * MINUTE);
+        assertEquals(1, box.penalties().size());
+        assertEquals(2 * MINUTE, box.penalties().get(0).startNanos());
+    }
+
+    @Test
+    void aGoalRemovedAfterTheMinorWouldHaveEndedPutsNothingBack() {
+        box.add(false, 4, Penalty.MINOR, 0);
+        box.add(false, 5, Penalty.MINOR, MINUTE);
+        Penalty third = box.add(false, 6, Penalty.MINOR, MINUTE);
+        box.releaseOnGoal(true, MINUTE / 2);
+
+        assertNull(box.restoreOnGoalRemoved(true, 2 * MINUTE + MINUTE / 2));
+        Penalty started = box.penalties().stream().filter(p -> p.id() == third.id()).findFirst().orElseThrow();
+        assertEquals(2 * MINUTE, started.startNanos());
+        assertEquals(-2, box.advantage(false));
+    }
+
+    @Test
+    void restoreFromTheJournalUndoesAReleaseToo() {
+        GameJournal journal = GameJournal.inMemory();
+        journal.append(GameJournal.PENALTY, 4 << 1, 0, Penalty.MINOR);
+        journal.append(GameJournal.GOAL, 1, MINUTE, PlayerStats.packGoal(9, 0, 0));
+        journal.append(GameJournal.GOAL_REMOVED, 1, MINUTE + MINUTE / 2);
+
+        PenaltyBox restored = new PenaltyBox();
+        journal.restore(new GameState(), new GameClock(System::nanoTime), new GameClock(System::nanoTime), restored, null);
+        assertEquals(1, restored.penalties().size());
+        assertEquals(2 * MINUTE, restored.penalties().get(0).endNanos());
+        assertTrue(restored.isPowerPlay(true));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.scoreboard;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlayerStatsTest {
+    private final PlayerStats stats = new PlayerStats();
+
+    @Test
+    void eventsCountPerTeamNumberAndPeriod() {
+        stats.goal(true, 1, PlayerStats.packGoal(9, 10, 11));
+        stats.goal(true, 3, PlayerStats.packGoal(9, 0, 0));
+        stats.goal(false, 3, PlayerStats.packGoal(9, 4, 0));
+        stats.add(true, 22, 2, PlayerStats.PENALTY_MINUTES, Penalty.MINOR);
+        stats.add(true, 9, 2, PlayerStats.SHOTS, 1);
+
+        assertEquals(1, stats.get(true, 9, 1, PlayerStats.GOALS));
+        assertEquals(1, stats.get(true, 9, 3, PlayerStats.GOALS));
+        assertEquals(2, stats.get(true, 9, PlayerStats.GOALS));
+        assertEquals(1, stats.get(true, 10, PlayerStats.ASSISTS));
+        assertEquals(1, stats.get(true, 11, 1, PlayerStats.ASSISTS));
+        assertEquals(0, stats.get(true, 0, PlayerStats.ASSISTS)); // no assist is not credited to number 0
+        assertEquals(1, stats.get(false, 9, PlayerStats.GOALS));
+        assertEquals(1, stats.get(false, 4, 3, PlayerStats.ASSISTS));
+        assertEquals(Penalty.MINOR, stats.get(true, 22, 2, PlayerStats.PENALTY_MINUTES));
+        assertEquals(1, stats.get(true, 9, PlayerStats.SHOTS));
+    }
+
+    @Test
+    void removingAGoalTakesBackTheTeamsLastOne() {
+        stats.goal(true, 1, PlayerStats.packGoal(9, 10, 0));
+        stats.goal(true, 2, PlayerStats.packGoal(17, 9, 10));
+        stats.goal(false, 2, PlayerStats.packGoal(4, 0, 0));
+
+        assertTrue(stats.removeGoal(true));
+        assertEquals(0, stats.get(true, 17, PlayerStats.GOALS));
+        assertEquals(0, stats.get(true, 9, 2, PlayerStats.ASSISTS));
+        assertEquals(1, stats.get(true, 10, PlayerStats.ASSISTS));
+        assertEquals(1, stats.get(true, 9, 1, PlayerStats.GOALS));
+        assertEquals(1, stats.get(false, 4, PlayerStats.GOALS));
+
+        assertTrue(stats.removeGoal(true));
+        assertFalse(stats.removeGoal(true));
+        assertEquals(0, stats.get(true, 9, PlayerStats.GOALS));
+    }
+
+    @Test
+    void aGameIsAddedToTheSeasonOfEachChosenTeam() {
+        SeasonStats season = SeasonStats.inMemory();
+        stats.setTeam(true, 3);
+        stats.goal(true, 1, PlayerStats.packGoal(9, 10, 0));
+        stats.goal(false, 1, PlayerStats.packGoal(4, 0, 0));
+        stats.addTo(season);
+
+        assertEquals(1, season.gamesPlayed(3));
+        assertEquals(1, season.get(3, 9, PlayerStats.GOALS));
+        assertEquals(1, season.get(3, 10, PlayerStats.ASSISTS));
+        // The away side has no team and is skipped
+        assertEquals(0, season.gamesPlayed(0));
+
+        stats.reset();
+        assertEquals(0, stats.get(true, 9, PlayerStats.GOALS));
+        assertEquals(3, stats.teamIndex(true));
+        assertFalse(stats.removeGoal(true));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.scoreboard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static com.example.scoreboard.StateBroadcasterTest.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RemoteControlServerTest {
+    private ScoreboardEngine engine;
+    private RemoteControlServer server;
+    private InetSocketAddress address;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        engine = new ScoreboardEngine(GameJournal.inMemory());
+        engine.start();
+        server = new RemoteControlServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.attach(engine);
+        address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.port());
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        server.close();
+        engine.close();
+    }
+
+    @Test
+    void commandsAreAcknowledgedInQueueOrderAndApplied() throws Exception {
+        try (RemoteConsole scorer = new RemoteConsole(address, 1);
+             RemoteConsole timekeeper = new RemoteConsole(address, 2)) {
+            RemoteConsole.Ack goal = scorer.goal(true, 9, 10, 0);
+            assertTrue(goal.accepted());
+            assertEquals(1, goal.sequence());
+            assertEquals(1, goal.order());
+
+            RemoteConsole.Ack start = timekeeper.clockStart();
+            assertEquals(1, start.sequence());
+            assertEquals(2, start.order());
+
+            // Accepted means queued; the board shows the command once the writer has applied it
+            await(() -> engine.snapshot().homeScore() == 1 && engine.snapshot().clockRunning(), "the commands to apply");
+            assertEquals(1, engine.stats().get(true, 9, PlayerStats.GOALS));
+            assertEquals(1, engine.stats().get(true, 10, PlayerStats.ASSISTS));
+        }
+    }
+
+    @Test
+    void commandsSentAgainAreNotAppliedTwice() throws Exception {
+        try (RemoteConsole scorer = new RemoteConsole(address, 7)) {
+            int goal = scorer.submit(Command.Type.GOAL, false, 4, 0, 0);
+            int shot = scorer.submit(Command.Type.SHOT, true, 12, 0, 0);
+            await(() -> engine.snapshot().awayScore() == 1 && engine.stats().get(true, 12, PlayerStats.SHOTS) == 1,
+                    "the commands to apply");
+
+            // As after a connection lost before the acks arrived
+            List<RemoteConsole.Ack> acks = scorer.reconnect();
+            assertEquals(2, acks.size());
+            assertEquals(goal, acks.get(0).sequence());
+            assertEquals(shot, acks.get(1).sequence());
+            for (RemoteConsole.Ack ack : acks) {
+                assertEquals(RemoteControlServer.DUPLICATE, ack.status());
+                assertFalse(ack.accepted());
+            }
+
+            RemoteConsole.Ack next = scorer.goal(false, 4, 0, 0);
+            assertTrue(next.accepted());
+            assertEquals(3, next.sequence());
+            await(() -> engine.snapshot().awayScore() == 2, "the next goal to apply");
+        }
+        assertEquals(1, engine.stats().get(true, 12, PlayerStats.SHOTS));
+
+        // The same console id after a restart continues after what the server already has
+        try (RemoteConsole scorer = new RemoteConsole(address, 7)) {
+            assertEquals(4, scorer.removeGoal(false).sequence());
+            await(() -> engine.snapshot().awayScore() == 1, "the goal to be removed");
+        }
+    }
+
+    @Test
+    void consoleLinesNeedHomeOrAway() {
+        assertTrue(RemoteConsole.home(new String[]{"goal", "home", "9"}));
+        assertFalse(RemoteConsole.home(new String[]{"goal", "Away", "9"}));
+        assertThrows(IllegalArgumentException.class, () -> RemoteConsole.home(new String[]{"goal", "hme", "9"}));
+        assertThrows(IllegalArgumentException.class, () -> RemoteConsole.home(new String[]{"timeout"}));
+    }
+
+    @Test
+    void periodLinesNeedPlusOrMinus() {
+        assertTrue(RemoteConsole.forward(new String[]{"period", "+"}));
+        assertFalse(RemoteConsole.forward(new String[]{"period", "-"}));
+        assertThrows(IllegalArgumentException.class, () -> RemoteConsole.forward(new String[]{"period", "next"}));
+        assertThrows(IllegalArgumentException.class, () -> RemoteConsole.forward(new String[]{"period"}));
+    }
+
+    @Test
+    void numbersThatDoNotFitTheFrameAreNotSent() throws Exception {
+        try (RemoteConsole scorer = new RemoteConsole(address, 3)) {
+            assertThrows(IllegalArgumentException.class, () -> scorer.goal(true, 100, 0, 0));
+            assertThrows(IllegalArgumentException.class, () -> scorer.goal(true, 9, 0, 265));
+            assertThrows(IllegalArgumentException.class, () -> scorer.shot(false, -1));
+            assertThrows(IllegalArgumentException.class, () -> scorer.penalty(false, 4, 256));
+            RemoteConsole.Ack penalty = scorer.penalty(false, 4, 2);
+            assertEquals(1, penalty.sequence());
+            assertTrue(penalty.accepted());
+            await(() -> engine.snapshot().penalties().size() == 1, "the penalty to be applied");
+            assertEquals(4, engine.snapshot().penalties().get(0).player());
+        }
+    }
+}
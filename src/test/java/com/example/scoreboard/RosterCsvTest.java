@@ -0,0 +1,140 @@
+package com.example.scoreboard;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RosterCsvTest {
+    @TempDir
+    Path dir;
+
+    private RosterCsv.ImportResult importCsv(String csv) throws IOException {
+        return importCsv(csv, RosterStore.empty());
+    }
+
+    private RosterCsv.ImportResult importCsv(String csv, RosterStore roster) throws IOException {
+        Path file = dir.resolve("teams.csv");
+        Files.writeString(file, csv, StandardCharsets.UTF_8);
+        return RosterCsv.importRoster(file, roster, dir.resolve("roster.bin"));
+    }
+
+    private static List<String> players(RosterStore roster, int team) {
+        return roster.team(team).getPlayers().stream()
+                .map(p -> p.getNumber() + "|" + p.getName() + "|" + p.getPosition()).toList();
+    }
+
+    @Test
+    void quotedFieldsHeaderAndByteOrderMark() throws IOException {
+        RosterCsv.ImportResult result = importCsv("﻿team,number,name,position\r\n"
+                + "\"Sharks, HC\",9,\"Novak \"\"Nitro\"\" Jan\",f\r\n"
+                + "\n"
+                + "\"Sharks, HC\", 10 ,\"Two\nLines\",D\n"
+                + "Bears,1,Kovac,G");
+        assertEquals(0, result.errorCount());
+        assertEquals(2, result.teams());
+        assertEquals(3, result.players());
+        RosterStore roster = result.roster();
+        assertEquals("Sharks, HC", roster.teamName(0));
+        assertEquals(List.of("9|Novak \"Nitro\" Jan|F", "10|Two\nLines|D"), players(roster, 0));
+        assertEquals(List.of("1|Kovac|G"), players(roster, 1));
+    }
+
+    @Test
+    void rowsWithErrorsAreReportedWithTheirLine() throws IOException {
+        RosterStore roster = RosterStore.empty();
+        roster.add(new Team("Eagles"));
+        RosterCsv.ImportResult result = importCsv("Bears,1,Kovac,G\n"
+                + "Bears,1,Varga,F\n"
+                + "Bears,100,Big,F\n"
+                + "Bears,2,\"Multi\nLine\",X\n"
+                + "Bears,3,Short\n"
+                + " eagles ,4,Late,D\n"
+                + "Bears,5,Fine,D\n", roster);
+        assertEquals(List.of(2L, 3L, 4L, 6L, 7L), result.errors().stream().map(RosterCsv.Error::line).toList());
+        assertTrue(result.errors().get(0).message().contains("already used on line 1"), result.errors().get(0).message());
+        assertEquals(1, result.teams());
+        assertEquals(2, result.players());
+        assertEquals(7, result.rows());
+    }
+
+    @Test
+    void onlyTheFirstErrorsAreKept() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < RosterCsv.MAX_ERRORS + 50; i++) {
+            csv.append("Bears,x,Nobody,F\n");
+        }
+        RosterCsv.ImportResult result = importCsv(csv.toString());
+        assertEquals(RosterCsv.MAX_ERRORS, result.errors().size());
+        assertEquals(RosterCsv.MAX_ERRORS + 50, result.errorCount());
+        assertEquals(0, result.teams());
+    }
+
+    @Test
+    void duplicatesAreFoundAcrossChunks() throws IOException {
+        StringBuilder csv = new StringBuilder("Bears,7,First,F\n");
+        for (int i = 0; i < RosterCsv.CHUNK_SIZE + 10; i++) {
+            csv.append("Team ").append(i).append(",1,Player,D\n");
+        }
+        csv.append("bears,7,Second,F\n");
+        RosterCsv.ImportResult result = importCsv(csv.toString());
+        assertEquals(1, result.errorCount());
+        assertEquals(RosterCsv.CHUNK_SIZE + 12, result.errors().get(0).line());
+        assertTrue(result.errors().get(0).message().contains("line 1"));
+    }
+
+    @Test
+    void teamNamesFoldTheSameInEveryLocale() throws IOException {
+        Locale locale = Locale.getDefault();
+        try {
+            Locale.setDefault(new Locale("tr", "TR"));
+            RosterCsv.ImportResult result = importCsv("TITANS,1,One,F\ntitans,1,Two,F\ntitans,2,Three,F\n");
+            assertEquals(1, result.teams());
+            assertEquals(1, result.errorCount());
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    void spilledTeamsRoundTripThroughExport() throws IOException {
+        Path csv = dir.resolve("teams.csv");
+        List<String> expected = new ArrayList<>();
+        int teams = 300;
+        try (Writer out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            // Teams interleaved, so every spill writes a block for each of them
+            for (int number = 0; number < 100; number++) {
+                for (int team = 0; team < teams; team++) {
+                    out.write("Team " + team + "," + number + ",\"Player " + team + ", no. " + number + "\",D\n");
+                }
+            }
+        }
+        for (int team = 0; team < teams; team++) {
+            for (int number = 0; number < 100; number++) {
+                expected.add("Team " + team + "," + number + ",\"Player " + team + ", no. " + number + "\",D");
+            }
+        }
+        RosterCsv.ImportResult result = RosterCsv.importRoster(csv, RosterStore.empty(), dir.resolve("roster.bin"), 4096);
+        assertEquals(teams * 100, result.players());
+
+        Path exported = dir.resolve("export.csv");
+        assertEquals(teams * 100, RosterCsv.exportRoster(result.roster(), exported));
+        List<String> lines = Files.readAllLines(exported, StandardCharsets.UTF_8);
+        assertEquals("team,number,name,position", lines.get(0));
+        assertEquals(expected, lines.subList(1, lines.size()));
+        try (var files = Files.list(dir)) {
+            assertEquals(List.of("export.csv", "roster.bin", "teams.csv"),
+                    files.map(file -> file.getFileName().toString()).sorted().toList());
+        }
+    }
+}
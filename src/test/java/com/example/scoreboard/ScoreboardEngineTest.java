@@ -0,0 +1,269 @@
+package com.example.scoreboard;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreboardEngineTest {
+    private static final GameSettings SETTINGS = new GameSettings(
+            GameClock.toNanos(20, 0), GameClock.toNanos(0, 30), true, GameClock.toNanos(15, 0));
+
+    @TempDir
+    Path dir;
+
+    private final GameSimulator.VirtualTime time = new GameSimulator.VirtualTime();
+    private ScoreboardEngine engine = new ScoreboardEngine(GameJournal.inMemory(), time);
+
+    private GameSnapshot run(Command... commands) {
+        for (Command command : commands) {
+            engine.submit(command);
+        }
+        engine.step();
+        return engine.snapshot();
+    }
+
+    private GameSnapshot advance(long nanos) {
+        time.advance(nanos);
+        engine.step();
+        return engine.snapshot();
+    }
+
+    @Test
+    void goalsAndRemovedGoals() {
+        GameSnapshot snapshot = run(Command.goal(true, 9, 0, 0), Command.goal(true, 0, 0, 0), Command.goal(false, 0, 0, 0));
+        assertEquals(2, snapshot.homeScore());
+        assertEquals(1, snapshot.awayScore());
+
+        snapshot = run(Command.of(Command.Type.GOAL_REMOVED, true), Command.of(Command.Type.GOAL_REMOVED, false),
+                Command.of(Command.Type.GOAL_REMOVED, false));
+        assertEquals(1, snapshot.homeScore());
+        assertEquals(0, snapshot.awayScore());
+        assertEquals(1, engine.stats().get(true, 9, PlayerStats.GOALS));
+        assertEquals(0, engine.stats().get(true, 0, PlayerStats.GOALS));
+    }
+
+    @Test
+    void periodsStayBetweenFirstAndShootout() {
+        GameSnapshot snapshot = run(Command.of(Command.Type.PERIOD_PREVIOUS));
+        assertEquals(1, snapshot.period());
+
+        for (int i = 0; i < 6; i++) {
+            snapshot = run(Command.of(Command.Type.PERIOD_NEXT));
+        }
+        assertEquals(GameState.PERIODS.length, snapshot.period());
+        assertEquals("N", snapshot.periodLabel());
+
+        snapshot = run(Command.of(Command.Type.PERIOD_PREVIOUS));
+        assertEquals(4, snapshot.period());
+    }
+
+    @Test
+    void eachTeamHasOneTimeout() {
+        run(Command.configure(SETTINGS), Command.of(Command.Type.CLOCK_START));
+        advance(GameClock.toNanos(5, 0));
+
+        GameSnapshot snapshot = run(Command.of(Command.Type.TIMEOUT, true));
+        assertEquals(GameSnapshot.Phase.TIMEOUT, snapshot.phase());
+        assertFalse(snapshot.clockRunning());
+        assertTrue(snapshot.homeTimeoutUsed());
+        assertEquals(GameClock.toNanos(5, 0), snapshot.gameClockNanos());
+        assertEquals(SETTINGS.timeoutNanos(), snapshot.displayNanos());
+
+        // The game clock cannot start during the timeout
+        snapshot = run(Command.of(Command.Type.CLOCK_START));
+        assertFalse(snapshot.clockRunning());
+
+        snapshot = advance(SETTINGS.timeoutNanos());
+        assertEquals(GameSnapshot.Phase.PLAY, snapshot.phase());
+        assertFalse(snapshot.timeoutAvailable(true));
+        assertTrue(snapshot.timeoutAvailable(false));
+
+        snapshot = run(Command.of(Command.Type.TIMEOUT, true));
+        assertEquals(GameSnapshot.Phase.PLAY, snapshot.phase());
+
+        snapshot = run(Command.of(Command.Type.TIMEOUT, false));
+        assertEquals(GameSnapshot.Phase.TIMEOUT, snapshot.phase());
+        assertTrue(snapshot.awayTimeoutUsed());
+    }
+
+    @Test
+    void theEndOfAPeriodStartsTheIntermission() {
+        run(Command.configure(SETTINGS), Command.of(Command.Type.CLOCK_START));
+        GameSnapshot snapshot = advance(SETTINGS.periodNanos() - GameClock.NANOS_PER_TENTH);
+        assertTrue(snapshot.clockRunning());
+        assertEquals(0, snapshot.periodsEnded());
+
+        snapshot = advance(GameClock.NANOS_PER_TENTH);
+        assertEquals(GameSnapshot.Phase.INTERMISSION, snapshot.phase());
+        assertEquals(1, snapshot.periodsEnded());
+        assertFalse(snapshot.clockRunning());
+        assertEquals(0, snapshot.gameClockNanos());
+        assertEquals(SETTINGS.intermissionNanos(), snapshot.countdownNanos());
+
+        snapshot = advance(SETTINGS.intermissionNanos());
+        assertEquals(GameSnapshot.Phase.PLAY, snapshot.phase());
+        assertEquals(1, snapshot.period());
+    }
+
+    @Test
+    void withoutIntermissionsThePeriodEndOnlyStopsTheClock() {
+        GameSnapshot snapshot = run(Command.of(Command.Type.CLOCK_START));
+        snapshot = advance(GameSettings.defaults().periodNanos() * 2);
+        assertEquals(GameSnapshot.Phase.PLAY, snapshot.phase());
+        assertEquals(1, snapshot.periodsEnded());
+        assertFalse(snapshot.clockRunning());
+    }
+
+    @Test
+    void stepPublishesEveryTenthAndNothingInBetween() {
+        run(Command.configure(SETTINGS), Command.of(Command.Type.CLOCK_START));
+        GameSnapshot before = engine.snapshot();
+        long wait = engine.step();
+        assertEquals(GameClock.NANOS_PER_TENTH, wait);
+
+        time.advance(wait - 1);
+        engine.step();
+        assertSame(before, engine.snapshot());
+
+        time.advance(1);
+        engine.step();
+        assertEquals(GameClock.NANOS_PER_TENTH, engine.snapshot().gameClockNanos());
+    }
+
+    @Test
+    void newGameOnlyWhileTheClockIsStopped() {
+        GameSnapshot snapshot = run(Command.goal(true, 0, 0, 0), Command.of(Command.Type.CLOCK_START),
+                Command.of(Command.Type.NEW_GAME));
+        assertEquals(1, snapshot.homeScore());
+
+        snapshot = run(Command.of(Command.Type.CLOCK_STOP), Command.of(Command.Type.NEW_GAME));
+        assertEquals(0, snapshot.homeScore());
+        assertEquals(0, snapshot.gameClockNanos());
+    }
+
+    @Test
+    void restoresTheGameFromTheJournal() throws IOException {
+        Path file = dir.resolve("game.journal");
+        engine = new ScoreboardEngine(GameJournal.open(file), time);
+        run(Command.configure(SETTINGS), Command.team(true, 3), Command.team(false, 5));
+        run(Command.goal(false, 17, 4, 0), Command.of(Command.Type.PERIOD_NEXT), Command.of(Command.Type.TIMEOUT, true));
+        advance(SETTINGS.timeoutNanos());
+        run(Command.of(Command.Type.CLOCK_START));
+        advance(GameClock.toNanos(3, 0));
+        run(Command.of(Command.Type.CLOCK_STOP), Command.penalty(true, 22, Penalty.MINOR));
+        engine.close();
+
+        engine = new ScoreboardEngine(GameJournal.open(file), time);
+        GameSnapshot snapshot = engine.snapshot();
+        assertEquals(0, snapshot.homeScore());
+        assertEquals(1, snapshot.awayScore());
+        assertEquals(2, snapshot.period());
+        assertTrue(snapshot.homeTimeoutUsed());
+        assertFalse(snapshot.awayTimeoutUsed());
+        assertEquals(GameSnapshot.Phase.PLAY, snapshot.phase());
+        assertEquals(GameClock.toNanos(3, 0), snapshot.gameClockNanos());
+        assertEquals(1, snapshot.penalties().size());
+        assertEquals(3, snapshot.homeTeam());
+        assertEquals(5, snapshot.awayTeam());
+        assertEquals(1, engine.stats().get(false, 17, PlayerStats.GOALS));
+        assertEquals(1, engine.stats().get(false, 4, PlayerStats.ASSISTS));
+        engine.close();
+    }
+
+    @Test
+    void restoresAnIntermissionThatWasCountingDown() throws IOException {
+        Path file = dir.resolve("game.journal");
+        engine = new ScoreboardEngine(GameJournal.open(file), time);
+        run(Command.configure(SETTINGS), Command.of(Command.Type.CLOCK_START));
+        advance(SETTINGS.periodNanos());
+        assertEquals(GameSnapshot.Phase.INTERMISSION, engine.snapshot().phase());
+        engine.close();
+
+        engine = new ScoreboardEngine(GameJournal.open(file), time);
+        GameSnapshot snapshot = engine.snapshot();
+        assertEquals(GameSnapshot.Phase.INTERMISSION, snapshot.phase());
+        assertEquals(1, snapshot.periodsEnded());
+        assertTrue(snapshot.countdownNanos() > SETTINGS.intermissionNanos() - GameClock.toNanos(0, 10));
+        engine.close();
+    }
+
+    @Test
+    void aNewGameStartsAnEmptyJournal() throws IOException {
+        Path file = dir.resolve("game.journal");
+        engine = new ScoreboardEngine(GameJournal.open(file), time);
+        run(Command.goal(true, 0, 0, 0), Command.goal(true, 0, 0, 0), Command.of(Command.Type.NEW_GAME));
+        run(Command.goal(false, 0, 0, 0));
+        engine.close();
+
+        engine = new ScoreboardEngine(GameJournal.open(file), time);
+        assertEquals(0, engine.snapshot().homeScore());
+        assertEquals(1, engine.snapshot().awayScore());
+        engine.close();
+    }
+
+    @Test
+    void onlyFinishedGamesAreResults() throws IOException {
+        Standings standings = Standings.inMemory();
+        engine.setStandings(standings);
+        run(Command.team(true, 0), Command.team(false, 1), Command.goal(true, 0, 0, 0), Command.of(Command.Type.NEW_GAME));
+
+        run(Command.configure(new GameSettings(GameClock.toNanos(1, 0), SETTINGS.timeoutNanos(), false, 0)));
+        for (int period = 0; period < 3; period++) {
+            run(Command.of(Command.Type.CLOCK_START));
+            advance(GameClock.toNanos(1, 0));
+        }
+        run(Command.goal(false, 0, 0, 0), Command.of(Command.Type.NEW_GAME));
+
+        // Overtime decided before its clock ran out
+        run(Command.goal(true, 0, 0, 0), Command.of(Command.Type.PERIOD_NEXT), Command.of(Command.Type.PERIOD_NEXT),
+                Command.of(Command.Type.PERIOD_NEXT), Command.of(Command.Type.NEW_GAME));
+        engine.close(); // saves the results that are still pending
+
+        assertEquals(2, standings.resultCount());
+        assertEquals(new Standings.Result(0, 1, 0, 1, Standings.Decision.REGULATION), standings.result(0));
+        assertEquals(new Standings.Result(0, 1, 1, 0, Standings.Decision.OVERTIME), standings.result(1));
+    }
+
+    @Test
+    void removingAPowerPlayGoalPutsTheMinorBack() {
+        run(Command.configure(SETTINGS), Command.penalty(false, 4, Penalty.MINOR), Command.of(Command.Type.CLOCK_START));
+        advance(GameClock.toNanos(0, 30));
+        GameSnapshot snapshot = run(Command.goal(true, 9, 0, 0));
+        assertTrue(snapshot.penalties().isEmpty());
+
+        advance(GameClock.toNanos(0, 10));
+        snapshot = run(Command.of(Command.Type.GOAL_REMOVED, true));
+        assertEquals(1, snapshot.penalties().size());
+        assertEquals(GameClock.toNanos(2, 0), snapshot.penalties().get(0).endNanos());
+    }
+
+    @Test
+    void onlyFinishedGamesCountForTheSeason() {
+        SeasonStats season = SeasonStats.inMemory();
+        engine.setSeason(season);
+        // New game on an empty board, then an abandoned one; the teams carry over
+        run(Command.team(true, 0), Command.team(false, 1), Command.of(Command.Type.NEW_GAME));
+        run(Command.goal(true, 9, 0, 0), Command.of(Command.Type.NEW_GAME));
+        assertEquals(0, season.gamesPlayed(0));
+        assertEquals(0, season.get(0, 9, PlayerStats.GOALS));
+
+        run(Command.configure(new GameSettings(GameClock.toNanos(1, 0), SETTINGS.timeoutNanos(), false, 0)));
+        run(Command.goal(true, 9, 10, 0));
+        for (int period = 0; period < 3; period++) {
+            run(Command.of(Command.Type.CLOCK_START));
+            advance(GameClock.toNanos(1, 0));
+        }
+        run(Command.of(Command.Type.NEW_GAME));
+        assertEquals(1, season.gamesPlayed(0));
+        assertEquals(1, season.gamesPlayed(1));
+        assertEquals(1, season.get(0, 9, PlayerStats.GOALS));
+        assertEquals(1, season.get(0, 10, PlayerStats.ASSISTS));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.scoreboard;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SeasonArchiveTest {
+    @TempDir
+    Path dir;
+
+    // Game g: home team g % 10 scores one goal by number 9 and takes a shot by number 4
+    private static GameJournal game(int g) {
+        GameJournal journal = GameJournal.inMemory();
+        journal.append(GameJournal.TEAM, 1, 0, g % 10);
+        journal.append(GameJournal.TEAM, 0, 0, 10);
+        journal.append(GameJournal.SHOT, 4 << 1 | 1, GameClock.toNanos(1, 0));
+        journal.append(GameJournal.GOAL, 1, GameClock.toNanos(2, 0), PlayerStats.packGoal(9, 0, 0));
+        return journal;
+    }
+
+    @Test
+    void compactionOnlyAppends() throws IOException {
+        Path file = dir.resolve("season.archive");
+        int games = 2 * SeasonArchive.COMPACT_GAMES + 3;
+        byte[] before = null;
+        try (SeasonArchive archive = SeasonArchive.open(file)) {
+            for (int g = 0; g < games; g++) {
+                if (g == SeasonArchive.COMPACT_GAMES + 1) {
+                    before = Files.readAllBytes(file);
+                }
+                archive.add(game(g));
+            }
+            assertEquals(games, archive.gameCount());
+            assertEquals(2L * games, archive.rowCount());
+        }
+        byte[] after = Files.readAllBytes(file);
+        assertArrayEquals(before, Arrays.copyOf(after, before.length));
+
+        try (SeasonArchive archive = SeasonArchive.open(file)) {
+            assertEquals(games, archive.gameCount());
+            assertEquals(2L * games, archive.rowCount());
+            assertEquals(games, archive.count(SeasonArchive.Query.events(SeasonArchive.GOAL).number(9)));
+            List<SeasonArchive.Event> shots = archive.find(SeasonArchive.Query.events(SeasonArchive.SHOT).team(2));
+            assertEquals(13, shots.size());
+            SeasonArchive.Event last = shots.get(12);
+            assertEquals(122, last.game());
+            assertEquals(GameClock.toNanos(1, 0), last.gameTimeNanos());
+        }
+    }
+
+    @Test
+    void reopenedArchiveCompactsTheGamesAfterTheLastMergedSegment() throws IOException {
+        Path file = dir.resolve("season.archive");
+        try (SeasonArchive archive = SeasonArchive.open(file)) {
+            for (int g = 0; g < SeasonArchive.COMPACT_GAMES + 10; g++) {
+                archive.add(game(g));
+            }
+        }
+        try (SeasonArchive archive = SeasonArchive.open(file)) {
+            for (int g = SeasonArchive.COMPACT_GAMES + 10; g < 2 * SeasonArchive.COMPACT_GAMES; g++) {
+                archive.add(game(g));
+            }
+        }
+        try (SeasonArchive archive = SeasonArchive.open(file)) {
+            assertEquals(2 * SeasonArchive.COMPACT_GAMES, archive.gameCount());
+            assertEquals(2L * SeasonArchive.COMPACT_GAMES, archive.count(SeasonArchive.Query.events(SeasonArchive.SHOT)));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.scoreboard;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SeasonStatsTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void totalsAreKeptInTheFile() throws IOException {
+        Path file = dir.resolve("season.stats");
+        try (SeasonStats season = SeasonStats.open(file)) {
+            season.addGamePlayed(2);
+            season.addGamePlayed(2);
+            season.add(2, 9, PlayerStats.GOALS, 3);
+            season.add(2, 9, PlayerStats.GOALS, 1);
+            season.add(2, 99, PlayerStats.SHOTS, 7);
+        }
+        try (SeasonStats season = SeasonStats.open(file)) {
+            assertEquals(2, season.gamesPlayed(2));
+            assertEquals(4, season.get(2, 9, PlayerStats.GOALS));
+            assertEquals(7, season.get(2, 99, PlayerStats.SHOTS));
+            assertEquals(0, season.get(2, 9, PlayerStats.ASSISTS));
+            assertEquals(0, season.gamesPlayed(1));
+        }
+    }
+
+    @Test
+    void growsForTeamsBeyondItsCapacity() throws IOException {
+        Path file = dir.resolve("season.stats");
+        try (SeasonStats season = SeasonStats.open(file)) {
+            assertEquals(0, season.gamesPlayed(500));
+            season.add(1, 4, PlayerStats.ASSISTS, 2);
+            season.addGamePlayed(500);
+            season.add(500, 4, PlayerStats.ASSISTS, 5);
+            assertEquals(2, season.get(1, 4, PlayerStats.ASSISTS));
+        }
+        try (SeasonStats season = SeasonStats.open(file)) {
+            assertEquals(1, season.gamesPlayed(500));
+            assertEquals(5, season.get(500, 4, PlayerStats.ASSISTS));
+            assertEquals(2, season.get(1, 4, PlayerStats.ASSISTS));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.scoreboard;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StandingsTest {
+    @TempDir
+    Path dir;
+
+    private static List<Standings.Result> randomResults(SplittableRandom random, int teams, int count) {
+        List<Standings.Result> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int home = random.nextInt(teams);
+            int away = (home + 1 + random.nextInt(teams - 1)) % teams;
+            Standings.Decision decision = Standings.Decision.values()[random.nextInt(3)];
+            int homeGoals = random.nextInt(6);
+            int awayGoals = random.nextInt(6);
+            if (decision != Standings.Decision.REGULATION && homeGoals == awayGoals) {
+                homeGoals++;
+            }
+            results.add(new Standings.Result(home, away, homeGoals, awayGoals, decision));
+        }
+        return results;
+    }
+
+    @Test
+    void addingResultsRanksLikeATallyFromScratch() throws IOException {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int round = 0; round < 200; round++) {
+            int teams = 2 + random.nextInt(12);
+            Standings incremental = Standings.inMemory();
+            List<Standings.Result> results = randomResults(random, teams, 1 + random.nextInt(60));
+            for (Standings.Result result : results) {
+                incremental.add(result);
+                Standings tallied = Standings.inMemory();
+                tallied.importResults(new ArrayList<>(results.subList(0, incremental.resultCount())));
+                assertEquals(tallied.rows(), incremental.rows(), "round " + round + " after " + incremental.resultCount() + " results");
+            }
+        }
+    }
+
+    @Test
+    void pointsAndTieBreaks() throws IOException {
+        Standings standings = Standings.inMemory();
+        // Teams 2 and 0 end on 6 points, goal difference decides
+        standings.add(new Standings.Result(0, 1, 2, 1, Standings.Decision.REGULATION));
+        standings.add(new Standings.Result(1, 2, 3, 0, Standings.Decision.REGULATION));
+        standings.add(new Standings.Result(2, 0, 5, 1, Standings.Decision.REGULATION));
+        standings.add(new Standings.Result(0, 1, 1, 0, Standings.Decision.OVERTIME));
+        standings.add(new Standings.Result(1, 2, 1, 2, Standings.Decision.SHOOTOUT));
+        standings.add(new Standings.Result(2, 0, 3, 3, Standings.Decision.REGULATION));
+
+        List<Standings.Row> rows = standings.rows();
+        assertEquals(List.of(2, 0, 1), rows.stream().map(Standings.Row::team).toList());
+        Standings.Row first = rows.get(0);
+        assertEquals(new Standings.Row(1, 2, 4, 1, 1, 0, 1, 1, 10, 8, 6), first);
+        assertEquals(5, rows.get(2).points());
+    }
+
+    @Test
+    void aCorrectionRebuildsTheTable() throws IOException {
+        Path file = dir.resolve("results.bin");
+        try (Standings standings = Standings.open(file)) {
+            standings.add(new Standings.Result(0, 1, 3, 1, Standings.Decision.REGULATION));
+            standings.add(new Standings.Result(1, 2, 2, 2, Standings.Decision.REGULATION));
+            standings.correct(0, new Standings.Result(0, 1, 1, 3, Standings.Decision.REGULATION));
+            assertEquals(List.of(1, 2, 0), standings.rows().stream().map(Standings.Row::team).toList());
+            standings.add(new Standings.Result(2, 0, 0, 1, Standings.Decision.OVERTIME));
+        }
+        try (Standings standings = Standings.open(file)) {
+            assertEquals(3, standings.resultCount());
+            assertEquals(new Standings.Result(0, 1, 1, 3, Standings.Decision.REGULATION), standings.result(0));
+            assertEquals(new Standings.Result(2, 0, 0, 1, Standings.Decision.OVERTIME), standings.result(2));
+            assertEquals(List.of(1, 0, 2), standings.rows().stream().map(Standings.Row::team).toList());
+        }
+    }
+
+    @Test
+    void importedResultsReplaceTheOldOnes() throws IOException {
+        Path file = dir.resolve("results.bin");
+        List<Standings.Result> imported = randomResults(new SplittableRandom(3), 20, 3 * Standings.TALLY_THRESHOLD);
+        try (Standings standings = Standings.open(file)) {
+            standings.add(new Standings.Result(30, 31, 1, 0, Standings.Decision.REGULATION));
+            standings.importResults(imported);
+            assertEquals(imported.size(), standings.resultCount());
+        }
+        try (Standings standings = Standings.open(file)) {
+            assertEquals(imported.size(), standings.resultCount());
+            Standings sequential = Standings.inMemory();
+            for (Standings.Result result : imported) {
+                sequential.add(result);
+            }
+            assertEquals(sequential.rows(), standings.rows());
+        }
+    }
+
+    @Test
+    void aCorruptDecisionIsRejected() throws IOException {
+        Path file = dir.resolve("results.bin");
+        try (Standings standings = Standings.open(file)) {
+            standings.add(new Standings.Result(0, 1, 3, 1, Standings.Decision.REGULATION));
+        }
+        byte[] data = Files.readAllBytes(file);
+        ByteBuffer.wrap(data).put(8 + 12, (byte) 9);
+        Files.write(file, data);
+        assertThrows(IOException.class, () -> Standings.open(file));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.scoreboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StateBroadcasterTest {
+    private static final InetSocketAddress GROUP = new InetSocketAddress("239.1.2.3", 4456);
+
+    private final ByteBuffer packet = ByteBuffer.allocate(StateCodec.MAX_PACKET_SIZE);
+
+    private static GameSnapshot snapshot(int home, int away, long tenths) {
+        return new GameSnapshot(tenths, home, away, 2, true, false, GameSnapshot.Phase.PLAY, true,
+                tenths * GameClock.NANOS_PER_TENTH, 0, 1, 0, 0, List.of(), -1, -1);
+    }
+
+    private ByteBuffer keyframe(int sequence, GameSnapshot snapshot) {
+        packet.clear();
+        StateCodec.encodeKeyframe(packet, sequence, snapshot);
+        return packet.flip();
+    }
+
+    private ByteBuffer delta(int sequence, GameSnapshot previous, GameSnapshot next) {
+        packet.clear();
+        StateCodec.encodeDelta(packet, sequence, previous, next);
+        return packet.flip();
+    }
+
+    static void await(BooleanSupplier condition, String what) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for " + what);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void deltasApplyOnTopOfTheKeyframe() {
+        StateCodec.Decoder decoder = new StateCodec.Decoder();
+        GameSnapshot first = snapshot(2, 1, 1_200);
+        GameSnapshot second = snapshot(2, 1, 1_201);
+        GameSnapshot third = snapshot(3, 1, 1_202);
+
+        assertNull(decoder.decode(delta(1, first, second)), "a delta without a keyframe");
+        assertNotNull(decoder.decode(keyframe(1, first)));
+        assertEquals(4, delta(2, first, second).remaining() - 8, "a clock tick only sends the clock");
+        GameSnapshot decoded = decoder.decode(delta(2, first, second));
+        assertEquals(second.gameClockNanos(), decoded.gameClockNanos());
+        decoded = decoder.decode(delta(3, second, third));
+        assertEquals(3, decoded.homeScore());
+        assertEquals(1, decoded.awayScore());
+        assertEquals(2, decoded.period());
+        assertTrue(decoded.homeTimeoutUsed());
+        assertTrue(decoded.clockRunning());
+        assertEquals(third.gameClockNanos(), decoded.gameClockNanos());
+        assertEquals(1, decoded.periodsEnded());
+    }
+
+    @Test
+    void aLostDeltaWaitsForTheNextKeyframe() {
+        StateCodec.Decoder decoder = new StateCodec.Decoder();
+        GameSnapshot first = snapshot(0, 0, 10);
+        GameSnapshot second = snapshot(1, 0, 11);
+        GameSnapshot third = snapshot(1, 0, 12);
+        decoder.decode(keyframe(1, first));
+
+        // Sequence 2 was lost
+        assertNull(decoder.decode(delta(3, second, third)));
+        assertEquals(first.gameClockNanos(), decoder.current().gameClockNanos());
+
+        GameSnapshot decoded = decoder.decode(keyframe(4, third));
+        assertEquals(1, decoded.homeScore());
+        assertEquals(third.gameClockNanos(), decoded.gameClockNanos());
+    }
+
+    @Test
+    void everyDisplayOnTheLoopbackFollowsTheEngine() throws IOException, InterruptedException {
+        NetworkInterface loopback = NetworkInterface.getByName("lo");
+        GameSimulator.VirtualTime time = new GameSimulator.VirtualTime();
+        try (ScoreboardEngine engine = new ScoreboardEngine(GameJournal.inMemory(), time);
+             StateBroadcaster broadcaster = new StateBroadcaster(GROUP, loopback);
+             StateReceiver first = new StateReceiver(GROUP, loopback);
+             StateReceiver second = new StateReceiver(GROUP, loopback)) {
+            broadcaster.attach(engine);
+            await(() -> first.snapshot() != null && second.snapshot() != null, "the first keyframe");
+
+            engine.submit(Command.goal(true, 0, 0, 0));
+            engine.submit(Command.of(Command.Type.CLOCK_START));
+            engine.step();
+            for (int i = 0; i < 30; i++) {
+                time.advance(GameClock.NANOS_PER_TENTH);
+                engine.step();
+                // Give the sender time to pass every tick on, so most of them go out as deltas
+                Thread.sleep(2);
+            }
+            engine.submit(Command.goal(false, 0, 0, 0));
+            engine.submit(Command.of(Command.Type.PERIOD_NEXT));
+            engine.submit(Command.of(Command.Type.CLOCK_STOP));
+            engine.step();
+
+            GameSnapshot expected = engine.snapshot();
+            for (StateReceiver receiver : List.of(first, second)) {
+                await(() -> {
+                    GameSnapshot received = receiver.snapshot();
+                    return received.homeScore() == 1 && received.awayScore() == 1 && received.period() == 2
+                            && !received.clockRunning();
+                }, "the last change");
+                assertEquals(expected.gameClockNanos() / 1_000_000, receiver.snapshot().gameClockNanos() / 1_000_000);
+                assertEquals(GameSnapshot.Phase.PLAY, receiver.snapshot().phase());
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.scoreboard;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class TeamSearchIndexTest {
+    @TempDir
+    Path dir;
+
+    private RosterStore savedRoster(int teams) throws IOException {
+        RosterStore roster = RosterStore.empty();
+        for (int t = 0; t < teams; t++) {
+            Team team = new Team("HC Team " + t);
+            team.getPlayers().add(new Player("1", "Novak " + t, "G"));
+            team.getPlayers().add(new Player("2", t % 2 == 0 ? "Kovac" : "Varga", "D"));
+            roster.add(team);
+        }
+        Path file = dir.resolve("roster.bin");
+        roster.save(file);
+        return RosterStore.open(file);
+    }
+
+    @Test
+    void findsTeamAndPlayerNames() throws IOException {
+        TeamSearchIndex index = new TeamSearchIndex(savedRoster(6));
+        index.build();
+        assertArrayEquals(new int[]{0, 2, 4}, index.search("kovac"));
+        assertArrayEquals(new int[]{1, 3, 5}, index.search("VA"));
+        assertArrayEquals(new int[]{3}, index.search("team 3"));
+        assertArrayEquals(new int[]{3}, index.search("novak 3"));
+        assertArrayEquals(new int[0], index.search("kovacs"));
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5}, index.search(" "));
+    }
+
+    @Test
+    void indexesEditedPlayersAgain() throws IOException {
+        RosterStore roster = savedRoster(6);
+        TeamSearchIndex index = new TeamSearchIndex(roster);
+        index.build();
+
+        Team team = roster.team(3);
+        team.getPlayers().add(new Player("9", "Zelenka", "F"));
+        assertArrayEquals(new int[]{3}, index.search("zelenka"));
+        assertArrayEquals(new int[]{1, 3, 5}, index.search("varga"));
+
+        team.getPlayers().remove(1);
+        assertArrayEquals(new int[]{1, 5}, index.search("varga"));
+        assertArrayEquals(new int[]{3}, index.search("zel"));
+
+        roster.team(0).getPlayers().add(new Player("10", "Zelenka", "F"));
+        assertArrayEquals(new int[]{0, 3}, index.search("zelenka"));
+        assertArrayEquals(new int[]{0, 3}, index.search("ze"));
+    }
+
+    @Test
+    void indexesTeamsAddedAfterTheBuild() throws IOException {
+        RosterStore roster = savedRoster(2);
+        TeamSearchIndex index = new TeamSearchIndex(roster);
+        index.build();
+
+        Team team = new Team("Lions");
+        roster.add(team);
+        team.getPlayers().add(new Player("4", "Kovac", "F"));
+        assertArrayEquals(new int[]{2}, index.search("lions"));
+        assertArrayEquals(new int[]{0, 2}, index.search("kovac"));
+    }
+
+    @Test
+    void shortQueriesDoNotMatchCharsSharingTheirKey() throws IOException {
+        RosterStore roster = savedRoster(2);
+        // Cyrillic a is U+0430, which keeps the low bits of '0'
+        Team team = new Team("\u0410\u0440\u0441\u0435\u043D\u0430\u043B");
+        team.getPlayers().add(new Player("7", "\u0410\u043D\u0442\u043E\u043D", "F"));
+        roster.add(team);
+        TeamSearchIndex index = new TeamSearchIndex(roster);
+        index.build();
+        assertArrayEquals(new int[]{0}, index.search("0"));
+        assertArrayEquals(new int[]{2}, index.search("\u0430"));
+        assertArrayEquals(new int[]{2}, index.search("\u0430\u043D"));
+    }
+}